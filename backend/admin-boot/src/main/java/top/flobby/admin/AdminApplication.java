@@ -2,11 +2,13 @@ package top.flobby.admin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Admin Management System 启动类
  */
 @SpringBootApplication
+@EnableScheduling
 public class AdminApplication {
 
     public static void main(String[] args) {
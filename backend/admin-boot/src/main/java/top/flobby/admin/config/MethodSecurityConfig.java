@@ -0,0 +1,107 @@
+package top.flobby.admin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import top.flobby.admin.common.annotation.RequiresPermission;
+import top.flobby.admin.security.PermissionAuthorizationManager;
+import top.flobby.admin.system.infrastructure.security.PermissionRegistry;
+
+/**
+ * 方法级鉴权配置
+ * <p>
+ * 关闭默认的 @PreAuthorize 拦截器，改为注册预编译的鉴权拦截器:
+ * 简单的 hasAuthority / hasAnyAuthority / hasRole / hasAnyRole 表达式编译为位运算，其余表达式仍走 SpEL；
+ * 同时为 {@link RequiresPermission} 注册拦截器。应用启动完成后预编译全部接口方法
+ */
+@Configuration
+@EnableMethodSecurity(prePostEnabled = false)
+public class MethodSecurityConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodSecurityConfig.class);
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static PermissionAuthorizationManager preAuthorizeAuthorizationManager(PermissionRegistry permissionRegistry,
+                                                                           ApplicationContext applicationContext) {
+        PreAuthorizeAuthorizationManager expressionManager = new PreAuthorizeAuthorizationManager();
+        expressionManager.setApplicationContext(applicationContext);
+        return PermissionAuthorizationManager.preAuthorize(permissionRegistry, expressionManager);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static PermissionAuthorizationManager requiresPermissionAuthorizationManager(PermissionRegistry permissionRegistry) {
+        return PermissionAuthorizationManager.requiresPermission(permissionRegistry);
+    }
+
+    /**
+     * {@code @PreAuthorize} 拦截器
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAdvisor(
+            @Qualifier("preAuthorizeAuthorizationManager") PermissionAuthorizationManager manager) {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(manager);
+    }
+
+    /**
+     * {@link RequiresPermission} 拦截器，方法或类上的注解均生效，与 @PreAuthorize 同序执行
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAdvisor(
+            @Qualifier("requiresPermissionAuthorizationManager") PermissionAuthorizationManager manager) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                Pointcuts.union(
+                        new AnnotationMatchingPointcut(null, RequiresPermission.class, true),
+                        new AnnotationMatchingPointcut(RequiresPermission.class, true)),
+                manager);
+        interceptor.setOrder(AuthorizationManagerBeforeMethodInterceptor.preAuthorize().getOrder() + 1);
+        return interceptor;
+    }
+
+    /**
+     * 预编译全部接口方法的权限声明，避免首个请求承担编译开销
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompile(ApplicationReadyEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        RequestMappingHandlerMapping handlerMapping =
+                context.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        PermissionAuthorizationManager preAuthorize =
+                context.getBean("preAuthorizeAuthorizationManager", PermissionAuthorizationManager.class);
+        PermissionAuthorizationManager requiresPermission =
+                context.getBean("requiresPermissionAuthorizationManager", PermissionAuthorizationManager.class);
+
+        int compiled = 0;
+        for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+            Class<?> beanType = handlerMethod.getBeanType();
+            if (handlerMethod.hasMethodAnnotation(RequiresPermission.class)
+                    || beanType.isAnnotationPresent(RequiresPermission.class)) {
+                compiled += requiresPermission.precompile(handlerMethod.getMethod(), beanType) ? 1 : 0;
+            }
+            if (handlerMethod.hasMethodAnnotation(PreAuthorize.class)
+                    || beanType.isAnnotationPresent(PreAuthorize.class)) {
+                compiled += preAuthorize.precompile(handlerMethod.getMethod(), beanType) ? 1 : 0;
+            }
+        }
+        log.info("接口权限声明预编译完成: compiled={}", compiled);
+    }
+}
@@ -1,10 +1,11 @@
 package top.flobby.admin.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -13,6 +14,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import top.flobby.admin.security.BoundedPasswordEncoder;
 import top.flobby.admin.security.JwtAccessDeniedHandler;
 import top.flobby.admin.security.JwtAuthenticationEntryPoint;
 import top.flobby.admin.security.JwtAuthenticationFilter;
@@ -23,7 +25,6 @@ import top.flobby.admin.security.SecurityConstants;
  */
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -40,10 +41,16 @@ public class SecurityConfig {
 
     /**
      * 密码编码器（BCrypt 强度因子 12）
+     * <p>
+     * 哈希计算在独立的有界线程池中执行，线程数默认取 CPU 核心数的四分之一
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password-hashing.threads:0}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout-ms:10000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12), poolSize, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     /**
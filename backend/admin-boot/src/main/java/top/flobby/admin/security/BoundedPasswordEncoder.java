@@ -0,0 +1,157 @@
+package top.flobby.admin.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import top.flobby.admin.common.exception.BusinessException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界密码编码器
+ * <p>
+ * 把 BCrypt 计算放到独立的固定大小线程池执行，请求线程只等待结果。
+ * 队列满时立即拒绝（429），登录高峰或撞库攻击不会占满所有 CPU 核心、拖慢其他接口
+ * <p>
+ * 指标（按 operation=encode|matches 区分）:
+ * <ul>
+ *     <li>password.hash.queue.wait: 排队等待时间</li>
+ *     <li>password.hash.time: 哈希计算时间</li>
+ *     <li>password.hash.rejected: 被拒绝次数</li>
+ * </ul>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer encodeQueueWait;
+    private final Timer matchesQueueWait;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter encodeRejected;
+    private final Counter matchesRejected;
+
+    /**
+     * @param delegate      实际执行哈希的编码器
+     * @param threads       线程数
+     * @param queueCapacity 等待队列容量
+     * @param timeoutMillis 等待结果的最长时间
+     * @param meterRegistry 指标注册表
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMillis, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeQueueWait = queueWaitTimer(meterRegistry, "encode");
+        this.matchesQueueWait = queueWaitTimer(meterRegistry, "matches");
+        this.encodeTime = hashTimer(meterRegistry, "encode");
+        this.matchesTime = hashTimer(meterRegistry, "matches");
+        this.encodeRejected = rejectedCounter(meterRegistry, "encode");
+        this.matchesRejected = rejectedCounter(meterRegistry, "matches");
+        meterRegistry.gauge("password.hash.queue.size", executor, e -> e.getQueue().size());
+
+        log.info("密码哈希线程池已初始化: threads={}, queueCapacity={}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeQueueWait, encodeTime, encodeRejected);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesQueueWait, matchesTime, matchesRejected);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // 只解析哈希前缀，不做哈希计算
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task, Timer queueWait, Timer hashTime, Counter rejected) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTime.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusinessException(429, "系统繁忙，请稍后重试");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new BusinessException(429, "系统繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException("密码校验被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密码哈希计算失败", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static Timer queueWaitTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("password.hash.queue.wait")
+                .description("密码哈希排队等待时间")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("password.hash.time")
+                .description("密码哈希计算时间")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String operation) {
+        return Counter.builder("password.hash.rejected")
+                .description("密码哈希因队列已满或超时被拒绝的次数")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
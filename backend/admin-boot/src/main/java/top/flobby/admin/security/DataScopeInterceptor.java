@@ -11,22 +11,16 @@ import org.springframework.stereotype.Component;
 import top.flobby.admin.common.annotation.DataScope;
 import top.flobby.admin.common.context.DataScopeContext;
 import top.flobby.admin.common.context.DataScopeInfo;
-import top.flobby.admin.system.application.PermissionCacheService;
-import top.flobby.admin.system.domain.entity.Department;
-import top.flobby.admin.system.domain.entity.UserDept;
-import top.flobby.admin.system.domain.repository.DepartmentRepository;
+import top.flobby.admin.system.application.DataScopeService;
+import top.flobby.admin.system.domain.entity.User;
 import top.flobby.admin.system.domain.repository.UserRepository;
-import top.flobby.admin.system.infrastructure.repository.JpaUserDeptRepository;
-
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import top.flobby.admin.system.infrastructure.security.LoginUser;
 
 /**
  * 数据权限拦截器
  * <p>
- * 使用 AOP 拦截 @DataScope 标注的方法，计算并设置数据权限上下文
+ * 使用 AOP 拦截 @DataScope 标注的方法，设置数据权限上下文。
+ * 用户ID取自认证主体，数据权限信息由 {@link DataScopeService} 按用户缓存，命中时不访问数据库
  *
  * @author flobby
  * @date 2026-01-28
@@ -38,9 +32,7 @@ import java.util.stream.Collectors;
 public class DataScopeInterceptor {
 
     private final UserRepository userRepository;
-    private final PermissionCacheService permissionCacheService;
-    private final JpaUserDeptRepository userDeptRepository;
-    private final DepartmentRepository departmentRepository;
+    private final DataScopeService dataScopeService;
 
     /**
      * 拦截 @DataScope 标注的方法
@@ -52,45 +44,37 @@ public class DataScopeInterceptor {
             return joinPoint.proceed();
         }
 
-        try {
-            // 1. 解析当前用户
-            Long userId = resolveCurrentUserId();
-            if (userId == null) {
-                log.warn("无法解析当前用户ID，数据权限过滤将不生效");
-                return joinPoint.proceed();
-            }
-
-            // 2. 获取用户的数据权限范围
-            Integer dataScopeValue = permissionCacheService.getUserDataScope(userId);
-
-            // 3. 计算允许访问的部门ID集合
-            Set<Long> allowedDeptIds = resolveDeptIds(userId, dataScopeValue);
-
-            // 4. 设置数据权限上下文
-            DataScopeInfo info = new DataScopeInfo(userId, dataScopeValue, allowedDeptIds);
-            DataScopeContext.set(info);
-
-            log.debug("数据权限上下文已设置: userId={}, dataScope={}, deptIds={}",
-                    userId, dataScopeValue, allowedDeptIds);
-
-            // 5. 执行目标方法
+        // 1. 解析当前用户
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = resolveCurrentUserId(authentication);
+        if (userId == null) {
+            log.warn("无法解析当前用户ID，数据权限过滤将不生效");
             return joinPoint.proceed();
-
-        } finally {
-            // 6. 清除 ThreadLocal，避免内存泄漏
-            DataScopeContext.clear();
         }
+
+        // 2. 获取用户的数据权限信息（范围与允许访问的部门集合）
+        DataScopeInfo info = dataScopeService.getDataScopeInfo(userId, authentication.getName());
+        log.debug("数据权限上下文已设置: userId={}, dataScope={}, deptIds={}",
+                userId, info.getDataScope(), info.getAllowedDeptIds());
+
+        // 3. 在绑定数据权限上下文的作用域内执行目标方法，结束后自动恢复外层上下文
+        return DataScopeContext.callWhere(info, joinPoint::proceed);
     }
 
     /**
      * 解析当前用户ID
+     * <p>
+     * 优先取认证主体中的用户ID，认证主体不是 {@link LoginUser} 时按用户名查询
      */
-    private Long resolveCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    private Long resolveCurrentUserId(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
         }
 
+        if (authentication.getPrincipal() instanceof LoginUser loginUser && loginUser.getUserId() != null) {
+            return loginUser.getUserId();
+        }
+
         String username = authentication.getName();
         if ("anonymousUser".equals(username)) {
             return null;
@@ -98,88 +82,7 @@ public class DataScopeInterceptor {
 
         // 根据用户名查询用户ID
         return userRepository.findByUsername(username)
-                .map(user -> user.getId())
+                .map(User::getId)
                 .orElse(null);
     }
-
-    /**
-     * 计算允许访问的部门ID集合
-     *
-     * @param userId    用户ID
-     * @param dataScope 数据权限范围
-     * @return 部门ID集合
-     */
-    private Set<Long> resolveDeptIds(Long userId, Integer dataScope) {
-        // 1 - 全部数据：不需要部门过滤
-        if (dataScope == 1) {
-            return new HashSet<>();
-        }
-
-        // 4 - 仅本人：不需要部门过滤（通过用户ID过滤）
-        if (dataScope == 4) {
-            return new HashSet<>();
-        }
-
-        // 2 - 本部门及下级 或 3 - 仅本部门：需要计算部门ID集合
-        if (dataScope == 2 || dataScope == 3) {
-            // 查询用户所属的部门
-            List<UserDept> userDepts = userDeptRepository.findByUserId(userId);
-            if (userDepts.isEmpty()) {
-                log.warn("用户 {} 未关联任何部门，数据权限过滤将返回空结果", userId);
-                return new HashSet<>();
-            }
-
-            Set<Long> deptIds = userDepts.stream()
-                    .map(UserDept::getDeptId)
-                    .collect(Collectors.toSet());
-
-            // 如果是"本部门及下级"，需要展开子部门
-            if (dataScope == 2) {
-                Set<Long> expandedDeptIds = new HashSet<>(deptIds);
-                for (Long deptId : deptIds) {
-                    expandedDeptIds.addAll(getDescendantDeptIds(deptId));
-                }
-                return expandedDeptIds;
-            }
-
-            // 如果是"仅本部门"，直接返回用户所属部门
-            return deptIds;
-        }
-
-        // 其他情况（理论上不应该出现），返回空集合
-        return new HashSet<>();
-    }
-
-    /**
-     * 获取部门的所有子孙部门ID
-     *
-     * @param deptId 部门ID
-     * @return 子孙部门ID集合（包含自身）
-     */
-    private Set<Long> getDescendantDeptIds(Long deptId) {
-        Set<Long> result = new HashSet<>();
-        result.add(deptId);
-
-        // 查询当前部门
-        Department dept = departmentRepository.findById(deptId).orElse(null);
-        if (dept == null) {
-            return result;
-        }
-
-        // 构建祖级路径前缀：ancestors + "," + deptId
-        String ancestorsPrefix;
-        if (dept.getAncestors() == null || dept.getAncestors().isEmpty()) {
-            ancestorsPrefix = String.valueOf(deptId);
-        } else {
-            ancestorsPrefix = dept.getAncestors() + "," + deptId;
-        }
-
-        // 查询所有子孙部门
-        List<Department> descendants = departmentRepository.findByAncestorsStartingWith(ancestorsPrefix);
-        result.addAll(descendants.stream()
-                .map(Department::getId)
-                .collect(Collectors.toSet()));
-
-        return result;
-    }
 }
@@ -10,13 +10,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import top.flobby.admin.common.utils.JwtUtils;
+import top.flobby.admin.common.utils.VerifiedToken;
+import top.flobby.admin.system.infrastructure.security.TokenPrincipalResolver;
 
 import java.io.IOException;
 
@@ -30,7 +31,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final TokenPrincipalResolver tokenPrincipalResolver;
 
     @Value("${jwt.header}")
     private String tokenHeader;
@@ -38,9 +39,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Value("${jwt.prefix}")
     private String tokenPrefix;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, TokenPrincipalResolver tokenPrincipalResolver) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.tokenPrincipalResolver = tokenPrincipalResolver;
     }
 
     @Override
@@ -58,29 +59,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = getTokenFromRequest(request);
 
             if (StringUtils.hasText(token)) {
-                // 从 Token 中获取用户名
-                String username = jwtUtils.getUsernameFromToken(token);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // 加载用户详情
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                    // 验证 Token
-                    if (jwtUtils.validateToken(token, username)) {
-                        // 创建认证对象
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                        // 设置到 SecurityContext
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                        log.debug("用户 {} 认证成功", username);
+                // 解析并验签一次，后续复用同一份 Claims
+                VerifiedToken verified = jwtUtils.verify(token);
+
+                // 先验证 Token，再加载用户详情，避免无效 Token 触发用户加载
+                if (verified != null && verified.getUsername() != null
+                        && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    String username = verified.getUsername();
+                    // 解析用户详情（无状态模式直接由 Token 还原，否则走本地缓存，未命中时才查询数据库）
+                    UserDetails userDetails = tokenPrincipalResolver.resolve(verified);
+                    if (userDetails == null) {
+                        log.debug("用户 {} 的 Token 已失效，需要重新获取", username);
+                        filterChain.doFilter(request, response);
+                        return;
                     }
+
+                    // 创建认证对象，凭证位置存放已验签的 Token 供下游复用
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    verified,
+                                    userDetails.getAuthorities()
+                            );
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    // 设置到 SecurityContext
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+                    log.debug("用户 {} 认证成功", username);
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,229 @@
+package top.flobby.admin.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import top.flobby.admin.common.annotation.RequiresPermission;
+import top.flobby.admin.system.infrastructure.security.LoginUser;
+import top.flobby.admin.system.infrastructure.security.PermissionRegistry;
+import top.flobby.admin.system.infrastructure.security.PermissionSnapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译权限鉴权管理器
+ * <p>
+ * 把方法上的权限声明编译为权限ID数组，鉴权时对当前主体的 {@link PermissionSnapshot} 做位运算，
+ * 不解析 SpEL、不遍历权限列表。编译结果按 (方法, 目标类) 缓存，启动时由
+ * {@link #precompile(Method, Class)} 预先填充，未预编译的方法在首次调用时编译
+ * <p>
+ * 支持的声明:
+ * <ul>
+ *     <li>{@link RequiresPermission}: AND / OR</li>
+ *     <li>{@link PreAuthorize}: hasAuthority、hasAnyAuthority、hasRole、hasAnyRole 的单一调用，
+ *     参数均为字符串字面量；其余表达式交给 SpEL 鉴权管理器</li>
+ * </ul>
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionAuthorizationManager.class);
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /**
+     * 单一的 hasAuthority / hasAnyAuthority / hasRole / hasAnyRole 调用
+     */
+    private static final Pattern SIMPLE_EXPRESSION = Pattern.compile(
+            "^\\s*has(Any)?(Authority|Role)\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)\\s*$");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'([^']*)'");
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * 需要交给 SpEL 鉴权的方法
+     */
+    private static final CompiledCheck FALLBACK = new CompiledCheck(new int[0], false);
+
+    private final PermissionRegistry permissionRegistry;
+
+    /**
+     * 为 null 时编译 {@link RequiresPermission}，否则编译 {@link PreAuthorize} 并以其作为回退
+     */
+    private final AuthorizationManager<MethodInvocation> expressionFallback;
+
+    /**
+     * 编译结果，键为 (方法, 目标类)：继承同一方法的不同目标类可能声明不同的类级注解
+     */
+    private final Map<MethodClassKey, CompiledCheck> checks = new ConcurrentHashMap<>();
+
+    private PermissionAuthorizationManager(PermissionRegistry permissionRegistry,
+                                           AuthorizationManager<MethodInvocation> expressionFallback) {
+        this.permissionRegistry = permissionRegistry;
+        this.expressionFallback = expressionFallback;
+    }
+
+    /**
+     * 创建 {@link RequiresPermission} 鉴权管理器
+     */
+    public static PermissionAuthorizationManager requiresPermission(PermissionRegistry permissionRegistry) {
+        return new PermissionAuthorizationManager(permissionRegistry, null);
+    }
+
+    /**
+     * 创建 {@link PreAuthorize} 鉴权管理器
+     *
+     * @param expressionFallback 无法编译的表达式使用的 SpEL 鉴权管理器
+     */
+    public static PermissionAuthorizationManager preAuthorize(PermissionRegistry permissionRegistry,
+                                                             AuthorizationManager<MethodInvocation> expressionFallback) {
+        return new PermissionAuthorizationManager(permissionRegistry, expressionFallback);
+    }
+
+    /**
+     * 预编译方法的权限声明
+     *
+     * @param method      方法
+     * @param targetClass 目标类
+     * @return 是否存在可编译的权限声明
+     */
+    public boolean precompile(Method method, Class<?> targetClass) {
+        CompiledCheck check = checks.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> compile(method, targetClass));
+        return check != null && check != FALLBACK;
+    }
+
+    /**
+     * @deprecated 由 {@link #authorize(Supplier, MethodInvocation)} 代替，仅为实现接口保留
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        AuthorizationResult result = authorize(authentication, invocation);
+        if (result == null || result instanceof AuthorizationDecision) {
+            return (AuthorizationDecision) result;
+        }
+        return new AuthorizationDecision(result.isGranted());
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        CompiledCheck check = checks.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> compile(method, targetClass));
+
+        if (check == FALLBACK) {
+            return expressionFallback.authorize(authentication, invocation);
+        }
+
+        PermissionSnapshot snapshot = snapshotOf(authentication.get());
+        if (snapshot == null) {
+            return DENIED;
+        }
+        boolean granted = check.any() ? snapshot.hasAny(check.ids()) : snapshot.hasAll(check.ids());
+        return granted ? GRANTED : DENIED;
+    }
+
+    /**
+     * 获取认证主体的权限快照
+     */
+    private PermissionSnapshot snapshotOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof LoginUser loginUser) {
+            return loginUser.getPermissionSnapshot(permissionRegistry);
+        }
+        // 非登录用户主体（如匿名用户）不缓存快照，按权限列表临时构建
+        List<String> authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return PermissionSnapshot.of("", authorities, permissionRegistry);
+    }
+
+    private CompiledCheck compile(Method method, Class<?> targetClass) {
+        return expressionFallback == null
+                ? compileRequiresPermission(method, targetClass)
+                : compilePreAuthorize(method, targetClass);
+    }
+
+    private CompiledCheck compileRequiresPermission(Method method, Class<?> targetClass) {
+        RequiresPermission annotation = findAnnotation(method, targetClass, RequiresPermission.class);
+        if (annotation == null) {
+            // 切点已保证存在注解，这里只是防御
+            return new CompiledCheck(new int[0], true);
+        }
+        return new CompiledCheck(register(annotation.value()), annotation.logical() == RequiresPermission.Logical.OR);
+    }
+
+    private CompiledCheck compilePreAuthorize(Method method, Class<?> targetClass) {
+        PreAuthorize annotation = findAnnotation(method, targetClass, PreAuthorize.class);
+        if (annotation == null) {
+            return FALLBACK;
+        }
+        Matcher matcher = SIMPLE_EXPRESSION.matcher(annotation.value());
+        if (!matcher.matches()) {
+            log.debug("权限表达式无法预编译，使用 SpEL 鉴权: method={}, expression={}", method, annotation.value());
+            return FALLBACK;
+        }
+
+        boolean role = "Role".equals(matcher.group(2));
+        List<String> authorities = STRING_LITERAL.matcher(matcher.group(3)).results()
+                .map(result -> result.group(1))
+                .map(value -> role && !value.startsWith(ROLE_PREFIX) ? ROLE_PREFIX + value : value)
+                .toList();
+        return new CompiledCheck(register(authorities.toArray(new String[0])), matcher.group(1) != null);
+    }
+
+    private int[] register(String[] permissions) {
+        return Arrays.stream(permissions)
+                .mapToInt(permissionRegistry::register)
+                .toArray();
+    }
+
+    /**
+     * 依次在方法、目标类上的同名方法、声明类上查找注解
+     */
+    private static <A extends Annotation> A findAnnotation(Method method, Class<?> targetClass, Class<A> annotationType) {
+        Method specificMethod = targetClass != null ? AopUtils.getMostSpecificMethod(method, targetClass) : method;
+        A annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, annotationType);
+        if (annotation == null && specificMethod != method) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method, annotationType);
+        }
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod.getDeclaringClass(), annotationType);
+        }
+        if (annotation == null && targetClass != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, annotationType);
+        }
+        return annotation;
+    }
+
+    /**
+     * 编译后的权限检查
+     *
+     * @param ids 权限ID
+     * @param any true 表示任一满足即可，false 表示需要全部满足
+     */
+    private record CompiledCheck(int[] ids, boolean any) {
+    }
+}
@@ -15,6 +15,7 @@ public final class SecurityConstants {
      */
     public static final List<String> WHITE_LIST = List.of(
             "/api/auth/login",
+            "/api/auth/refresh",
             "/doc.html",
             "/webjars/**",
             "/v3/api-docs/**",
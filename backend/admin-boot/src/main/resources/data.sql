@@ -66,6 +66,10 @@ VALUES
     (21, 20, '字典新增', 3, NULL, NULL, 'system:dict:add', NULL, 1, 1, 1, 0),
     (22, 20, '字典编辑', 3, NULL, NULL, 'system:dict:edit', NULL, 2, 1, 1, 0),
     (23, 20, '字典删除', 3, NULL, NULL, 'system:dict:delete', NULL, 3, 1, 1, 0),
+    (24, 1, '地区管理', 2, 'region', 'system/region/index', 'system:region:list', 'Location', 6, 1, 1, 0),
+    (25, 24, '地区新增', 3, NULL, NULL, 'system:region:add', NULL, 1, 1, 1, 0),
+    (26, 24, '地区编辑', 3, NULL, NULL, 'system:region:edit', NULL, 2, 1, 1, 0),
+    (27, 24, '地区删除', 3, NULL, NULL, 'system:region:delete', NULL, 3, 1, 1, 0),
     (100, 0, '监控管理', 1, '/monitor', 'Layout', NULL, 'Monitor', 2, 1, 1, 0),
     (101, 100, '操作日志', 2, 'operlog', 'monitor/operlog/index', 'monitor:operlog:list', 'Document', 1, 1, 1, 0),
     (102, 101, '日志查询', 3, NULL, NULL, 'monitor:operlog:list', NULL, 1, 1, 1, 0),
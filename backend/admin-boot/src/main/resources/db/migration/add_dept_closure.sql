@@ -0,0 +1,23 @@
+-- 新增部门闭包表，并由现有未删除部门回填
+-- 需要 MySQL 8.0+（WITH RECURSIVE）
+
+CREATE TABLE IF NOT EXISTS sys_dept_closure (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'ID',
+    ancestor_id BIGINT NOT NULL COMMENT '祖先部门ID',
+    descendant_id BIGINT NOT NULL COMMENT '子孙部门ID',
+    depth INT NOT NULL DEFAULT 0 COMMENT '层级差，自身为0',
+    UNIQUE KEY uk_ancestor_descendant (ancestor_id, descendant_id),
+    INDEX idx_descendant (descendant_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='部门闭包表';
+
+DELETE FROM sys_dept_closure;
+
+INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE closure (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM sys_department WHERE deleted = 0
+    UNION ALL
+    SELECT c.ancestor_id, d.id, c.depth + 1
+    FROM closure c
+    JOIN sys_department d ON d.parent_id = c.descendant_id AND d.deleted = 0
+)
+SELECT ancestor_id, descendant_id, depth FROM closure;
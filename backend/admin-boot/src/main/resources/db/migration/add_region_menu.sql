@@ -0,0 +1,30 @@
+-- 补充地区管理菜单及按钮权限
+-- RegionController 的 system:region:* 权限此前未写入 sys_menu，所有地区接口都会返回 403
+
+INSERT INTO sys_menu (id, parent_id, menu_name, menu_type, route_path, component, permission, icon, sort_order, visible, status, deleted)
+VALUES
+    (24, 1, '地区管理', 2, 'region', 'system/region/index', 'system:region:list', 'Location', 6, 1, 1, 0),
+    (25, 24, '地区新增', 3, NULL, NULL, 'system:region:add', NULL, 1, 1, 1, 0),
+    (26, 24, '地区编辑', 3, NULL, NULL, 'system:region:edit', NULL, 2, 1, 1, 0),
+    (27, 24, '地区删除', 3, NULL, NULL, 'system:region:delete', NULL, 3, 1, 1, 0)
+ON DUPLICATE KEY UPDATE
+    menu_name = VALUES(menu_name),
+    menu_type = VALUES(menu_type),
+    route_path = VALUES(route_path),
+    component = VALUES(component),
+    permission = VALUES(permission),
+    icon = VALUES(icon),
+    sort_order = VALUES(sort_order),
+    visible = VALUES(visible),
+    status = VALUES(status),
+    deleted = VALUES(deleted);
+
+-- 超级管理员拥有地区管理的全部权限
+INSERT INTO sys_role_menu (role_id, menu_id)
+SELECT 1, id FROM sys_menu WHERE id IN (24, 25, 26, 27) AND deleted = 0
+ON DUPLICATE KEY UPDATE role_id = role_id;
+
+-- 普通用户只有查看权限
+INSERT INTO sys_role_menu (role_id, menu_id)
+SELECT 2, id FROM sys_menu WHERE id = 24 AND deleted = 0
+ON DUPLICATE KEY UPDATE role_id = role_id;
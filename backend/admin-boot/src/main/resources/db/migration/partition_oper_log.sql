@@ -0,0 +1,34 @@
+-- 操作日志表按 oper_time 按月分区
+-- 需要 MySQL 8.0+（WITH RECURSIVE）
+-- 分区键必须包含在主键中，主键改为 (id, oper_time)；为已有数据的每个月建一个分区，之后的月分区由应用维护
+-- ALTER 会重建整张表，数据量很大时请在低峰期执行或使用在线改表工具
+
+SET @min_time := COALESCE((SELECT MIN(oper_time) FROM sys_oper_log), NOW());
+
+UPDATE sys_oper_log SET oper_time = @min_time WHERE oper_time IS NULL;
+
+ALTER TABLE sys_oper_log
+    MODIFY oper_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '操作时间',
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, oper_time);
+
+SET SESSION group_concat_max_len = 65535;
+
+SET @partitions := (
+    WITH RECURSIVE months (d) AS (
+        SELECT DATE(DATE_FORMAT(@min_time, '%Y-%m-01'))
+        UNION ALL
+        SELECT d + INTERVAL 1 MONTH FROM months WHERE d < DATE(DATE_FORMAT(NOW(), '%Y-%m-01'))
+    )
+    SELECT GROUP_CONCAT(
+        CONCAT('PARTITION p', DATE_FORMAT(d, '%Y%m'), ' VALUES LESS THAN (''', d + INTERVAL 1 MONTH, ' 00:00:00'')')
+        ORDER BY d SEPARATOR ', ')
+    FROM months
+);
+
+SET @ddl := CONCAT('ALTER TABLE sys_oper_log PARTITION BY RANGE COLUMNS (oper_time) (',
+    @partitions, ', PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -129,6 +129,16 @@ CREATE TABLE IF NOT EXISTS sys_user_dept (
     INDEX idx_dept_id (dept_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户部门关联表';
 
+-- 部门闭包表（每个部门与其全部祖先各一行，含自身，depth 为层级差）
+CREATE TABLE IF NOT EXISTS sys_dept_closure (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'ID',
+    ancestor_id BIGINT NOT NULL COMMENT '祖先部门ID',
+    descendant_id BIGINT NOT NULL COMMENT '子孙部门ID',
+    depth INT NOT NULL DEFAULT 0 COMMENT '层级差，自身为0',
+    UNIQUE KEY uk_ancestor_descendant (ancestor_id, descendant_id),
+    INDEX idx_descendant (descendant_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='部门闭包表';
+
 -- 字典类型表
 CREATE TABLE IF NOT EXISTS sys_dict_type (
     id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '字典类型ID',
@@ -173,7 +183,7 @@ CREATE TABLE IF NOT EXISTS sys_dict_data (
 
 -- 操作日志表
 CREATE TABLE IF NOT EXISTS sys_oper_log (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '日志ID',
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '日志ID',
     title VARCHAR(50) COMMENT '操作模块',
     business_type TINYINT COMMENT '业务类型：1-新增，2-修改，3-删除，4-查询，5-导出，6-导入',
     method VARCHAR(200) COMMENT '方法名称',
@@ -188,14 +198,19 @@ CREATE TABLE IF NOT EXISTS sys_oper_log (
     json_result TEXT COMMENT '返回结果',
     status TINYINT DEFAULT 1 COMMENT '操作状态：0-失败，1-成功',
     error_msg VARCHAR(2000) COMMENT '错误消息',
-    oper_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '操作时间',
+    oper_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '操作时间',
     cost_time BIGINT COMMENT '消耗时间（毫秒）',
     tenant_id BIGINT COMMENT '租户ID（预留）',
+    PRIMARY KEY (id, oper_time),
     INDEX idx_oper_name (oper_name),
     INDEX idx_oper_time (oper_time),
     INDEX idx_status (status),
     INDEX idx_tenant (tenant_id)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='操作日志表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='操作日志表'
+-- 按月分区，月分区由应用启动时和每天定时创建（OperationLogPartitionManager）
+PARTITION BY RANGE COLUMNS (oper_time) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
 
 -- =============================================
 -- CMS 内容管理模块
@@ -1,20 +1,27 @@
 package top.flobby.admin.cms.application;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import top.flobby.admin.cms.domain.entity.Category;
 import top.flobby.admin.cms.domain.repository.ArticleRepository;
 import top.flobby.admin.cms.domain.repository.CategoryRepository;
 import top.flobby.admin.cms.interfaces.dto.CategoryDTO;
 import top.flobby.admin.cms.interfaces.vo.CategoryVO;
 import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.SubtreeMover;
+import top.flobby.admin.common.utils.TreeMutationLease;
+import top.flobby.admin.common.utils.TreeBuilder;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * 分类服务
@@ -26,9 +33,38 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ArticleRepository articleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TreeMutationLease treeMutationLease;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 移动子树时每批改写的分类数
+     */
+    @Value("${tree.move.chunk-size:500}")
+    private int moveChunkSize;
+
+    private SubtreeMover subtreeMover;
 
     private static final int MAX_LEVEL = 10;
 
+    /**
+     * 分类树变更租约名
+     */
+    private static final String TREE_LEASE = "category";
+
+    /**
+     * 分类树构建器，同级按 sortOrder 排序（为空视为 0）
+     */
+    private static final TreeBuilder<Category, Long> CATEGORY_TREE =
+            TreeBuilder.<Category, Long>of(Category::getId, Category::getParentId)
+                    .sortedBy(Comparator.comparingInt(c -> c.getSortOrder() != null ? c.getSortOrder() : 0));
+
+    @PostConstruct
+    public void init() {
+        subtreeMover = new SubtreeMover("category", transactionTemplate, moveChunkSize,
+                categoryRepository::findDescendantIdsAfter, categoryRepository::updateAncestorsByIds, meterRegistry);
+    }
+
     /**
      * 获取分类树
      */
@@ -48,9 +84,16 @@ public class CategoryService {
 
     /**
      * 创建分类
+     * <p>
+     * 祖级路径取自父分类，持有分类树变更租约执行，避免父分类所在子树分批移动时写入旧路径
      */
-    @Transactional
     public Long createCategory(CategoryDTO dto) {
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            return transactionTemplate.execute(tx -> insertCategory(dto));
+        }
+    }
+
+    private Long insertCategory(CategoryDTO dto) {
         Category parent = null;
         if (dto.getParentId() != null && dto.getParentId() != 0) {
             parent = categoryRepository.findById(dto.getParentId())
@@ -84,40 +127,79 @@ public class CategoryService {
 
     /**
      * 更新分类
+     * <p>
+     * 持有分类树变更租约执行。移动分类时由 {@link SubtreeMover} 分批改写子孙分类，
+     * 最后一个事务中重新加载分类、再次校验后切换分类自身
      */
-    @Transactional
     public void updateCategory(Long id, CategoryDTO dto) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("分类不存在"));
-
-        if (categoryRepository.existsByCategoryNameAndParentIdAndIdNotAndDeleted(
-                dto.getCategoryName(), dto.getParentId(), id, 0)) {
-            throw new BusinessException("同级分类名称已存在");
-        }
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            Category category = categoryRepository.findById(id)
+                    .orElseThrow(() -> new BusinessException("分类不存在"));
 
-        if (dto.getParentId() != null && !dto.getParentId().equals(category.getParentId())) {
-            if (dto.getParentId().equals(id)) {
-                throw new BusinessException("父分类不能是自己");
-            }
-            Category newParent = null;
-            if (dto.getParentId() != 0) {
-                newParent = categoryRepository.findById(dto.getParentId())
-                        .orElseThrow(() -> new BusinessException("父分类不存在"));
-                if (newParent.getAncestors() != null && newParent.getAncestors().contains("," + id + ",")) {
-                    throw new BusinessException("父分类不能是自己的子分类");
-                }
+            if (dto.getParentId() == null || dto.getParentId().equals(category.getParentId())) {
+                transactionTemplate.executeWithoutResult(status ->
+                        applyUpdate(reloadForUpdate(id, dto, category.getAncestors()), dto));
+                return;
             }
 
+            // 先在事务外校验，尽早失败；收尾事务中按同样规则再次校验
+            String newAncestors = validateMove(id, dto);
             String oldAncestors = category.getAncestors();
-            String newAncestors = calculateAncestors(newParent);
-            category.setParentId(dto.getParentId());
-            category.setAncestors(newAncestors);
 
             String oldPrefix = oldAncestors + "," + id;
             String newPrefix = newAncestors + "," + id;
-            categoryRepository.updateAncestorsByPrefix(oldPrefix, newPrefix);
+            subtreeMover.move(oldPrefix, newPrefix, lease::renew, () -> {
+                Category current = reloadForUpdate(id, dto, oldAncestors);
+                if (!newAncestors.equals(validateMove(id, dto))) {
+                    throw new BusinessException("目标父分类已被移动，请刷新后重试");
+                }
+                current.setParentId(dto.getParentId());
+                current.setAncestors(newAncestors);
+                applyUpdate(current, dto);
+            });
+        }
+    }
+
+    /**
+     * 在当前事务中重新加载分类并校验名称唯一性
+     *
+     * @param ancestors 开始更新时分类的祖级路径，不一致说明分类已被其他操作移动
+     */
+    private Category reloadForUpdate(Long id, CategoryDTO dto, String ancestors) {
+        Category current = categoryRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("分类不存在"));
+        if (!Objects.equals(current.getAncestors(), ancestors)) {
+            throw new BusinessException("分类已被移动，请刷新后重试");
+        }
+        Long parentId = dto.getParentId() != null ? dto.getParentId() : current.getParentId();
+        if (categoryRepository.existsByCategoryNameAndParentIdAndIdNotAndDeleted(
+                dto.getCategoryName(), parentId, id, 0)) {
+            throw new BusinessException("同级分类名称已存在");
+        }
+        return current;
+    }
+
+    /**
+     * 校验分类移动并计算新的祖级路径
+     */
+    private String validateMove(Long id, CategoryDTO dto) {
+        if (dto.getParentId().equals(id)) {
+            throw new BusinessException("父分类不能是自己");
+        }
+        Category newParent = null;
+        if (dto.getParentId() != 0) {
+            newParent = categoryRepository.findById(dto.getParentId())
+                    .orElseThrow(() -> new BusinessException("父分类不存在"));
+            // 新父分类的祖级路径（含其自身）中出现当前分类，说明是子孙分类
+            String path = "," + calculateAncestors(newParent) + ",";
+            if (path.contains("," + id + ",")) {
+                throw new BusinessException("父分类不能是自己的子分类");
+            }
         }
+        return calculateAncestors(newParent);
+    }
 
+    private void applyUpdate(Category category, CategoryDTO dto) {
         category.setCategoryName(dto.getCategoryName());
         category.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : category.getSortOrder());
         if (dto.getStatus() != null) {
@@ -128,7 +210,7 @@ public class CategoryService {
         }
 
         categoryRepository.save(category);
-        log.info("更新分类成功: id={}", id);
+        log.info("更新分类成功: id={}", category.getId());
     }
 
     /**
@@ -154,13 +236,17 @@ public class CategoryService {
     /**
      * 更新分类状态
      */
-    @Transactional
     public void updateStatus(Long id, Integer status) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("分类不存在"));
+        // 级联更新按祖级路径匹配子孙分类，与移动互斥
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                Category category = categoryRepository.findById(id)
+                        .orElseThrow(() -> new BusinessException("分类不存在"));
 
-        String prefix = (category.getAncestors() == null ? "" : category.getAncestors()) + "," + id;
-        categoryRepository.updateStatusCascade(id, prefix, status);
+                String prefix = (category.getAncestors() == null ? "" : category.getAncestors()) + "," + id;
+                categoryRepository.updateStatusCascade(id, prefix, status);
+            });
+        }
         log.info("更新分类状态成功: id={}, status={}", id, status);
     }
 
@@ -172,15 +258,11 @@ public class CategoryService {
     }
 
     private List<CategoryVO> buildCategoryTree(List<Category> categories, Long parentId) {
-        return categories.stream()
-                .filter(c -> parentId.equals(c.getParentId()))
-                .sorted(Comparator.comparingInt(c -> c.getSortOrder() != null ? c.getSortOrder() : 0))
-                .map(c -> {
-                    CategoryVO vo = toCategoryVO(c);
-                    vo.setChildren(buildCategoryTree(categories, c.getId()));
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        return CATEGORY_TREE.build(categories, parentId, (category, children) -> {
+            CategoryVO vo = toCategoryVO(category);
+            vo.setChildren(children);
+            return vo;
+        });
     }
 
     private CategoryVO toCategoryVO(Category category) {
@@ -28,7 +28,9 @@ public interface CategoryRepository {
 
     void deleteById(Long id);
 
-    int updateAncestorsByPrefix(String oldPrefix, String newPrefix);
+    List<Long> findDescendantIdsAfter(String prefix, long afterId, int limit);
+
+    int updateAncestorsByIds(List<Long> ids, String oldPrefix, String newPrefix);
 
     int updateStatusCascade(Long id, String prefix, Integer status);
 }
@@ -1,6 +1,7 @@
 package top.flobby.admin.cms.infrastructure.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import top.flobby.admin.cms.domain.entity.Category;
 import top.flobby.admin.cms.domain.repository.CategoryRepository;
@@ -64,8 +65,13 @@ public class CategoryRepositoryImpl implements CategoryRepository {
     }
 
     @Override
-    public int updateAncestorsByPrefix(String oldPrefix, String newPrefix) {
-        return jpaCategoryRepository.updateAncestorsByPrefix(oldPrefix, newPrefix);
+    public List<Long> findDescendantIdsAfter(String prefix, long afterId, int limit) {
+        return jpaCategoryRepository.findDescendantIdsAfter(prefix, afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int updateAncestorsByIds(List<Long> ids, String oldPrefix, String newPrefix) {
+        return jpaCategoryRepository.updateAncestorsByIds(ids, oldPrefix, newPrefix);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package top.flobby.admin.cms.infrastructure.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -30,12 +31,18 @@ public interface JpaCategoryRepository extends JpaRepository<Category, Long> {
     @Query("UPDATE Category c SET c.deleted = 1 WHERE c.id = :id")
     void softDeleteById(@Param("id") Long id);
 
+    @Query("SELECT c.id FROM Category c WHERE (c.ancestors = :prefix OR c.ancestors LIKE CONCAT(:prefix, ',%')) " +
+           "AND c.deleted = 0 AND c.id > :afterId ORDER BY c.id")
+    List<Long> findDescendantIdsAfter(@Param("prefix") String prefix, @Param("afterId") Long afterId, Pageable pageable);
+
     @Modifying
     @Query("UPDATE Category c SET c.ancestors = CONCAT(:newPrefix, SUBSTRING(c.ancestors, LENGTH(:oldPrefix) + 1)) " +
-           "WHERE c.ancestors LIKE CONCAT(:oldPrefix, '%') AND c.deleted = 0")
-    int updateAncestorsByPrefix(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix);
+           "WHERE c.id IN :ids AND (c.ancestors = :oldPrefix OR c.ancestors LIKE CONCAT(:oldPrefix, ',%'))")
+    int updateAncestorsByIds(@Param("ids") List<Long> ids, @Param("oldPrefix") String oldPrefix,
+                             @Param("newPrefix") String newPrefix);
 
     @Modifying
-    @Query("UPDATE Category c SET c.status = :status WHERE c.deleted = 0 AND (c.id = :id OR c.ancestors LIKE CONCAT(:prefix, '%'))")
+    @Query("UPDATE Category c SET c.status = :status WHERE c.deleted = 0 AND (c.id = :id OR c.ancestors = :prefix " +
+           "OR c.ancestors LIKE CONCAT(:prefix, ',%'))")
     int updateStatusCascade(@Param("id") Long id, @Param("prefix") String prefix, @Param("status") Integer status);
 }
@@ -31,6 +31,13 @@ public @interface OperLog {
      */
     boolean saveResponseData() default true;
 
+    /**
+     * 请求参数、响应结果各自保留的最大字符数，超出部分不再序列化
+     * <p>
+     * 0 表示使用全局配置 {@code oper-log.max-content-length}
+     */
+    int maxLength() default 0;
+
     /**
      * 业务类型枚举
      */
@@ -0,0 +1,34 @@
+package top.flobby.admin.common.aspect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.common.core.OperLogRecord;
+import top.flobby.admin.common.core.OperLogSink;
+
+/**
+ * 操作日志输出到应用日志
+ * <p>
+ * 每次操作只输出一行键值对，不包含请求参数与返回结果（完整内容由数据库写入器保存）
+ */
+@Component
+public class LogOperLogSink implements OperLogSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogOperLogSink.class);
+
+    @Override
+    public void accept(OperLogRecord record) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        if (record.success()) {
+            log.info("操作日志: title={}, type={}, method={}, {} {}, ip={}, user={}, status=success, cost={}ms",
+                    record.title(), record.businessType(), record.method(), record.requestMethod(),
+                    record.operUrl(), record.operIp(), record.operName(), record.costTime());
+        } else {
+            log.info("操作日志: title={}, type={}, method={}, {} {}, ip={}, user={}, status=fail, cost={}ms, error={}",
+                    record.title(), record.businessType(), record.method(), record.requestMethod(),
+                    record.operUrl(), record.operIp(), record.operName(), record.costTime(), record.errorMsg());
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package top.flobby.admin.common.aspect;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import top.flobby.admin.common.annotation.OperLog;
+import top.flobby.admin.common.core.OperLogRecord;
+import top.flobby.admin.common.core.OperLogSink;
+import top.flobby.admin.common.utils.JsonDesensitizer;
+import top.flobby.admin.common.utils.LogDesensitizeUtils;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 操作日志 AOP 切面
+ * <p>
+ * 唯一的采集点：每次调用只采集一次参数、结果、耗时和操作人并脱敏，生成 {@link OperLogRecord}
+ * 后依次交给所有 {@link OperLogSink}（应用日志、数据库写入器等）
  */
 @Aspect
 @Component
@@ -25,97 +42,206 @@ public class OperLogAspect {
 
     private static final Logger log = LoggerFactory.getLogger(OperLogAspect.class);
 
-    private final ObjectMapper objectMapper;
+    /**
+     * 回退文本在上限之外多保留的字符数，脱敏后再截断，避免上限处的手机号、令牌被截成半截后漏过脱敏
+     */
+    private static final int FALLBACK_MARGIN = 64;
 
-    private final ThreadLocal<Long> startTime = new ThreadLocal<>();
+    private final ObjectMapper objectMapper;
+    private final List<OperLogSink> sinks;
 
-    public OperLogAspect(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
-    }
+    /**
+     * 使用原先的正则脱敏（先完整序列化再逐个正则替换），用于对比或回退
+     */
+    @Value("${oper-log.legacy-desensitize:false}")
+    private boolean legacyDesensitize;
 
     /**
-     * 前置通知：记录开始时间
+     * 请求参数、响应结果各自保留的最大字符数
      */
-    @Before("@annotation(operLog)")
-    public void doBefore(JoinPoint joinPoint, OperLog operLog) {
-        startTime.set(System.currentTimeMillis());
-    }
+    @Value("${oper-log.max-content-length:2000}")
+    private int maxContentLength;
 
     /**
-     * 后置通知：记录操作日志
+     * 不保存响应结果的业务类型（查询、导出等读多的接口结果通常很大且无审计价值）
      */
-    @AfterReturning(pointcut = "@annotation(operLog)", returning = "result")
-    public void doAfterReturning(JoinPoint joinPoint, OperLog operLog, Object result) {
-        handleLog(joinPoint, operLog, null, result);
+    @Value("${oper-log.skip-result-types:SELECT,EXPORT}")
+    private Set<OperLog.BusinessType> skipResultTypes;
+
+    public OperLogAspect(ObjectMapper objectMapper, List<OperLogSink> sinks) {
+        this.objectMapper = objectMapper;
+        this.sinks = sinks;
     }
 
     /**
-     * 异常通知：记录异常日志
+     * 环绕通知：记录耗时与操作日志
+     * <p>
+     * 开始时间保存在局部变量中，不依赖线程绑定状态
      */
-    @AfterThrowing(pointcut = "@annotation(operLog)", throwing = "e")
-    public void doAfterThrowing(JoinPoint joinPoint, OperLog operLog, Exception e) {
-        handleLog(joinPoint, operLog, e, null);
+    @Around("@annotation(operLog)")
+    public Object around(ProceedingJoinPoint joinPoint, OperLog operLog) throws Throwable {
+        long startTime = System.currentTimeMillis();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Exception e) {
+            handleLog(joinPoint, operLog, e, null, System.currentTimeMillis() - startTime);
+            throw e;
+        }
+        handleLog(joinPoint, operLog, null, result, System.currentTimeMillis() - startTime);
+        return result;
     }
 
     /**
      * 处理日志
      */
-    private void handleLog(JoinPoint joinPoint, OperLog operLog, Exception e, Object result) {
+    private void handleLog(JoinPoint joinPoint, OperLog operLog, Exception e, Object result, long costTime) {
+        OperLogRecord record;
         try {
             HttpServletRequest request = getRequest();
-            if (request == null) {
+            if (request == null || sinks.isEmpty()) {
                 return;
             }
 
-            // 计算耗时
-            long costTime = System.currentTimeMillis() - startTime.get();
-            startTime.remove();
-
-            // 构建日志信息
-            StringBuilder logBuilder = new StringBuilder();
-            logBuilder.append("\n========== 操作日志 ==========\n");
-            logBuilder.append("模块: ").append(operLog.title()).append("\n");
-            logBuilder.append("业务类型: ").append(operLog.businessType()).append("\n");
-            logBuilder.append("请求方法: ").append(joinPoint.getSignature().toShortString()).append("\n");
-            logBuilder.append("请求URL: ").append(request.getRequestURI()).append("\n");
-            logBuilder.append("请求方式: ").append(request.getMethod()).append("\n");
-            logBuilder.append("请求IP: ").append(getIpAddress(request)).append("\n");
-
-            // 保存请求参数
-            if (operLog.saveRequestData()) {
-                Object[] args = joinPoint.getArgs();
-                if (args != null && args.length > 0) {
-                    logBuilder.append("请求参数: ").append(Arrays.toString(args)).append("\n");
-                }
-            }
-
-            // 保存响应结果
-            if (operLog.saveResponseData() && result != null) {
-                String jsonResult = objectMapper.writeValueAsString(result);
-                if (jsonResult.length() > 500) {
-                    jsonResult = jsonResult.substring(0, 500) + "...";
-                }
-                logBuilder.append("响应结果: ").append(jsonResult).append("\n");
-            }
+            Principal principal = request.getUserPrincipal();
+            int maxLength = operLog.maxLength() > 0 ? operLog.maxLength() : maxContentLength;
+            boolean saveResult = operLog.saveResponseData() && !skipResultTypes.contains(operLog.businessType());
+            record = new OperLogRecord(
+                    operLog.title(),
+                    operLog.businessType(),
+                    joinPoint.getSignature().toShortString(),
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    getIpAddress(request),
+                    principal != null ? principal.getName() : null,
+                    operLog.saveRequestData() ? serializeArgs(joinPoint.getArgs(), maxLength) : null,
+                    saveResult ? serialize(result, maxLength) : null,
+                    e == null,
+                    e != null ? e.getMessage() : null,
+                    LocalDateTime.now(),
+                    costTime);
+        } catch (Exception ex) {
+            log.error("操作日志采集失败", ex);
+            return;
+        }
 
-            // 异常信息
-            if (e != null) {
-                logBuilder.append("异常信息: ").append(e.getMessage()).append("\n");
-                logBuilder.append("状态: 失败\n");
-            } else {
-                logBuilder.append("状态: 成功\n");
+        for (OperLogSink sink : sinks) {
+            try {
+                sink.accept(record);
+            } catch (Exception ex) {
+                // 单个输出失败不影响其他输出和主业务
+                log.error("操作日志输出失败: sink={}", sink.getClass().getSimpleName(), ex);
             }
+        }
+    }
 
-            logBuilder.append("耗时: ").append(costTime).append("ms\n");
-            logBuilder.append("==============================");
+    /**
+     * 序列化请求参数并脱敏，跳过请求、响应、上传文件等无法序列化的参数
+     */
+    private String serializeArgs(Object[] args, int maxLength) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        Object[] loggable = Arrays.stream(args)
+                .filter(arg -> !isIgnoredArg(arg))
+                .toArray();
+        if (loggable.length == 0) {
+            return null;
+        }
+        try {
+            return toMaskedJson(loggable, maxLength);
+        } catch (Exception ex) {
+            return toMaskedText(loggable, true, maxLength);
+        }
+    }
 
-            log.info(logBuilder.toString());
+    /**
+     * 序列化返回结果并脱敏
+     */
+    private String serialize(Object result, int maxLength) {
+        if (result == null) {
+            return null;
+        }
+        try {
+            return toMaskedJson(result, maxLength);
+        } catch (Exception ex) {
+            return toMaskedText(new Object[]{result}, false, maxLength);
+        }
+    }
 
-            // TODO: 异步保存到数据库
+    /**
+     * 序列化并脱敏：默认在序列化过程中按字段名和单次扫描脱敏，达到长度上限后停止序列化
+     * <p>
+     * 旧版正则脱敏先脱敏完整 JSON 再截断，截断点不会把敏感值切成脱敏规则识别不了的半截
+     */
+    private String toMaskedJson(Object value, int maxLength) throws IOException {
+        if (legacyDesensitize) {
+            String json = objectMapper.writeValueAsString(value);
+            return JsonDesensitizer.truncate(LogDesensitizeUtils.desensitize(json), maxLength);
+        }
+        return JsonDesensitizer.toJson(objectMapper, value, maxLength);
+    }
 
-        } catch (Exception ex) {
-            log.error("操作日志记录失败", ex);
+    /**
+     * 序列化失败时的文本回退
+     * <p>
+     * 逐个拼接 toString，超过上限加余量后不再拼接，截断点退回到单词边界，脱敏后再截断到上限
+     *
+     * @param values    参数或结果
+     * @param array     是否按 {@link Arrays#toString(Object[])} 的格式拼接
+     * @param maxLength 最大字符数
+     */
+    private String toMaskedText(Object[] values, boolean array, int maxLength) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, (long) maxLength + FALLBACK_MARGIN);
+        StringBuilder text = new StringBuilder(Math.min(limit, 256));
+        boolean cut = false;
+        if (array) {
+            text.append('[');
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            String value = String.valueOf(values[i]);
+            int remaining = limit - text.length();
+            if (value.length() > remaining) {
+                text.append(value, 0, Math.max(remaining, 0));
+                cut = true;
+                break;
+            }
+            text.append(value);
+        }
+        if (!cut) {
+            if (array) {
+                text.append(']');
+            }
+            return JsonDesensitizer.truncate(maskText(text.toString()), maxLength);
+        }
+        // 丢弃被切断的单词，半截的手机号、邮箱不会被脱敏规则识别
+        int end = text.length();
+        while (end > 0 && isWordChar(text.charAt(end - 1))) {
+            end--;
         }
+        text.setLength(end);
+        String masked = maskText(text.toString());
+        return (masked.length() > maxLength ? masked.substring(0, maxLength) : masked) + JsonDesensitizer.TRUNCATED;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '_' || c == '%' || c == '+' || c == '-' || c == '@';
+    }
+
+    private String maskText(String text) {
+        return legacyDesensitize ? LogDesensitizeUtils.desensitize(text) : JsonDesensitizer.maskText(text);
+    }
+
+    private boolean isIgnoredArg(Object arg) {
+        return arg instanceof ServletRequest
+                || arg instanceof ServletResponse
+                || arg instanceof WebRequest
+                || arg instanceof MultipartFile
+                || arg instanceof BindingResult;
     }
 
     /**
@@ -3,7 +3,11 @@ package top.flobby.admin.common.context;
 /**
  * 数据权限上下文
  * <p>
- * 使用 ThreadLocal 存储当前请求的数据权限信息
+ * 通过 {@link #callWhere(DataScopeInfo, ScopedCall)} 在一个作用域内绑定当前请求的数据权限信息，
+ * 作用域结束时自动恢复外层绑定，嵌套调用安全，平台线程与虚拟线程下行为一致。
+ * <p>
+ * 语义与 JDK 的 ScopedValue 相同；ScopedValue 在 Java 21 中仍为预览特性，
+ * 这里以 ThreadLocal 作为载体，绑定与解绑严格成对出现，不会残留到下一个请求
  *
  * @author flobby
  * @date 2026-01-28
@@ -16,8 +20,31 @@ public final class DataScopeContext {
         // 工具类，禁止实例化
     }
 
+    /**
+     * 在绑定数据权限信息的作用域内执行
+     *
+     * @param info 数据权限信息
+     * @param call 待执行的逻辑
+     * @return 执行结果
+     */
+    public static <T> T callWhere(DataScopeInfo info, ScopedCall<T> call) throws Throwable {
+        DataScopeInfo previous = CONTEXT.get();
+        CONTEXT.set(info);
+        try {
+            return call.call();
+        } finally {
+            if (previous != null) {
+                CONTEXT.set(previous);
+            } else {
+                CONTEXT.remove();
+            }
+        }
+    }
+
     /**
      * 设置数据权限上下文
+     * <p>
+     * 需自行保证与 {@link #clear()} 成对调用，业务代码优先使用 {@link #callWhere(DataScopeInfo, ScopedCall)}
      *
      * @param info 数据权限信息
      */
@@ -36,10 +63,17 @@ public final class DataScopeContext {
 
     /**
      * 清除数据权限上下文
-     * <p>
-     * 必须在请求结束时调用，避免 ThreadLocal 内存泄漏
      */
     public static void clear() {
         CONTEXT.remove();
     }
+
+    /**
+     * 作用域内执行的逻辑
+     */
+    @FunctionalInterface
+    public interface ScopedCall<T> {
+
+        T call() throws Throwable;
+    }
 }
@@ -39,4 +39,15 @@ public class DataScopeInfo {
      * 对于 scope=2 和 scope=3，包含用户所属部门及其子部门（scope=2）或仅所属部门（scope=3）
      */
     private Set<Long> allowedDeptIds;
+
+    /**
+     * 用户所属部门ID集合（未展开子部门）
+     * <p>
+     * 对于 scope=2，配合部门闭包表按祖先部门过滤，无需把整棵子树放入 IN 列表
+     */
+    private Set<Long> rootDeptIds;
+
+    public DataScopeInfo(Long userId, Integer dataScope, Set<Long> allowedDeptIds) {
+        this(userId, dataScope, allowedDeptIds, null);
+    }
 }
@@ -0,0 +1,40 @@
+package top.flobby.admin.common.core;
+
+import top.flobby.admin.common.annotation.OperLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作日志快照
+ * <p>
+ * 由操作日志切面在一次调用中采集一次：参数与结果只序列化、脱敏一次，各 {@link OperLogSink} 共享同一快照
+ *
+ * @param title         操作模块
+ * @param businessType  业务类型
+ * @param method        方法签名
+ * @param requestMethod 请求方式
+ * @param operUrl       请求URL
+ * @param operIp        操作IP
+ * @param operName      操作人员，未登录时为 null
+ * @param operParam     请求参数（已脱敏），未保存时为 null
+ * @param jsonResult    返回结果（已脱敏），未保存时为 null
+ * @param success       是否成功
+ * @param errorMsg      错误消息
+ * @param operTime      操作时间
+ * @param costTime      耗时（毫秒）
+ */
+public record OperLogRecord(
+        String title,
+        OperLog.BusinessType businessType,
+        String method,
+        String requestMethod,
+        String operUrl,
+        String operIp,
+        String operName,
+        String operParam,
+        String jsonResult,
+        boolean success,
+        String errorMsg,
+        LocalDateTime operTime,
+        long costTime) {
+}
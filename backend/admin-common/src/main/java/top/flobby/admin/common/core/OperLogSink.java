@@ -0,0 +1,17 @@
+package top.flobby.admin.common.core;
+
+/**
+ * 操作日志输出
+ * <p>
+ * 注册为 Spring Bean 即可接收操作日志切面采集的快照，例如结构化日志、数据库写入器。
+ * 在请求线程中调用，实现不应阻塞；单个输出失败不影响其他输出和主业务
+ */
+public interface OperLogSink {
+
+    /**
+     * 输出操作日志
+     *
+     * @param record 操作日志快照
+     */
+    void accept(OperLogRecord record);
+}
@@ -0,0 +1,61 @@
+package top.flobby.admin.common.utils;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * 条件请求工具类
+ * <p>
+ * 以数据版本号生成强 ETag，请求头 If-None-Match 与之一致时直接返回 304，
+ * 在执行任何业务查询和序列化之前结束请求
+ */
+public final class ConditionalRequestUtils {
+
+    /**
+     * 响应可被浏览器缓存，但每次使用前必须携带 ETag 重新验证；响应与用户相关，不允许共享缓存保存
+     */
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private ConditionalRequestUtils() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 检查请求是否命中 ETag
+     * <p>
+     * 命中时已设置 304 状态码与 ETag 响应头，接口直接返回 null 即可；
+     * 未命中时已设置 ETag 响应头，接口照常返回数据
+     *
+     * @param request 当前请求
+     * @param parts   组成 ETag 的版本信息，按顺序以 "-" 连接
+     * @return true 表示客户端缓存仍然有效
+     */
+    public static boolean checkNotModified(WebRequest request, Object... parts) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            HttpServletResponse response = servletRequest.getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            }
+        }
+        return request.checkNotModified(etag(parts));
+    }
+
+    /**
+     * 生成强 ETag
+     *
+     * @param parts 版本信息
+     * @return 带双引号的 ETag
+     */
+    public static String etag(Object... parts) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                builder.append('-');
+            }
+            builder.append(parts[i]);
+        }
+        return builder.append('"').toString();
+    }
+}
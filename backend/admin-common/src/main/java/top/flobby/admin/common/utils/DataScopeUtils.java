@@ -37,6 +37,29 @@ public final class DataScopeUtils {
             CriteriaBuilder cb,
             CriteriaQuery<T> query,
             Class<?> userDeptClass) {
+        return buildUserDataScopePredicate(root, cb, query, userDeptClass, null);
+    }
+
+    /**
+     * 构建用户数据权限过滤条件（部门闭包表）
+     * <p>
+     * scope=2 时通过闭包表关联用户所属部门的全部子孙部门，子查询参数只有用户所属部门，
+     * 不随子树大小增长；未提供闭包表实体或用户所属部门时退回 IN 列表方式
+     *
+     * @param root          User 实体的 Root
+     * @param cb            CriteriaBuilder
+     * @param query         CriteriaQuery
+     * @param userDeptClass UserDept 实体类
+     * @param closureClass  DeptClosure 实体类，可为 null
+     * @param <T>           查询结果类型
+     * @return 数据权限过滤条件，如果无需过滤则返回 conjunction (恒真条件)
+     */
+    public static <T> Predicate buildUserDataScopePredicate(
+            Root<?> root,
+            CriteriaBuilder cb,
+            CriteriaQuery<T> query,
+            Class<?> userDeptClass,
+            Class<?> closureClass) {
 
         DataScopeInfo info = DataScopeContext.get();
 
@@ -58,6 +81,20 @@ public final class DataScopeUtils {
             return cb.equal(root.get("id"), userId);
         }
 
+        // 2 - 本部门及下级：通过闭包表关联子孙部门
+        Set<Long> rootDeptIds = info.getRootDeptIds();
+        if (dataScope == 2 && closureClass != null && rootDeptIds != null && !rootDeptIds.isEmpty()) {
+            // SELECT ud.userId FROM UserDept ud, DeptClosure c
+            // WHERE c.descendantId = ud.deptId AND c.ancestorId IN (rootDeptIds)
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<?> userDeptRoot = subquery.from(userDeptClass);
+            Root<?> closureRoot = subquery.from(closureClass);
+            subquery.select(userDeptRoot.get("userId"))
+                    .where(cb.equal(closureRoot.get("descendantId"), userDeptRoot.get("deptId")),
+                            closureRoot.get("ancestorId").in(rootDeptIds));
+            return root.get("id").in(subquery);
+        }
+
         // 2 - 本部门及下级 或 3 - 仅本部门：通过 UserDept 关联过滤
         if (dataScope == 2 || dataScope == 3) {
             if (allowedDeptIds == null || allowedDeptIds.isEmpty()) {
@@ -0,0 +1,777 @@
+package top.flobby.admin.common.utils;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式日志脱敏
+ * <p>
+ * 替代 {@link LogDesensitizeUtils} 对整段 JSON 逐个正则全量替换的做法:
+ * <ul>
+ *     <li>序列化时接管 Jackson 的输出，字段名为敏感字段（以 password、token、secret 结尾或为 authorization）
+ *     的值直接写为 {@code "***"}，值为对象或数组时整体掩码，不再生成原文后再查找替换</li>
+ *     <li>其余字符串值用 {@link #maskText(String)} 一次扫描，同时识别手机号、身份证号、邮箱和
+ *     {@code password=xxx} 形式的文本，每个字符只检查一次</li>
+ * </ul>
+ * 脱敏格式与 {@link LogDesensitizeUtils} 一致，后者保留用于对比和回退
+ */
+public final class JsonDesensitizer {
+
+    private static final String MASK = "***";
+
+    /**
+     * 截断标记
+     */
+    public static final String TRUNCATED = "...[truncated]";
+
+    private JsonDesensitizer() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 序列化为 JSON 并脱敏
+     *
+     * @param objectMapper 序列化配置
+     * @param value        待序列化的对象
+     * @return 脱敏后的 JSON
+     * @throws IOException 序列化失败
+     */
+    public static String toJson(ObjectMapper objectMapper, Object value) throws IOException {
+        return toJson(objectMapper, value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 序列化为 JSON 并脱敏，输出达到上限后停止序列化
+     * <p>
+     * 超出上限时不再继续生成剩余内容（大列表不会先生成完整字符串再截断），
+     * 返回前 maxLength 个字符并追加 {@link #TRUNCATED}
+     *
+     * @param objectMapper 序列化配置
+     * @param value        待序列化的对象
+     * @param maxLength    最大字符数
+     * @return 脱敏后的 JSON，可能被截断
+     * @throws IOException 序列化失败
+     */
+    public static String toJson(ObjectMapper objectMapper, Object value, int maxLength) throws IOException {
+        BoundedWriter writer = new BoundedWriter(maxLength);
+        try (JsonGenerator generator = new MaskingJsonGenerator(objectMapper.getFactory().createGenerator(writer))) {
+            objectMapper.writeValue(generator, value);
+        } catch (IOException e) {
+            // 达到上限时由 BoundedWriter 中断序列化，Jackson 可能包装为其他 IOException
+            if (!writer.truncated) {
+                throw e;
+            }
+        }
+        return writer.truncated ? writer.buffer.append(TRUNCATED).toString() : writer.buffer.toString();
+    }
+
+    /**
+     * 截断文本
+     *
+     * @param text      文本
+     * @param maxLength 最大字符数
+     * @return 超出上限时返回前 maxLength 个字符并追加 {@link #TRUNCATED}
+     */
+    public static String truncate(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) {
+            return text;
+        }
+        return text.substring(0, maxLength) + TRUNCATED;
+    }
+
+    /**
+     * 判断字段名是否为敏感字段
+     *
+     * @param name 字段名
+     * @return 是否需要整体掩码
+     */
+    public static boolean isSensitiveName(String name) {
+        if (name == null) {
+            return false;
+        }
+        return endsWithIgnoreCase(name, 0, name.length(), "password")
+                || endsWithIgnoreCase(name, 0, name.length(), "token")
+                || endsWithIgnoreCase(name, 0, name.length(), "secret")
+                || "authorization".equalsIgnoreCase(name);
+    }
+
+    /**
+     * 一次扫描完成文本脱敏
+     * <p>
+     * 识别规则与 {@link LogDesensitizeUtils#desensitize(String)} 相同：独立的 11 位 1 开头数字为手机号，
+     * 独立的 18 位（末位可为 X）和 15 位数字为身份证号，{@code x@域名} 为邮箱，
+     * 敏感字段名后跟 {@code :} 或 {@code =} 的值整体掩码
+     *
+     * @param input 原始文本
+     * @return 脱敏后的文本；无需脱敏时返回原对象
+     */
+    public static String maskText(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        int n = input.length();
+        StringBuilder out = null;
+        // [copied, i) 之间的字符尚未写入 out，需要改写时再整体复制
+        int copied = 0;
+        int i = 0;
+        while (i < n) {
+            char c = input.charAt(i);
+
+            // 邮箱: 本地部分首字符 + *** + @域名
+            if (isEmailLocalChar(c) && (i == 0 || !isEmailLocalChar(input.charAt(i - 1)))) {
+                int at = i;
+                while (at < n && isEmailLocalChar(input.charAt(at))) {
+                    at++;
+                }
+                if (at < n && input.charAt(at) == '@' && at + 1 < n && isEmailDomainChar(input.charAt(at + 1))) {
+                    out = flush(out, input, copied, i + 1);
+                    out.append(MASK);
+                    copied = at;
+                    i = at + 1;
+                    continue;
+                }
+            }
+
+            // 数字串: 手机号、身份证号
+            if (isDigit(c) && (i == 0 || !isDigit(input.charAt(i - 1)))) {
+                int end = i;
+                while (end < n && isDigit(input.charAt(end))) {
+                    end++;
+                }
+                int len = end - i;
+                if (len == 17 && end < n && (input.charAt(end) == 'X' || input.charAt(end) == 'x')
+                        && (end + 1 == n || !isDigit(input.charAt(end + 1)))) {
+                    len = 18;
+                    end++;
+                }
+                if (len == 11 && c == '1') {
+                    out = flush(out, input, copied, i + 3);
+                    out.append("****");
+                    copied = i + 7;
+                } else if (len == 18) {
+                    out = flush(out, input, copied, i + 6);
+                    out.append("********");
+                    copied = i + 14;
+                } else if (len == 15) {
+                    out = flush(out, input, copied, i + 6);
+                    out.append("******");
+                    copied = i + 12;
+                }
+                i = end;
+                continue;
+            }
+
+            // 敏感字段名: name=xxx、"name":"xxx"（字母前的 _ 或数字不影响，如 user_password）
+            if (isLetter(c) && (i == 0 || !isLetter(input.charAt(i - 1)))) {
+                int end = i;
+                while (end < n && isLetter(input.charAt(end))) {
+                    end++;
+                }
+                if (isSensitiveName(input, i, end)) {
+                    int valueStart = skipSeparator(input, end);
+                    if (valueStart > 0) {
+                        int valueEnd = valueEnd(input, valueStart);
+                        out = flush(out, input, copied, valueStart);
+                        out.append('"').append(MASK).append('"');
+                        copied = valueEnd;
+                        i = valueEnd;
+                        continue;
+                    }
+                }
+                i = end;
+                continue;
+            }
+            i++;
+        }
+        if (out == null) {
+            return input;
+        }
+        return out.append(input, copied, n).toString();
+    }
+
+    private static StringBuilder flush(StringBuilder out, String input, int from, int to) {
+        if (out == null) {
+            out = new StringBuilder(input.length() + 16);
+        }
+        return out.append(input, from, to);
+    }
+
+    /**
+     * 跳过字段名后的 {@code "?\s*[:=]\s*}，返回值的起始位置；不是键值对时返回 -1
+     */
+    private static int skipSeparator(String input, int pos) {
+        int n = input.length();
+        if (pos < n && input.charAt(pos) == '"') {
+            pos++;
+        }
+        while (pos < n && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= n || (input.charAt(pos) != ':' && input.charAt(pos) != '=')) {
+            return -1;
+        }
+        pos++;
+        while (pos < n && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+        return pos < n ? pos : -1;
+    }
+
+    /**
+     * 值的结束位置（不含）：带引号的值到下一个引号，否则到 {@code , 空白 } ]}
+     */
+    private static int valueEnd(String input, int start) {
+        int n = input.length();
+        if (input.charAt(start) == '"') {
+            int close = input.indexOf('"', start + 1);
+            return close < 0 ? n : close + 1;
+        }
+        int end = start;
+        while (end < n) {
+            char c = input.charAt(end);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isSensitiveName(String input, int start, int end) {
+        return endsWithIgnoreCase(input, start, end, "password")
+                || endsWithIgnoreCase(input, start, end, "token")
+                || endsWithIgnoreCase(input, start, end, "secret")
+                || (end - start == 13 && input.regionMatches(true, start, "authorization", 0, 13));
+    }
+
+    private static boolean endsWithIgnoreCase(String input, int start, int end, String suffix) {
+        int len = suffix.length();
+        return end - start >= len && input.regionMatches(true, end - len, suffix, 0, len);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isEmailDomainChar(char c) {
+        return !Character.isWhitespace(c) && c != ',' && c != '}' && c != ']';
+    }
+
+    /**
+     * 有上限的字符输出，达到上限后抛出异常中断序列化
+     */
+    private static final class BoundedWriter extends Writer {
+
+        private final int maxLength;
+        private final StringBuilder buffer = new StringBuilder(256);
+        private boolean truncated;
+
+        BoundedWriter(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (truncated) {
+                throw new LimitReachedException();
+            }
+            int remaining = maxLength - buffer.length();
+            if (len <= remaining) {
+                buffer.append(cbuf, off, len);
+                return;
+            }
+            buffer.append(cbuf, off, remaining);
+            truncated = true;
+            throw new LimitReachedException();
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (truncated) {
+                throw new LimitReachedException();
+            }
+            int remaining = maxLength - buffer.length();
+            if (len <= remaining) {
+                buffer.append(str, off, off + len);
+                return;
+            }
+            buffer.append(str, off, off + remaining);
+            truncated = true;
+            throw new LimitReachedException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 输出达到上限，不记录堆栈
+     */
+    private static final class LimitReachedException extends IOException {
+
+        LimitReachedException() {
+            super("输出达到上限", null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * 在写出时脱敏的 JSON 生成器
+     * <p>
+     * 敏感字段的值无论是字符串、数字、布尔、对象还是数组，都整体写为 {@code "***"}：
+     * 对象、数组以 {@link #maskDepth} 记录嵌套层数，期间的字段名和值全部丢弃，结束后恢复输出
+     */
+    private static final class MaskingJsonGenerator extends JsonGeneratorDelegate {
+
+        /**
+         * 正在丢弃的敏感对象、数组的嵌套层数，0 表示正常输出
+         */
+        private int maskDepth;
+
+        MaskingJsonGenerator(JsonGenerator delegate) {
+            super(delegate, false);
+        }
+
+        private boolean sensitiveField() {
+            return isSensitiveName(getOutputContext().getCurrentName());
+        }
+
+        /**
+         * 标量值前调用：处于敏感值内部时丢弃，敏感字段写为掩码
+         *
+         * @return 是否已处理，无需再写出原值
+         */
+        private boolean masked() throws IOException {
+            if (maskDepth > 0) {
+                return true;
+            }
+            if (sensitiveField()) {
+                super.writeString(MASK);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 对象、数组开始前调用：敏感字段写为掩码并开始丢弃，已在丢弃中则加深一层
+         *
+         * @return 是否已处理，无需再写出开始标记
+         */
+        private boolean maskStart() throws IOException {
+            if (maskDepth > 0) {
+                maskDepth++;
+                return true;
+            }
+            if (sensitiveField()) {
+                super.writeString(MASK);
+                maskDepth = 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 对象、数组结束前调用
+         *
+         * @return 是否属于被丢弃的敏感值
+         */
+        private boolean maskEnd() {
+            if (maskDepth > 0) {
+                maskDepth--;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void writeStartObject() throws IOException {
+            if (!maskStart()) {
+                super.writeStartObject();
+            }
+        }
+
+        @Override
+        public void writeStartObject(Object forValue) throws IOException {
+            if (!maskStart()) {
+                super.writeStartObject(forValue);
+            }
+        }
+
+        @Override
+        public void writeStartObject(Object forValue, int size) throws IOException {
+            if (!maskStart()) {
+                super.writeStartObject(forValue, size);
+            }
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            if (!maskEnd()) {
+                super.writeEndObject();
+            }
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            if (!maskStart()) {
+                super.writeStartArray();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void writeStartArray(int size) throws IOException {
+            if (!maskStart()) {
+                super.writeStartArray(size);
+            }
+        }
+
+        @Override
+        public void writeStartArray(Object forValue) throws IOException {
+            if (!maskStart()) {
+                super.writeStartArray(forValue);
+            }
+        }
+
+        @Override
+        public void writeStartArray(Object forValue, int size) throws IOException {
+            if (!maskStart()) {
+                super.writeStartArray(forValue, size);
+            }
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            if (!maskEnd()) {
+                super.writeEndArray();
+            }
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            if (maskDepth == 0) {
+                super.writeFieldName(name);
+            }
+        }
+
+        @Override
+        public void writeFieldName(SerializableString name) throws IOException {
+            if (maskDepth == 0) {
+                super.writeFieldName(name);
+            }
+        }
+
+        @Override
+        public void writeFieldId(long id) throws IOException {
+            if (maskDepth == 0) {
+                super.writeFieldId(id);
+            }
+        }
+
+        @Override
+        public void writeArray(int[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(long[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(double[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeNumber(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeArray(String[] array, int offset, int length) throws IOException {
+            writeStartArray(array, length);
+            for (int i = offset; i < offset + length; i++) {
+                writeString(array[i]);
+            }
+            writeEndArray();
+        }
+
+        @Override
+        public void writeString(String text) throws IOException {
+            if (text == null) {
+                writeNull();
+            } else if (!masked()) {
+                super.writeString(maskText(text));
+            }
+        }
+
+        @Override
+        public void writeString(char[] text, int offset, int len) throws IOException {
+            writeString(new String(text, offset, len));
+        }
+
+        @Override
+        public void writeString(SerializableString text) throws IOException {
+            writeString(text.getValue());
+        }
+
+        @Override
+        public void writeString(Reader reader, int len) throws IOException {
+            // 先读出全文再按字符串脱敏，len 为负数时读到末尾
+            StringBuilder text = new StringBuilder(len > 0 ? len : 256);
+            char[] buf = new char[1024];
+            int remaining = len < 0 ? Integer.MAX_VALUE : len;
+            int n;
+            while (remaining > 0 && (n = reader.read(buf, 0, Math.min(buf.length, remaining))) > 0) {
+                text.append(buf, 0, n);
+                remaining -= n;
+            }
+            writeString(text.toString());
+        }
+
+        @Override
+        public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeRaw(String text) throws IOException {
+            if (maskDepth == 0) {
+                super.writeRaw(text);
+            }
+        }
+
+        @Override
+        public void writeRaw(String text, int offset, int len) throws IOException {
+            if (maskDepth == 0) {
+                super.writeRaw(text, offset, len);
+            }
+        }
+
+        @Override
+        public void writeRaw(SerializableString raw) throws IOException {
+            if (maskDepth == 0) {
+                super.writeRaw(raw);
+            }
+        }
+
+        @Override
+        public void writeRaw(char[] text, int offset, int len) throws IOException {
+            if (maskDepth == 0) {
+                super.writeRaw(text, offset, len);
+            }
+        }
+
+        @Override
+        public void writeRaw(char c) throws IOException {
+            if (maskDepth == 0) {
+                super.writeRaw(c);
+            }
+        }
+
+        @Override
+        public void writeRawValue(String text) throws IOException {
+            // 原样写出的 JSON 片段同样按文本脱敏，其中的 "password":"xxx" 等会被掩码
+            if (!masked()) {
+                super.writeRawValue(maskText(text));
+            }
+        }
+
+        @Override
+        public void writeRawValue(String text, int offset, int len) throws IOException {
+            writeRawValue(text.substring(offset, offset + len));
+        }
+
+        @Override
+        public void writeRawValue(char[] text, int offset, int len) throws IOException {
+            writeRawValue(new String(text, offset, len));
+        }
+
+        @Override
+        public void writeRawValue(SerializableString raw) throws IOException {
+            writeRawValue(raw.getValue());
+        }
+
+        @Override
+        public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+            if (!masked()) {
+                super.writeBinary(variant, data, offset, len);
+            }
+        }
+
+        @Override
+        public int writeBinary(Base64Variant variant, InputStream data, int dataLength) throws IOException {
+            if (!masked()) {
+                return super.writeBinary(variant, data, dataLength);
+            }
+            return 0;
+        }
+
+        @Override
+        public void writeNumber(short v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(int v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            if (masked()) {
+                return;
+            }
+            // 以数字保存的手机号、身份证号
+            String text = Long.toString(v);
+            String masked = maskText(text);
+            // maskText 无需脱敏时返回原对象
+            if (masked != text) {
+                super.writeString(masked);
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (v == null) {
+                writeNull();
+                return;
+            }
+            if (masked()) {
+                return;
+            }
+            String text = v.toString();
+            String masked = maskText(text);
+            if (masked != text) {
+                super.writeString(masked);
+            } else {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            if (v == null) {
+                writeNull();
+            } else if (!masked()) {
+                super.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(String encodedValue) throws IOException {
+            if (!masked()) {
+                super.writeNumber(encodedValue);
+            }
+        }
+
+        @Override
+        public void writeNumber(char[] encodedValue, int offset, int len) throws IOException {
+            writeNumber(new String(encodedValue, offset, len));
+        }
+
+        @Override
+        public void writeBoolean(boolean state) throws IOException {
+            if (!masked()) {
+                super.writeBoolean(state);
+            }
+        }
+
+        @Override
+        public void writeNull() throws IOException {
+            // 敏感字段为 null 时不泄露内容，保留 null
+            if (maskDepth == 0) {
+                super.writeNull();
+            }
+        }
+
+        @Override
+        public void writeEmbeddedObject(Object object) throws IOException {
+            if (!masked()) {
+                super.writeEmbeddedObject(object);
+            }
+        }
+
+        @Override
+        public void writeTypeId(Object id) throws IOException {
+            if (maskDepth == 0) {
+                super.writeTypeId(id);
+            }
+        }
+
+        @Override
+        public void writeObjectId(Object id) throws IOException {
+            if (!masked()) {
+                super.writeObjectId(id);
+            }
+        }
+
+        @Override
+        public void writeObjectRef(Object referenced) throws IOException {
+            if (!masked()) {
+                super.writeObjectRef(referenced);
+            }
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package top.flobby.admin.common.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,18 +17,59 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JWT 工具类
+ * <p>
+ * 密钥与解析器只构建一次；{@link #verify(String)} 解析并验签一次，
+ * 结果按 Token 摘要缓存到 Token 过期为止，同一 Token 的重复请求不再重复验签
  */
 @Component
 public class JwtUtils {
 
     private static final Logger log = LoggerFactory.getLogger(JwtUtils.class);
 
+    /**
+     * 无状态 Token 声明: 用户ID
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    /**
+     * 无状态 Token 声明: 数据权限范围
+     */
+    public static final String CLAIM_DATA_SCOPE = "ds";
+
+    /**
+     * 无状态 Token 声明: 权限集合指纹
+     */
+    public static final String CLAIM_PERMISSION_FINGERPRINT = "pfp";
+
+    /**
+     * 无状态 Token 声明: 签发时的权限纪元
+     */
+    public static final String CLAIM_PERMISSION_EPOCH = "pe";
+
+    /**
+     * Token 类型声明，刷新 Token 为 {@link #TOKEN_TYPE_REFRESH}，访问 Token 不携带
+     */
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+
+    /**
+     * 刷新 Token 家族ID，同一次登录轮换出的刷新 Token 与访问 Token 共享
+     */
+    public static final String CLAIM_FAMILY_ID = "fid";
+
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -32,18 +79,61 @@ public class JwtUtils {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    @Value("${jwt.verify-cache-size:10000}")
+    private long verifyCacheSize = 10000;
+
     /**
-     * 生成密钥
+     * 密钥、解析器与验签缓存，首次使用时构建（配置通过字段注入，构造时尚不可用）
+     */
+    private volatile Verifier verifier;
+
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    /**
+     * 获取密钥
      */
     private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return getVerifier().secretKey();
+    }
+
+    private Verifier getVerifier() {
+        Verifier current = verifier;
+        if (current == null) {
+            initLock.lock();
+            try {
+                current = verifier;
+                if (current == null) {
+                    SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+                    JwtParser parser = Jwts.parser().verifyWith(secretKey).build();
+                    Cache<String, VerifiedToken> cache = Caffeine.newBuilder()
+                            .maximumSize(verifyCacheSize)
+                            .expireAfter(new TokenExpiry())
+                            .build();
+                    current = new Verifier(secretKey, parser, cache);
+                    verifier = current;
+                }
+            } finally {
+                initLock.unlock();
+            }
+        }
+        return current;
     }
 
     /**
      * 生成 Token
      */
     public String generateToken(String username) {
-        Map<String, Object> claims = new HashMap<>();
+        return generateToken(username, Map.of());
+    }
+
+    /**
+     * 生成携带附加声明的 Token
+     *
+     * @param username    用户名
+     * @param extraClaims 附加声明
+     */
+    public String generateToken(String username, Map<String, Object> extraClaims) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
         claims.put("username", username);
         return createToken(claims, username, expiration);
     }
@@ -52,20 +142,49 @@ public class JwtUtils {
      * 生成刷新 Token
      */
     public String generateRefreshToken(String username) {
-        Map<String, Object> claims = new HashMap<>();
+        return generateRefreshToken(username, Map.of());
+    }
+
+    /**
+     * 生成携带附加声明的刷新 Token
+     *
+     * @param username    用户名
+     * @param extraClaims 附加声明
+     */
+    public String generateRefreshToken(String username, Map<String, Object> extraClaims) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
         claims.put("username", username);
+        claims.put(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH);
         return createToken(claims, username, refreshExpiration);
     }
 
+    /**
+     * 访问 Token 有效期（毫秒）
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * 刷新 Token 有效期（毫秒）
+     */
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
     /**
      * 创建 Token
      */
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
+        // 调用方可通过附加声明指定 jti（如刷新 Token 需要预先登记），否则随机生成
+        Object presetJti = claims.get(Claims.ID);
+        String jti = presetJti != null ? presetJti.toString() : UUID.randomUUID().toString();
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(jti)
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
@@ -73,6 +192,42 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * 解析并验证 Token
+     * <p>
+     * 签名、格式与过期时间一次校验完成。验证通过的结果按 Token 的 SHA-256 摘要缓存，
+     * 缓存条目在 Token 过期时淘汰
+     *
+     * @param token Token
+     * @return 验证通过的 Token；签名错误、格式错误或已过期时返回 null
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Verifier current = getVerifier();
+        String digest = digest(token);
+        VerifiedToken cached = current.cache().getIfPresent(digest);
+        if (cached != null) {
+            // 缓存按过期时间惰性淘汰，命中后仍需确认未过期
+            return cached.isExpired() ? null : cached;
+        }
+        try {
+            Claims claims = current.parser().parseSignedClaims(token).getPayload();
+            VerifiedToken verified = new VerifiedToken(token, claims);
+            if (verified.getExpiration() != null) {
+                current.cache().put(digest, verified);
+            }
+            return verified;
+        } catch (ExpiredJwtException e) {
+            log.debug("Token 已过期: subject={}", e.getClaims().getSubject());
+            return null;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Token 验证失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 从 Token 中获取用户名
      */
@@ -90,46 +245,65 @@ public class JwtUtils {
      * 从 Token 中获取 Claims
      */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSecretKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getVerifier().parser()
+                .parseSignedClaims(token)
+                .getPayload();
     }
 
     /**
      * 验证 Token 是否有效
      */
     public boolean validateToken(String token, String username) {
-        try {
-            String tokenUsername = getUsernameFromToken(token);
-            return tokenUsername != null && tokenUsername.equals(username) && !isTokenExpired(token);
-        } catch (Exception e) {
-            log.error("Token 验证失败", e);
-            return false;
-        }
+        VerifiedToken verified = verify(token);
+        return verified != null && verified.getUsername() != null && verified.getUsername().equals(username);
     }
 
     /**
-     * 判断 Token 是否过期
+     * 获取 Token 过期时间
      */
-    private boolean isTokenExpired(String token) {
+    public Date getExpirationDateFromToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getExpiration() : null;
+    }
+
+    /**
+     * 计算 Token 摘要，作为验签缓存的键，避免缓存中持有完整 Token
+     */
+    private static String digest(String token) {
         try {
-            Date expiration = getClaimsFromToken(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
         }
     }
 
     /**
-     * 获取 Token 过期时间
+     * 密钥、解析器与验签缓存
      */
-    public Date getExpirationDateFromToken(String token) {
-        try {
-            return getClaimsFromToken(token).getExpiration();
-        } catch (Exception e) {
-            return null;
+    private record Verifier(SecretKey secretKey, JwtParser parser, Cache<String, VerifiedToken> cache) {
+    }
+
+    /**
+     * 验签缓存条目在 Token 过期时淘汰
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = Math.max(0, value.getExpiration().getTime() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
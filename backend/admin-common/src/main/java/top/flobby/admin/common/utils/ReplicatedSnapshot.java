@@ -0,0 +1,230 @@
+package top.flobby.admin.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * 多节点共享版本号的本地只读快照
+ * <p>
+ * 快照保存在本地内存中，读取时不访问 Redis。数据变更提交后调用 {@link #invalidate()}
+ * 递增 Redis 中的版本号并通过 Pub/Sub 广播，各节点只记录最新版本号，
+ * 下次读取时发现快照落后才重新加载（写时复制，读取方始终拿到完整的快照）
+ * <p>
+ * 另外每隔固定间隔从 Redis 兜底同步一次版本号，防止漏收消息。版本号以当前毫秒时间戳为下限，
+ * 键丢失后从当前时间重新开始；同步时发现 Redis 中的版本低于本地已知版本，视为键被重置，按 Redis 中的版本重新加载
+ *
+ * @param <T> 快照类型，必须不可变
+ */
+public final class ReplicatedSnapshot<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicatedSnapshot.class);
+
+    /**
+     * 读取版本号，不存在时以当前时间初始化
+     */
+    private static final RedisScript<Long> CURRENT_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+                return tonumber(current)
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'NX')
+            return tonumber(redis.call('GET', KEYS[1]))
+            """, Long.class);
+
+    /**
+     * 递增版本号，结果不小于当前时间
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('GET', KEYS[1]))
+            if current and current >= tonumber(ARGV[1]) then
+                return redis.call('INCR', KEYS[1])
+            end
+            redis.call('SET', KEYS[1], ARGV[1])
+            return tonumber(ARGV[1])
+            """, Long.class);
+
+    private final String versionKey;
+    private final String channel;
+    private final StringRedisTemplate redisTemplate;
+    private final long refreshMillis;
+    private final LongFunction<T> loader;
+
+    /**
+     * 已知的最新版本号
+     */
+    private final AtomicLong latestVersion = new AtomicLong();
+    private final AtomicLong lastSyncTime = new AtomicLong();
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    /**
+     * 加载快照的锁；加载会访问数据库，不使用 synchronized，避免虚拟线程在等待 I/O 时钉住载体线程
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Versioned<T> snapshot;
+
+    /**
+     * @param versionKey        Redis 版本号键，广播频道为该键加 ":channel"
+     * @param redisTemplate     Redis 客户端
+     * @param listenerContainer 订阅版本广播
+     * @param refreshSeconds    兜底同步间隔（秒）
+     * @param loader            按版本号加载快照
+     */
+    public ReplicatedSnapshot(String versionKey, StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer, long refreshSeconds,
+                              LongFunction<T> loader) {
+        this.versionKey = versionKey;
+        this.channel = versionKey + ":channel";
+        this.redisTemplate = redisTemplate;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSeconds);
+        this.loader = loader;
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                advanceTo(Long.parseLong(body));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法识别的版本消息: key={}, body={}", versionKey, body);
+            }
+        }, new ChannelTopic(channel));
+    }
+
+    /**
+     * 获取当前快照
+     * <p>
+     * 快照版本与已知的最新版本不一致时重新加载，同一时刻只有一个线程加载
+     *
+     * @return 快照
+     */
+    public T get() {
+        syncIfDue();
+        Versioned<T> current = snapshot;
+        if (current != null && current.version() == latestVersion.get()) {
+            return current.value();
+        }
+        return reload();
+    }
+
+    /**
+     * 先从 Redis 同步版本号，再获取快照
+     * <p>
+     * 用于结果会被缓存或决定认证结果的读取：刚提交的变更可能还没有通过广播或兜底同步到达本节点，
+     * 直接读取本地快照会把旧结构写进下游缓存。每次调用多一次 Redis GET
+     *
+     * @return 不早于调用时 Redis 中版本的快照
+     */
+    public T getLatest() {
+        sync();
+        return get();
+    }
+
+    /**
+     * 从 Redis 读取最新版本号
+     * <p>
+     * 用于对外暴露版本（如 ETag），避免本地版本号滞后；之后读取快照时会按该版本重新加载
+     *
+     * @return 最新版本号
+     */
+    public long latestVersion() {
+        sync();
+        return latestVersion.get();
+    }
+
+    /**
+     * 递增版本号并广播
+     * <p>
+     * 调用方负责在事务提交后调用。Redis 不可用时只丢弃本节点快照，其他节点依赖兜底同步
+     */
+    public void invalidate() {
+        try {
+            Long next = redisTemplate.execute(BUMP_SCRIPT, List.of(versionKey),
+                    String.valueOf(System.currentTimeMillis()));
+            if (next != null) {
+                advanceTo(next);
+                redisTemplate.convertAndSend(channel, String.valueOf(next));
+                log.info("快照版本递增: key={}, version={}", versionKey, next);
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("递增快照版本失败，仅重新加载本节点快照: key={}, error={}", versionKey, e.getMessage());
+        }
+        snapshot = null;
+    }
+
+    private T reload() {
+        reloadLock.lock();
+        try {
+            long target = latestVersion.get();
+            Versioned<T> current = snapshot;
+            if (current != null && current.version() == target) {
+                return current.value();
+            }
+            // 先确定版本再加载：加载期间若有新的变更，版本号会再次前进，下次读取时重新加载
+            T loaded = loader.apply(target);
+            snapshot = new Versioned<>(target, loaded);
+            return loaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * 距上次同步超过刷新间隔时，由一个线程从 Redis 同步版本号
+     */
+    private void syncIfDue() {
+        if (System.currentTimeMillis() - lastSyncTime.get() < refreshMillis
+                || !syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    private void sync() {
+        try {
+            Long remote = redisTemplate.execute(CURRENT_SCRIPT, List.of(versionKey),
+                    String.valueOf(System.currentTimeMillis()));
+            if (remote == null) {
+                return;
+            }
+            long local = latestVersion.get();
+            if (remote < local) {
+                // 版本号只增不减，Redis 中更小说明键被清空或主从切换丢失，本地快照无法再与其他节点对齐
+                log.warn("快照版本回退，按 Redis 中的版本重新加载: key={}, local={}, remote={}", versionKey, local, remote);
+                latestVersion.compareAndSet(local, remote);
+            } else {
+                advanceTo(remote);
+            }
+        } catch (Exception e) {
+            // Redis 不可用时沿用本地快照，下个周期重试
+            log.warn("同步快照版本失败: key={}, error={}", versionKey, e.getMessage());
+        } finally {
+            lastSyncTime.set(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 广播消息只前进不后退，乱序到达的旧消息被忽略；版本回退只由 {@link #sync()} 处理
+     */
+    private void advanceTo(long value) {
+        latestVersion.accumulateAndGet(value, Math::max);
+    }
+
+    private record Versioned<T>(long version, T value) {
+    }
+}
@@ -0,0 +1,138 @@
+package top.flobby.admin.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 单飞加载器
+ * <p>
+ * 缓存未命中时合并同一个键的并发回源：
+ * <ul>
+ *     <li>进程内: 同一键只有一个线程执行加载，其余线程等待其结果</li>
+ *     <li>跨节点: 执行加载前以 SET NX PX 获取短租约；未取得租约的节点轮询缓存，
+ *     租约到期仍未等到结果时自行加载，避免持有者宕机导致请求一直等待</li>
+ * </ul>
+ */
+@Component
+public class SingleFlightLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightLoader.class);
+
+    private static final String LEASE_PREFIX = "admin:lease:";
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    /**
+     * 仅删除自己持有的租约
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${cache.single-flight.lease-millis:3000}")
+    private long leaseMillis;
+
+    public SingleFlightLoader(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 加载缓存值
+     *
+     * @param cacheKey 缓存键
+     * @param lookup   读取缓存，未命中返回 null
+     * @param loader   回源并写入缓存，返回加载结果
+     * @return 缓存值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String cacheKey, Supplier<T> lookup, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            return (T) join(existing);
+        }
+
+        try {
+            T value = loadAcrossNodes(cacheKey, lookup, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    private <T> T loadAcrossNodes(String cacheKey, Supplier<T> lookup, Supplier<T> loader) {
+        String leaseKey = LEASE_PREFIX + cacheKey;
+        String token = UUID.randomUUID().toString();
+
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Redis 不可用时退化为仅进程内合并
+            log.warn("获取加载租约失败，直接回源: key={}, error={}", cacheKey, e.getMessage());
+            return loader.get();
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                // 取得租约前可能已有节点写入缓存
+                T cached = lookup.get();
+                return cached != null ? cached : loader.get();
+            } finally {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+            }
+        }
+
+        // 其他节点正在加载，轮询缓存直到租约到期
+        long deadline = System.currentTimeMillis() + leaseMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            T cached = lookup.get();
+            if (cached != null) {
+                return cached;
+            }
+        }
+        log.debug("等待其他节点加载超时，自行回源: key={}", cacheKey);
+        return loader.get();
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package top.flobby.admin.common.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分批移动子树
+ * <p>
+ * 移动节点时需要把所有子孙的祖级路径从旧前缀替换为新前缀。一条 UPDATE 改写整棵子树会在一个长事务中
+ * 锁住成千上万行，阻塞并发写入。这里按主键升序分批改写，每批一个短事务：
+ * <ol>
+ *     <li>逐批查询仍以旧前缀开头的子孙ID（id &gt; 上一批最大ID），在独立事务中改写；</li>
+ *     <li>最后一个事务中再扫一遍遗漏的行（移动期间新建的子节点），然后执行收尾操作
+ *     （更新节点自身的父ID、发布版本号等）</li>
+ * </ol>
+ * 读取方依赖父ID构建的树、层级索引和闭包表只在收尾事务中切换，移动过程中始终看到完整的旧结构。
+ * 任一批失败时把已改写的行恢复为旧前缀（新前缀只属于被移动的子树），然后抛出原异常
+ * <p>
+ * 本类不做并发控制：同一棵树上的移动、按祖级路径级联更新需要由调用方互斥（见 {@link TreeMutationLease}），
+ * 并通过 heartbeat 在每批之前续期
+ */
+public final class SubtreeMover {
+
+    private static final Logger log = LoggerFactory.getLogger(SubtreeMover.class);
+
+    private final String name;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final IdChunkLoader loader;
+    private final ChunkRewriter rewriter;
+    private final Timer timer;
+    private final Counter rows;
+
+    /**
+     * @param name                树名称，用于日志和指标标签
+     * @param transactionTemplate 每批使用的事务模板
+     * @param chunkSize           每批改写的行数
+     * @param loader              查询以前缀开头的子孙ID
+     * @param rewriter            按ID改写祖级路径前缀
+     * @param meterRegistry       指标注册表
+     */
+    public SubtreeMover(String name, TransactionTemplate transactionTemplate, int chunkSize,
+                        IdChunkLoader loader, ChunkRewriter rewriter, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.loader = loader;
+        this.rewriter = rewriter;
+        this.timer = Timer.builder("tree.subtree.move")
+                .description("子树移动耗时")
+                .tag("tree", name)
+                .register(meterRegistry);
+        this.rows = Counter.builder("tree.subtree.move.rows")
+                .description("子树移动改写的行数")
+                .tag("tree", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 移动子树
+     *
+     * @param oldPrefix 旧前缀（节点原祖级路径加节点ID）
+     * @param newPrefix 新前缀（节点新祖级路径加节点ID）
+     * @param finish    收尾操作，与最后一批在同一事务中执行
+     * @return 移动结果
+     */
+    public MoveResult move(String oldPrefix, String newPrefix, Runnable finish) {
+        return move(oldPrefix, newPrefix, () -> { }, finish);
+    }
+
+    /**
+     * 移动子树
+     *
+     * @param oldPrefix 旧前缀（节点原祖级路径加节点ID）
+     * @param newPrefix 新前缀（节点新祖级路径加节点ID）
+     * @param heartbeat 每批开始前执行（如续期租约），抛出异常时中止移动并恢复已改写的行
+     * @param finish    收尾操作，与最后一批在同一事务中执行
+     * @return 移动结果
+     */
+    public MoveResult move(String oldPrefix, String newPrefix, Runnable heartbeat, Runnable finish) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        try {
+            // 逐批改写，每批一个事务，每批之前执行 heartbeat
+            heartbeat.run();
+            while (rewriteChunkInTransaction(oldPrefix, newPrefix, progress)) {
+                log.debug("移动子树进度: tree={}, prefix={}, chunks={}, rows={}",
+                        name, oldPrefix, progress.chunks, progress.rows);
+                heartbeat.run();
+            }
+            // 收尾事务：补齐移动期间新增的子节点，再切换节点自身
+            heartbeat.run();
+            transactionTemplate.executeWithoutResult(status -> {
+                while (rewriteChunk(oldPrefix, newPrefix, progress)) {
+                    // 遗漏的行通常为零，极少数情况下需要多批
+                }
+                finish.run();
+            });
+        } catch (RuntimeException e) {
+            log.error("移动子树失败，恢复已改写的祖级路径: tree={}, prefix={}, rows={}",
+                    name, oldPrefix, progress.rows, e);
+            restore(newPrefix, oldPrefix, heartbeat);
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        rows.increment(progress.rows);
+        MoveResult result = new MoveResult(progress.rows, progress.chunks, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        log.info("移动子树完成: tree={}, {} -> {}, rows={}, chunks={}, elapsed={}ms",
+                name, oldPrefix, newPrefix, result.rows(), result.chunks(), result.elapsedMillis());
+        return result;
+    }
+
+    private boolean rewriteChunkInTransaction(String oldPrefix, String newPrefix, Progress progress) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> rewriteChunk(oldPrefix, newPrefix, progress)));
+    }
+
+    /**
+     * 改写下一批，返回是否还可能有剩余
+     */
+    private boolean rewriteChunk(String oldPrefix, String newPrefix, Progress progress) {
+        List<Long> ids = loader.load(oldPrefix, progress.lastId, chunkSize);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        progress.rows += rewriter.rewrite(ids, oldPrefix, newPrefix);
+        progress.chunks++;
+        progress.lastId = ids.get(ids.size() - 1);
+        return ids.size() == chunkSize;
+    }
+
+    /**
+     * 失败补偿：新前缀只会出现在被移动的子树中，按同样方式分批改回旧前缀
+     */
+    private void restore(String newPrefix, String oldPrefix, Runnable heartbeat) {
+        Progress progress = new Progress();
+        try {
+            do {
+                renewQuietly(heartbeat);
+            } while (rewriteChunkInTransaction(newPrefix, oldPrefix, progress));
+        } catch (RuntimeException e) {
+            log.error("恢复祖级路径失败，需要人工修复: tree={}, prefix={}, restored={}",
+                    name, newPrefix, progress.rows, e);
+        }
+    }
+
+    /**
+     * 恢复时尽量续期；租约已丢失也继续恢复，留下一半新一半旧的路径更糟
+     */
+    private void renewQuietly(Runnable heartbeat) {
+        try {
+            heartbeat.run();
+        } catch (RuntimeException e) {
+            log.warn("恢复祖级路径时续期失败，继续恢复: tree={}, error={}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询祖级路径以前缀开头（按路径分隔符匹配）的子孙ID
+     */
+    @FunctionalInterface
+    public interface IdChunkLoader {
+
+        /**
+         * @param prefix  祖级路径前缀
+         * @param afterId 只返回大于该ID的行
+         * @param limit   最多返回的行数
+         * @return 按ID升序排列的子孙ID
+         */
+        List<Long> load(String prefix, long afterId, int limit);
+    }
+
+    /**
+     * 按ID改写祖级路径前缀
+     */
+    @FunctionalInterface
+    public interface ChunkRewriter {
+
+        /**
+         * @param ids       本批ID
+         * @param oldPrefix 旧前缀
+         * @param newPrefix 新前缀
+         * @return 改写的行数
+         */
+        int rewrite(List<Long> ids, String oldPrefix, String newPrefix);
+    }
+
+    /**
+     * 移动结果
+     *
+     * @param rows          改写的子孙行数
+     * @param chunks        批次数
+     * @param elapsedMillis 总耗时（毫秒）
+     */
+    public record MoveResult(long rows, int chunks, long elapsedMillis) {
+    }
+
+    private static final class Progress {
+        private long lastId;
+        private long rows;
+        private int chunks;
+    }
+}
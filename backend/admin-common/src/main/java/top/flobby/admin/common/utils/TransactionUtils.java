@@ -0,0 +1,37 @@
+package top.flobby.admin.common.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ * <p>
+ * 用于把缓存失效、版本号递增等副作用推迟到事务提交之后执行，
+ * 避免并发请求在事务提交前把旧数据重新加载进缓存
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 在当前事务提交后执行任务
+     * <p>
+     * 当前线程没有活动事务时立即执行
+     *
+     * @param task 待执行的任务
+     */
+    public static void afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+}
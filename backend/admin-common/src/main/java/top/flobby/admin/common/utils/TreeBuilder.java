@@ -0,0 +1,198 @@
+package top.flobby.admin.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 树形结构构建器
+ * <p>
+ * 一次遍历按父ID分组，每组兄弟节点只排序一次，再自根向下组装，整体 O(n log n)。
+ * 节点映射由调用方提供，子节点先于父节点完成映射，映射函数可直接使用已构建好的子节点列表
+ * <p>
+ * 从根节点不可达的节点不会出现在结果中：
+ * <ul>
+ *     <li>孤儿节点: 父节点不存在（如父节点已删除或被过滤），以 debug 级别记录</li>
+ *     <li>环: 节点沿父ID回溯回到自身，属于数据错误，以 warn 级别记录</li>
+ * </ul>
+ * 构建器不可变，可作为常量复用
+ *
+ * @param <T> 源节点类型
+ * @param <K> 节点ID类型
+ */
+public final class TreeBuilder<T, K> {
+
+    private static final Logger log = LoggerFactory.getLogger(TreeBuilder.class);
+
+    private final Function<? super T, K> idGetter;
+    private final Function<? super T, K> parentIdGetter;
+    private final Comparator<? super T> siblingOrder;
+
+    private TreeBuilder(Function<? super T, K> idGetter, Function<? super T, K> parentIdGetter,
+                        Comparator<? super T> siblingOrder) {
+        this.idGetter = idGetter;
+        this.parentIdGetter = parentIdGetter;
+        this.siblingOrder = siblingOrder;
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param idGetter       节点ID
+     * @param parentIdGetter 父节点ID
+     */
+    public static <T, K> TreeBuilder<T, K> of(Function<? super T, K> idGetter, Function<? super T, K> parentIdGetter) {
+        return new TreeBuilder<>(idGetter, parentIdGetter, null);
+    }
+
+    /**
+     * 指定兄弟节点的排序规则
+     *
+     * @param siblingOrder 排序规则，需为稳定比较
+     * @return 新的构建器
+     */
+    public TreeBuilder<T, K> sortedBy(Comparator<? super T> siblingOrder) {
+        return new TreeBuilder<>(idGetter, parentIdGetter, siblingOrder);
+    }
+
+    /**
+     * 构建树
+     *
+     * @param nodes  源节点
+     * @param rootId 顶级节点的父ID
+     * @param mapper 节点映射: (源节点, 已映射的子节点列表) → 树节点；子节点列表为可修改的新列表，没有子节点时为空列表
+     * @return 顶级树节点列表
+     */
+    public <V> List<V> build(Collection<? extends T> nodes, K rootId, BiFunction<? super T, List<V>, V> mapper) {
+        if (nodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<K> ids = new HashSet<>();
+        Set<K> visited = new HashSet<>();
+        List<V> roots = assemble(nodes, rootId, mapper, ids, visited);
+        if (visited.size() < ids.size()) {
+            Detached<K> detached = findDetached(nodes, ids, visited, rootId);
+            if (!detached.orphans().isEmpty()) {
+                log.debug("树构建忽略孤儿节点（父节点不存在）: ids={}", detached.orphans());
+            }
+            if (!detached.cycles().isEmpty()) {
+                log.warn("树构建检测到循环引用，相关节点已忽略: ids={}", detached.cycles());
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 按父ID分组并自根向下组装
+     *
+     * @param ids     输出: 全部节点ID
+     * @param visited 输出: 从根节点可达的节点ID
+     */
+    private <V> List<V> assemble(Collection<? extends T> nodes, K rootId, BiFunction<? super T, List<V>, V> mapper,
+                                 Set<K> ids, Set<K> visited) {
+        Map<K, List<T>> childrenByParent = new HashMap<>();
+        for (T node : nodes) {
+            ids.add(idGetter.apply(node));
+            childrenByParent.computeIfAbsent(parentIdGetter.apply(node), key -> new ArrayList<>()).add(node);
+        }
+        if (siblingOrder != null) {
+            for (List<T> siblings : childrenByParent.values()) {
+                siblings.sort(siblingOrder);
+            }
+        }
+        return buildChildren(rootId, childrenByParent, visited, mapper);
+    }
+
+    private <V> List<V> buildChildren(K parentId, Map<K, List<T>> childrenByParent, Set<K> visited,
+                                      BiFunction<? super T, List<V>, V> mapper) {
+        List<T> children = childrenByParent.get(parentId);
+        if (children == null) {
+            return new ArrayList<>();
+        }
+        List<V> result = new ArrayList<>(children.size());
+        for (T child : children) {
+            K id = idGetter.apply(child);
+            // ID 重复时只取第一个，避免重复展开同一子树
+            if (!visited.add(id)) {
+                continue;
+            }
+            result.add(mapper.apply(child, buildChildren(id, childrenByParent, visited, mapper)));
+        }
+        return result;
+    }
+
+    /**
+     * 检测从根节点不可达的节点
+     *
+     * @param nodes  源节点
+     * @param rootId 顶级节点的父ID
+     * @return 孤儿节点与环上的节点
+     */
+    Detached<K> findDetached(Collection<? extends T> nodes, K rootId) {
+        Set<K> ids = new HashSet<>();
+        Set<K> visited = new HashSet<>();
+        assemble(nodes, rootId, (node, children) -> node, ids, visited);
+        return findDetached(nodes, ids, visited, rootId);
+    }
+
+    /**
+     * 父节点不存在的节点是孤儿；其余不可达节点沿父ID回溯只能到达孤儿或进入环
+     */
+    private Detached<K> findDetached(Collection<? extends T> nodes, Set<K> ids, Set<K> visited, K rootId) {
+        Map<K, K> parentOf = new HashMap<>();
+        List<K> orphans = new ArrayList<>();
+        for (T node : nodes) {
+            K id = idGetter.apply(node);
+            if (visited.contains(id)) {
+                continue;
+            }
+            K parentId = parentIdGetter.apply(node);
+            parentOf.put(id, parentId);
+            if (!ids.contains(parentId) && !Objects.equals(parentId, rootId)) {
+                orphans.add(id);
+            }
+        }
+
+        // 自孤儿节点向上回溯即可到达孤儿，剩余节点沿父ID回溯只能落入环
+        Set<K> inCycle = new HashSet<>();
+        Set<K> settled = new HashSet<>(orphans);
+        for (K start : parentOf.keySet()) {
+            List<K> path = new ArrayList<>();
+            Set<K> onPath = new HashSet<>();
+            K current = start;
+            while (current != null && parentOf.containsKey(current) && !settled.contains(current)
+                    && onPath.add(current)) {
+                path.add(current);
+                current = parentOf.get(current);
+            }
+            if (current != null && onPath.contains(current) && !settled.contains(current)) {
+                // 从首次出现 current 的位置起到路径末尾构成环
+                inCycle.addAll(path.subList(path.indexOf(current), path.size()));
+            }
+            settled.addAll(path);
+        }
+
+        return new Detached<>(orphans, inCycle);
+    }
+
+    /**
+     * 从根节点不可达的节点
+     *
+     * @param orphans 父节点不存在的节点ID（不含其子孙）
+     * @param cycles  环上的节点ID
+     */
+    record Detached<K>(List<K> orphans, Set<K> cycles) {
+    }
+}
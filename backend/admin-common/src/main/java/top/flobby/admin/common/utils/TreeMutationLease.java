@@ -0,0 +1,142 @@
+package top.flobby.admin.common.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.common.exception.BusinessException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 树结构变更租约
+ * <p>
+ * {@link SubtreeMover} 分多个事务改写祖级路径，事务之间其他移动、级联状态更新看到的是一半新一半旧的路径。
+ * 同一棵树的结构变更（移动、按祖级路径级联更新）先以 SET NX PX 获取跨节点租约，整个过程只有一个持有者；
+ * 持有者每批改写前续期，租约丢失（超时、Redis 故障切换）时中止移动并回滚已改写的行
+ * <p>
+ * 取不到租约时等待 {@code tree.move.lease-wait-millis}，仍未取得则提示稍后重试。
+ * Redis 不可用时拒绝变更，不在没有互斥的情况下改写祖级路径
+ */
+@Component
+public class TreeMutationLease {
+
+    private static final Logger log = LoggerFactory.getLogger(TreeMutationLease.class);
+
+    private static final String LEASE_PREFIX = "admin:lease:tree:";
+
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    /**
+     * 仅删除自己持有的租约
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 仅续期自己持有的租约
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 租约时长，每批改写前续期
+     */
+    @Value("${tree.move.lease-millis:30000}")
+    private long leaseMillis;
+
+    /**
+     * 获取租约的最长等待时间
+     */
+    @Value("${tree.move.lease-wait-millis:3000}")
+    private long waitMillis;
+
+    public TreeMutationLease(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 获取树结构变更租约
+     *
+     * @param tree 树名称，如 department、category
+     * @return 租约，使用完毕后关闭
+     * @throws BusinessException 等待超时或 Redis 不可用
+     */
+    public Lease acquire(String tree) {
+        String key = LEASE_PREFIX + tree;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + waitMillis;
+        try {
+            while (!Boolean.TRUE.equals(
+                    redisTemplate.opsForValue().setIfAbsent(key, token, leaseMillis, TimeUnit.MILLISECONDS))) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new BusinessException("数据正在调整层级，请稍后重试");
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("获取树结构变更租约被中断");
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("获取树结构变更租约失败: tree={}, error={}", tree, e.getMessage());
+            throw new BusinessException("数据正在调整层级，请稍后重试");
+        }
+        return new Lease(key, token);
+    }
+
+    /**
+     * 已获取的租约
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final String key;
+        private final String token;
+
+        private Lease(String key, String token) {
+            this.key = key;
+            this.token = token;
+        }
+
+        /**
+         * 续期租约
+         *
+         * @throws IllegalStateException 租约已过期或被其他持有者取得
+         */
+        public void renew() {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(key), token, String.valueOf(leaseMillis));
+            if (renewed == null || renewed == 0) {
+                throw new IllegalStateException("树结构变更租约已丢失: " + key);
+            }
+        }
+
+        /**
+         * 释放租约，只删除自己持有的租约
+         */
+        @Override
+        public void close() {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+            } catch (Exception e) {
+                // 释放失败时等待租约自然过期
+                log.warn("释放树结构变更租约失败: key={}, error={}", key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package top.flobby.admin.common.utils;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 已验签的 Token
+ * <p>
+ * 由 {@link JwtUtils#verify(String)} 解析一次后生成，过滤器与下游代码复用同一份 Claims，
+ * 不再重复解析和验签
+ */
+@Getter
+public final class VerifiedToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原始 Token
+     */
+    private final String token;
+
+    /**
+     * Token 声明
+     */
+    private final transient Claims claims;
+
+    /**
+     * Token ID（jti），用于吊销
+     */
+    private final String jti;
+
+    /**
+     * 用户名（subject）
+     */
+    private final String username;
+
+    /**
+     * 签发时间
+     */
+    private final Date issuedAt;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    public VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+        this.jti = claims.getId();
+        this.username = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    /**
+     * 是否为刷新 Token
+     */
+    public boolean isRefreshToken() {
+        return JwtUtils.TOKEN_TYPE_REFRESH.equals(getClaim(JwtUtils.CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    /**
+     * 剩余有效时长（毫秒），已过期时返回 0
+     */
+    public long getRemainingMillis() {
+        return expiration != null ? Math.max(0, expiration.getTime() - System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * 获取自定义声明
+     *
+     * @param name 声明名称
+     * @param type 声明类型
+     * @return 声明值，不存在时返回 null
+     */
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims != null ? claims.get(name, type) : null;
+    }
+}
@@ -0,0 +1,262 @@
+package top.flobby.admin.common.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import top.flobby.admin.common.annotation.OperLog;
+import top.flobby.admin.common.core.OperLogRecord;
+import top.flobby.admin.common.core.OperLogSink;
+import top.flobby.admin.common.utils.JsonDesensitizer;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OperLogAspect 单元测试
+ */
+class OperLogAspectTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<OperLogRecord> first = new ArrayList<>();
+    private final List<OperLogRecord> second = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/system/user");
+        request.setRemoteAddr("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRecordBuiltOnceAndSharedBySinks() throws Throwable {
+        CountingArg arg = new CountingArg();
+        OperLogAspect aspect = aspect(first::add, second::add);
+
+        Object result = aspect.around(joinPoint("ok", arg), operLog("update"));
+
+        assertEquals("ok", result);
+        assertEquals(1, arg.reads.get(), "参数只序列化一次");
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertSame(first.get(0), second.get(0));
+
+        OperLogRecord record = first.get(0);
+        assertEquals("用户管理", record.title());
+        assertEquals("/system/user", record.operUrl());
+        assertEquals("10.0.0.1", record.operIp());
+        assertEquals("[{\"name\":\"admin\",\"password\":\"***\"}]", record.operParam());
+        assertEquals("\"ok\"", record.jsonResult());
+        assertTrue(record.success());
+    }
+
+    @Test
+    void testFailingSinkDoesNotStopOthers() throws Throwable {
+        OperLogSink failing = mock(OperLogSink.class);
+        doThrow(new IllegalStateException("输出失败")).when(failing).accept(any());
+        OperLogAspect aspect = aspect(first::add, failing, second::add);
+
+        assertEquals("ok", aspect.around(joinPoint("ok", new CountingArg()), operLog("update")));
+
+        verify(failing).accept(any());
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void testFailedCallRecordedAndRethrown() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint(null, new CountingArg());
+        when(joinPoint.proceed()).thenThrow(new IllegalArgumentException("用户名已存在"));
+        OperLogAspect aspect = aspect(first::add, second::add);
+
+        assertThrows(IllegalArgumentException.class, () -> aspect.around(joinPoint, operLog("update")));
+
+        assertEquals(1, first.size());
+        assertSame(first.get(0), second.get(0));
+        assertFalse(first.get(0).success());
+        assertEquals("用户名已存在", first.get(0).errorMsg());
+        assertNull(first.get(0).jsonResult());
+    }
+
+    @Test
+    void testSkipResultTypes() throws Throwable {
+        OperLogAspect aspect = aspect(first::add);
+
+        aspect.around(joinPoint("rows"), operLog("query"));
+        aspect.around(joinPoint("file"), operLog("export"));
+        aspect.around(joinPoint("ok"), operLog("update"));
+        aspect.around(joinPoint("ok"), operLog("updateWithoutResult"));
+
+        assertNull(first.get(0).jsonResult());
+        assertNull(first.get(1).jsonResult());
+        assertEquals("\"ok\"", first.get(2).jsonResult());
+        assertNull(first.get(3).jsonResult());
+
+        ReflectionTestUtils.setField(aspect, "skipResultTypes", EnumSet.noneOf(OperLog.BusinessType.class));
+        aspect.around(joinPoint("rows"), operLog("query"));
+        assertEquals("\"rows\"", first.get(4).jsonResult());
+    }
+
+    @Test
+    void testMaxLengthFromAnnotationOverridesGlobal() throws Throwable {
+        String longText = "x".repeat(100);
+        OperLogAspect aspect = aspect(first::add);
+        ReflectionTestUtils.setField(aspect, "maxContentLength", 30);
+
+        aspect.around(joinPoint(longText, longText), operLog("update"));
+        aspect.around(joinPoint(longText, longText), operLog("updateShort"));
+
+        assertEquals(30 + JsonDesensitizer.TRUNCATED.length(), first.get(0).operParam().length());
+        assertEquals(30 + JsonDesensitizer.TRUNCATED.length(), first.get(0).jsonResult().length());
+        assertEquals("[\"xxxxxxxx" + JsonDesensitizer.TRUNCATED, first.get(1).operParam());
+        assertEquals("\"xxxxxxxxx" + JsonDesensitizer.TRUNCATED, first.get(1).jsonResult());
+    }
+
+    @Test
+    void testLegacyMasksBeforeTruncating() throws Throwable {
+        OperLogAspect aspect = aspect(first::add);
+        ReflectionTestUtils.setField(aspect, "legacyDesensitize", true);
+        ReflectionTestUtils.setField(aspect, "maxContentLength", 20);
+
+        aspect.around(joinPoint(null, Map.of("remark", "13812345678")), operLog("update"));
+
+        // 先截断时上限落在手机号中间，剩下的 8 位数字不会被识别为手机号
+        assertEquals("[{\"remark\":\"138****5" + JsonDesensitizer.TRUNCATED, first.get(0).operParam());
+    }
+
+    @Test
+    void testFallbackTextBoundedAndMasked() throws Throwable {
+        Unserializable value = new Unserializable("phone 13812345678 " + "x".repeat(100_000));
+        OperLogAspect aspect = aspect(first::add);
+        ReflectionTestUtils.setField(aspect, "maxContentLength", 30);
+
+        aspect.around(joinPoint(value, value), operLog("update"));
+
+        // 只拼接到上限加余量，被切断的 xxx 整体丢弃
+        assertEquals("[phone 138****5678 " + JsonDesensitizer.TRUNCATED, first.get(0).operParam());
+        assertEquals("phone 138****5678 " + JsonDesensitizer.TRUNCATED, first.get(0).jsonResult());
+    }
+
+    @Test
+    void testFallbackTextDropsWordCutAtLimit() throws Throwable {
+        // 上限加余量的位置落在手机号中间，半截的号码被丢弃而不是原样保留
+        Unserializable value = new Unserializable("y".repeat(80) + " 13812345678");
+        OperLogAspect aspect = aspect(first::add);
+        ReflectionTestUtils.setField(aspect, "maxContentLength", 20);
+
+        aspect.around(joinPoint(value, value, value), operLog("update"));
+
+        String param = first.get(0).operParam();
+        assertFalse(param.contains("1381"));
+        assertTrue(param.endsWith(JsonDesensitizer.TRUNCATED));
+        assertTrue(param.length() <= 20 + JsonDesensitizer.TRUNCATED.length());
+    }
+
+    private OperLogAspect aspect(OperLogSink... sinks) {
+        OperLogAspect aspect = new OperLogAspect(objectMapper, List.of(sinks));
+        ReflectionTestUtils.setField(aspect, "maxContentLength", 2000);
+        ReflectionTestUtils.setField(aspect, "skipResultTypes",
+                EnumSet.of(OperLog.BusinessType.SELECT, OperLog.BusinessType.EXPORT));
+        return aspect;
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object result, Object... args) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.toShortString()).thenReturn("UserController.update(..)");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    /**
+     * 读取示例方法上的注解
+     */
+    private static OperLog operLog(String method) throws NoSuchMethodException {
+        return Annotated.class.getDeclaredMethod(method).getAnnotation(OperLog.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Annotated {
+
+        @OperLog(title = "用户管理", businessType = OperLog.BusinessType.UPDATE)
+        void update() {
+        }
+
+        @OperLog(title = "用户管理", businessType = OperLog.BusinessType.UPDATE, saveResponseData = false)
+        void updateWithoutResult() {
+        }
+
+        @OperLog(title = "用户管理", businessType = OperLog.BusinessType.UPDATE, maxLength = 10)
+        void updateShort() {
+        }
+
+        @OperLog(title = "用户管理", businessType = OperLog.BusinessType.SELECT)
+        void query() {
+        }
+
+        @OperLog(title = "用户管理", businessType = OperLog.BusinessType.EXPORT)
+        void export() {
+        }
+    }
+
+    /**
+     * 无法序列化的参数，走 toString 回退
+     */
+    @SuppressWarnings("unused")
+    static final class Unserializable {
+
+        private final String text;
+
+        Unserializable(String text) {
+            this.text = text;
+        }
+
+        public String getBroken() {
+            throw new IllegalStateException("无法序列化");
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * 记录字段被读取次数的参数，用于确认只序列化一次
+     */
+    @SuppressWarnings("unused")
+    static final class CountingArg {
+
+        final AtomicInteger reads = new AtomicInteger();
+
+        public String getName() {
+            reads.incrementAndGet();
+            return "admin";
+        }
+
+        public String getPassword() {
+            return "123456";
+        }
+    }
+}
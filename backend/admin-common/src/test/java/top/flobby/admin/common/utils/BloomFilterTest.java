@@ -0,0 +1,83 @@
+package top.flobby.admin.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 布隆过滤器测试
+ *
+ * 测试目标:
+ * 1. 已添加元素一定命中（无漏判）
+ * 2. 误判率在配置值附近
+ * 3. 参数校验
+ */
+class BloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("jti-" + i), "已添加的元素必须命中: jti-" + i);
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        // When
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then: 允许一定统计波动
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "误判率过高: " + rate);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        // Given
+        BloomFilter filter = new BloomFilter(100, 0.001);
+
+        // When & Then
+        assertFalse(filter.mightContain("anything"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    void testSizing() {
+        // Given
+        BloomFilter filter = new BloomFilter(1_000, 0.001);
+
+        // Then: 约 14.4 bit/元素，10 个哈希函数
+        assertTrue(filter.bitSize() >= 14_378);
+        assertEquals(10, filter.hashCount());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,49 @@
+package top.flobby.admin.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConditionalRequestUtils 单元测试
+ */
+class ConditionalRequestUtilsTest {
+
+    @Test
+    void testEtagJoinsParts() {
+        assertEquals("\"routers-1-3.5-7\"", ConditionalRequestUtils.etag("routers", 1L, "3.5", 7L));
+    }
+
+    @Test
+    void testMatchingEtagReturnsNotModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/system/menus/tree");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"menu-tree-4\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean notModified = ConditionalRequestUtils.checkNotModified(
+                new ServletWebRequest(request, response), "menu-tree", 4L);
+
+        assertTrue(notModified);
+        assertEquals(304, response.getStatus());
+        assertEquals("\"menu-tree-4\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("private, no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void testStaleEtagProceeds() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/system/menus/tree");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"menu-tree-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean notModified = ConditionalRequestUtils.checkNotModified(
+                new ServletWebRequest(request, response), "menu-tree", 4L);
+
+        assertFalse(notModified);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"menu-tree-4\"", response.getHeader(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,107 @@
+package top.flobby.admin.common.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志脱敏基准测试
+ * <p>
+ * 对比原先「完整序列化后逐个正则替换」的 {@link LogDesensitizeUtils} 与序列化时脱敏的 {@link JsonDesensitizer}。
+ * 载荷为用户列表（含密码、手机号、邮箱、身份证号和备注），序列化后约 2KB / 10KB / 50KB。
+ * 不参与单元测试，在 IDE 中运行 main 方法，或在 admin-common 目录执行:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=top.flobby.admin.common.utils.DesensitizeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DesensitizeBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 用户数：每个用户序列化后约 330 字节
+     */
+    @Param({"6", "30", "150"})
+    private int users;
+
+    private List<Map<String, Object>> payload;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        payload = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("id", 10000L + i);
+            user.put("username", "user" + i);
+            user.put("nickname", "用户" + i);
+            user.put("password", "P@ssw0rd" + random.nextInt(1000));
+            user.put("phone", "13" + (100000000 + random.nextInt(899999999)));
+            user.put("email", "user" + i + "@example.com");
+            user.put("idCard", "110105" + (19700101 + random.nextInt(300000)) + "1234");
+            user.put("deptIds", List.of(1L + random.nextInt(50), 1L + random.nextInt(50)));
+            user.put("status", 1);
+            user.put("remark", "入职时间 2026-01-28，负责后台管理模块的日常维护与需求对接，编号 " + random.nextInt(100000));
+            payload.add(user);
+        }
+    }
+
+    @Benchmark
+    public String regexChain() throws IOException {
+        return LogDesensitizeUtils.desensitize(OBJECT_MAPPER.writeValueAsString(payload));
+    }
+
+    @Benchmark
+    public String streaming() throws IOException {
+        return JsonDesensitizer.toJson(OBJECT_MAPPER, payload);
+    }
+
+    /**
+     * 达到默认上限（2000 字符）后停止序列化
+     */
+    @Benchmark
+    public String streamingBounded() throws IOException {
+        return JsonDesensitizer.toJson(OBJECT_MAPPER, payload, 2000);
+    }
+
+    /**
+     * 仅序列化，作为下限参考
+     */
+    @Benchmark
+    public String serializeOnly() throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DesensitizeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
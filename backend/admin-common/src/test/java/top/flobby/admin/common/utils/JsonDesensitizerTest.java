@@ -0,0 +1,152 @@
+package top.flobby.admin.common.utils;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonDesensitizer 单元测试
+ */
+class JsonDesensitizerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSensitiveFieldsMaskedDuringSerialization() throws Exception {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("username", "admin");
+        user.put("password", "123456");
+        user.put("oldPassword", "abc");
+        user.put("accessToken", "eyJhbGciOi");
+        user.put("clientSecret", 42);
+        user.put("phone", "13812345678");
+        user.put("mobile", 13912345678L);
+        user.put("email", "admin@example.com");
+        user.put("idCard", "11010519491231002X");
+        user.put("remark", "联系 13700001111 或 test.user@qq.com");
+
+        String json = JsonDesensitizer.toJson(objectMapper, List.of(user));
+
+        assertEquals("[{\"username\":\"admin\",\"password\":\"***\",\"oldPassword\":\"***\","
+                + "\"accessToken\":\"***\",\"clientSecret\":\"***\",\"phone\":\"138****5678\","
+                + "\"mobile\":\"139****5678\",\"email\":\"a***@example.com\",\"idCard\":\"110105********002X\","
+                + "\"remark\":\"联系 137****1111 或 t***@qq.com\"}]", json);
+    }
+
+    @Test
+    void testMaskTextMatchesLegacyFormat() {
+        String text = "password=abc, token: \"xyz\", phone 13812345678, id 110105194912310021, "
+                + "old 110105491231002, mail a.b@c.com, 1381234567890";
+
+        String expected = LogDesensitizeUtils.desensitize(text);
+        assertEquals(expected, JsonDesensitizer.maskText(text));
+        assertEquals("password=\"***\", token: \"***\", phone 138****5678, id 110105********0021, "
+                + "old 110105******002, mail a***@c.com, 1381234567890", expected);
+    }
+
+    @Test
+    void testMaskTextReturnsSameInstanceWhenNothingToMask() {
+        String text = "{\"id\":1,\"deptName\":\"研发部\",\"tokenCount\":3,\"createTime\":\"2026-01-28 10:00:00\"}";
+        assertSame(text, JsonDesensitizer.maskText(text));
+    }
+
+    @Test
+    void testSerializationStopsAtMaxLength() throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(Map.of("id", i, "password", "secret" + i));
+        }
+
+        String json = JsonDesensitizer.toJson(objectMapper, rows, 100);
+
+        assertEquals(100 + JsonDesensitizer.TRUNCATED.length(), json.length());
+        assertTrue(json.endsWith(JsonDesensitizer.TRUNCATED));
+        assertFalse(json.contains("secret"));
+        assertEquals("[{\"id\":1}]", JsonDesensitizer.toJson(objectMapper, List.of(Map.of("id", 1)), 100));
+    }
+
+    @Test
+    void testSensitiveObjectAndArrayValuesMaskedAsWhole() throws Exception {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("password", Map.of("hash", "abc", "salt", List.of(1, 2)));
+        profile.put("phone", "13812345678");
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("token", Map.of("value", "eyJhbGciOi", "expires", 3600));
+        user.put("clientSecret", List.of("s1", Map.of("nested", "s2")));
+        user.put("profile", profile);
+        user.put("apiSecret", new int[]{1, 2, 3});
+        user.put("username", "admin");
+
+        String json = JsonDesensitizer.toJson(objectMapper, user);
+
+        assertEquals("{\"token\":\"***\",\"clientSecret\":\"***\","
+                + "\"profile\":{\"password\":\"***\",\"phone\":\"138****5678\"},"
+                + "\"apiSecret\":\"***\",\"username\":\"admin\"}", json);
+    }
+
+    @Test
+    void testSensitiveScalarsOfEveryTypeMasked() throws Exception {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("password", new BigDecimal("1.50"));
+        values.put("apiSecret", 2.5d);
+        values.put("resetToken", true);
+        values.put("oldPassword", null);
+        values.put("tokenCount", 3);
+        values.put("ratio", 0.5d);
+
+        String json = JsonDesensitizer.toJson(objectMapper, values);
+
+        assertEquals("{\"password\":\"***\",\"apiSecret\":\"***\",\"resetToken\":\"***\","
+                + "\"oldPassword\":null,\"tokenCount\":3,\"ratio\":0.5}", json);
+    }
+
+    @Test
+    void testRawValuesAndReaderStringsMasked() throws Exception {
+        String json = JsonDesensitizer.toJson(objectMapper, new RawHolder());
+
+        assertEquals("{\"rawToken\":\"***\",\"config\":{\"password\":\"***\",\"id\":1},"
+                + "\"accessToken\":\"***\",\"remark\":\"138****5678\"}", json);
+    }
+
+    @JsonPropertyOrder({"rawToken", "config", "accessToken", "remark"})
+    static final class RawHolder {
+
+        @JsonRawValue
+        public String rawToken = "{\"value\":\"abc\"}";
+
+        @JsonRawValue
+        public String config = "{\"password\":\"abc\",\"id\":1}";
+
+        @JsonSerialize(using = ReaderSerializer.class)
+        public String accessToken = "eyJhbGciOi";
+
+        @JsonSerialize(using = ReaderSerializer.class)
+        public String remark = "13812345678";
+    }
+
+    /**
+     * 以 Reader 写出字符串
+     */
+    static final class ReaderSerializer extends JsonSerializer<String> {
+
+        @Override
+        public void serialize(String value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeString(new StringReader(value), -1);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -156,4 +158,80 @@ class JwtUtilsTest {
         assertEquals(user1, jwtUtils.getUsernameFromToken(token1));
         assertEquals(user2, jwtUtils.getUsernameFromToken(token2));
     }
+
+    @Test
+    void testVerifyReturnsClaims() {
+        // Given
+        String username = "admin";
+        String token = jwtUtils.generateToken(username);
+
+        // When
+        VerifiedToken verified = jwtUtils.verify(token);
+
+        // Then
+        assertNotNull(verified);
+        assertEquals(username, verified.getUsername());
+        assertEquals(token, verified.getToken());
+        assertNotNull(verified.getExpiration());
+        assertEquals(username, verified.getClaim("username", String.class));
+    }
+
+    @Test
+    void testVerifyCachesRepeatedToken() {
+        // Given
+        String token = jwtUtils.generateToken("admin");
+
+        // When
+        VerifiedToken first = jwtUtils.verify(token);
+        VerifiedToken second = jwtUtils.verify(token);
+
+        // Then: 同一 Token 第二次验证直接命中缓存
+        assertSame(first, second);
+    }
+
+    @Test
+    void testVerifyRejectsTamperedToken() {
+        // Given
+        String token = jwtUtils.generateToken("admin");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertNull(jwtUtils.verify(tampered));
+        assertNull(jwtUtils.verify("not-a-jwt"));
+        assertNull(jwtUtils.verify(null));
+    }
+
+    @Test
+    void testVerifyRejectsExpiredToken() throws InterruptedException {
+        // Given
+        JwtUtils shortExpirationJwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(shortExpirationJwtUtils, "secret", "mySecretKeyForTestingPurposesOnlyDoNotUseInProduction1234567890");
+        ReflectionTestUtils.setField(shortExpirationJwtUtils, "expiration", 1000L);
+        ReflectionTestUtils.setField(shortExpirationJwtUtils, "refreshExpiration", 1000L);
+        String token = shortExpirationJwtUtils.generateToken("admin");
+        assertNotNull(shortExpirationJwtUtils.verify(token));
+
+        // When: 等待 Token 过期（JWT 时间精度为秒）
+        Thread.sleep(2100);
+
+        // Then: 已缓存的结果也不再返回
+        assertNull(shortExpirationJwtUtils.verify(token));
+    }
+
+    @Test
+    void testRefreshTokenType() {
+        // Given
+        String accessToken = jwtUtils.generateToken("admin");
+        String refreshToken = jwtUtils.generateRefreshToken("admin", Map.of(Claims.ID, "preset-jti"));
+
+        // When
+        VerifiedToken access = jwtUtils.verify(accessToken);
+        VerifiedToken refresh = jwtUtils.verify(refreshToken);
+
+        // Then
+        assertFalse(access.isRefreshToken());
+        assertNotNull(access.getJti());
+        assertTrue(refresh.isRefreshToken());
+        assertEquals("preset-jti", refresh.getJti());
+    }
 }
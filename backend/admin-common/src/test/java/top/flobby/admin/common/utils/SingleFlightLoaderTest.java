@@ -0,0 +1,128 @@
+package top.flobby.admin.common.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 单飞加载器测试
+ *
+ * 测试目标:
+ * 1. 同一键的并发未命中只回源一次
+ * 2. 未取得跨节点租约时等待缓存结果
+ * 3. 加载异常传播给所有等待者
+ */
+class SingleFlightLoaderTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private SingleFlightLoader loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        loader = new SingleFlightLoader(redisTemplate);
+        ReflectionTestUtils.setField(loader, "leaseMillis", 500L);
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        // Given: 取得租约，回源耗时 200ms
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return loader.load("key", () -> null, () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "value";
+                });
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<String> future : futures) {
+            assertEquals("value", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get(), "并发未命中应只回源一次");
+        executor.shutdown();
+    }
+
+    @Test
+    void testWaitsForOtherNodeWithoutLease() {
+        // Given: 租约被其他节点持有，第二次读取缓存时已写入
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(false);
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        String value = loader.load("key",
+                () -> lookups.incrementAndGet() >= 2 ? "from-other-node" : null,
+                () -> {
+                    loads.incrementAndGet();
+                    return "local";
+                });
+
+        // Then
+        assertEquals("from-other-node", value);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testFallsBackToLoadAfterLeaseTimeout() {
+        // Given: 租约被其他节点持有且一直没有结果
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        // When
+        String value = loader.load("key", () -> null, () -> "local");
+
+        // Then
+        assertEquals("local", value);
+    }
+
+    @Test
+    void testLoaderExceptionPropagates() {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        // When & Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> loader.load("key", () -> null, () -> {
+                    throw new IllegalStateException("db down");
+                }));
+        assertEquals("db down", e.getMessage());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package top.flobby.admin.common.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SubtreeMover 单元测试
+ */
+class SubtreeMoverTest {
+
+    /**
+     * id → ancestors
+     */
+    private final Map<Long, String> ancestors = new TreeMap<>();
+
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    private SubtreeMover mover;
+
+    @BeforeEach
+    void setUp() {
+        // 0 ─ 1 ─ 2 ─ 3,4,5；0 ─ 10（前缀 "0,1" 不应匹配 "0,10"）；0 ─ 20
+        ancestors.put(1L, "0");
+        ancestors.put(2L, "0,1");
+        ancestors.put(3L, "0,1,2");
+        ancestors.put(4L, "0,1,2");
+        ancestors.put(5L, "0,1,2");
+        ancestors.put(10L, "0");
+        ancestors.put(11L, "0,10");
+        ancestors.put(20L, "0");
+
+        mover = new SubtreeMover("test", new TransactionTemplate(transactionManager()), 2,
+                this::load, this::rewrite, new SimpleMeterRegistry());
+    }
+
+    private PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                transactions.incrementAndGet();
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private List<Long> load(String prefix, long afterId, int limit) {
+        return ancestors.entrySet().stream()
+                .filter(e -> e.getKey() > afterId)
+                .filter(e -> e.getValue().equals(prefix) || e.getValue().startsWith(prefix + ","))
+                .map(Map.Entry::getKey)
+                .limit(limit)
+                .toList();
+    }
+
+    private int rewrite(List<Long> ids, String oldPrefix, String newPrefix) {
+        for (Long id : ids) {
+            ancestors.computeIfPresent(id, (key, value) -> newPrefix + value.substring(oldPrefix.length()));
+        }
+        return ids.size();
+    }
+
+    @Test
+    void testMoveRewritesDescendantsInChunks() {
+        AtomicInteger finished = new AtomicInteger();
+
+        SubtreeMover.MoveResult result = mover.move("0,1", "0,20,1", () -> {
+            ancestors.put(1L, "0,20");
+            finished.incrementAndGet();
+        });
+
+        assertEquals(4, result.rows());
+        assertEquals(2, result.chunks());
+        assertEquals(1, finished.get());
+        assertEquals("0,20,1", ancestors.get(2L));
+        assertEquals("0,20,1,2", ancestors.get(5L));
+        assertEquals("0,10", ancestors.get(11L), "不应改写前缀相似的其他子树");
+        // 两个满批加一次确认没有剩余的查询，各一个事务，再加收尾事务
+        assertEquals(4, transactions.get());
+    }
+
+    @Test
+    void testRowsCreatedDuringMoveAreSwept() {
+        SubtreeMover sweeping = new SubtreeMover("test", new TransactionTemplate(transactionManager()), 2,
+                this::load, (ids, oldPrefix, newPrefix) -> {
+                    // 第一批提交后，有人在尚未移动的部门 1 下新建子节点（旧前缀、更大的ID）
+                    ancestors.putIfAbsent(30L, "0,1");
+                    return rewrite(ids, oldPrefix, newPrefix);
+                }, new SimpleMeterRegistry());
+
+        SubtreeMover.MoveResult result = sweeping.move("0,1", "0,20,1", () -> ancestors.put(1L, "0,20"));
+
+        assertEquals(5, result.rows());
+        assertEquals("0,20,1", ancestors.get(30L));
+    }
+
+    @Test
+    void testFailureRestoresOldPrefix() {
+        RuntimeException failure = assertThrows(IllegalStateException.class,
+                () -> mover.move("0,1", "0,20,1", () -> {
+                    throw new IllegalStateException("收尾失败");
+                }));
+
+        assertEquals("收尾失败", failure.getMessage());
+        assertEquals("0,1", ancestors.get(2L));
+        assertEquals("0,1,2", ancestors.get(3L));
+        assertEquals("0,1,2", ancestors.get(5L));
+    }
+
+    @Test
+    void testHeartbeatFailureAbortsAndRestores() {
+        AtomicInteger beats = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+
+        // 第一批之后租约丢失
+        assertThrows(IllegalStateException.class, () -> mover.move("0,1", "0,20,1", () -> {
+            if (beats.incrementAndGet() == 2) {
+                throw new IllegalStateException("租约已丢失");
+            }
+        }, finished::incrementAndGet));
+
+        assertEquals(0, finished.get());
+        assertEquals("0,1", ancestors.get(2L));
+        assertEquals("0,1,2", ancestors.get(3L));
+    }
+}
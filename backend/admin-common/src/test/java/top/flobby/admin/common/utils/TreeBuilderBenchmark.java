@@ -0,0 +1,107 @@
+package top.flobby.admin.common.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 树构建基准测试
+ * <p>
+ * 对比原先各服务中逐层过滤整个列表的递归构建与 {@link TreeBuilder} 的一次分组构建。
+ * 不参与单元测试，在 IDE 中运行 main 方法，或在 admin-common 目录执行:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=top.flobby.admin.common.utils.TreeBuilderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBuilderBenchmark {
+
+    private static final Comparator<Node> ORDER =
+            Comparator.comparing(Node::sort, Comparator.nullsLast(Integer::compareTo));
+
+    private static final TreeBuilder<Node, Long> BUILDER = TreeBuilder.<Node, Long>of(Node::id, Node::parentId)
+            .sortedBy(ORDER);
+
+    /**
+     * 节点数量：数百个菜单按钮 ~ 数千个部门
+     */
+    @Param({"200", "1000", "5000"})
+    private int size;
+
+    private List<Node> nodes;
+
+    @Setup
+    public void setUp() {
+        // 随机挂到已生成的节点下，每层平均分支数约为 8
+        Random random = new Random(42);
+        nodes = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            long parentId = id <= 8 ? 0L : 1 + random.nextInt((int) Math.min(id - 1, id / 8 + 8));
+            nodes.add(new Node(id, parentId, random.nextInt(100)));
+        }
+        Collections.shuffle(nodes, random);
+    }
+
+    @Benchmark
+    public List<TreeNode> recursiveFilter() {
+        return recursive(nodes, 0L);
+    }
+
+    @Benchmark
+    public List<TreeNode> treeBuilder() {
+        return BUILDER.build(nodes, 0L, TreeNode::new);
+    }
+
+    /**
+     * 原实现：每个节点都重新过滤并排序整个列表，O(n²)
+     */
+    private static List<TreeNode> recursive(List<Node> nodes, Long parentId) {
+        return nodes.stream()
+                .filter(n -> Objects.equals(n.parentId(), parentId))
+                .sorted(ORDER)
+                .map(n -> new TreeNode(n, recursive(nodes, n.id())))
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TreeBuilderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    record Node(Long id, Long parentId, Integer sort) {
+    }
+
+    record TreeNode(Long id, List<TreeNode> children) {
+
+        TreeNode(Node node, List<TreeNode> children) {
+            this(node.id(), children);
+        }
+    }
+}
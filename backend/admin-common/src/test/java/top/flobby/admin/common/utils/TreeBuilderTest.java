@@ -0,0 +1,137 @@
+package top.flobby.admin.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 树形结构构建器测试
+ *
+ * 测试目标:
+ * 1. 父子关系与兄弟排序正确
+ * 2. 子节点先于父节点映射
+ * 3. 孤儿节点与环被忽略并能被识别
+ */
+class TreeBuilderTest {
+
+    private static final TreeBuilder<Node, Long> BUILDER = TreeBuilder.<Node, Long>of(Node::id, Node::parentId)
+            .sortedBy(Comparator.comparing(Node::sort, Comparator.nullsLast(Integer::compareTo)));
+
+    @Test
+    void testBuildsNestedTreeWithSortedSiblings() {
+        // Given
+        List<Node> nodes = List.of(
+                new Node(3L, 1L, 2),
+                new Node(1L, 0L, 1),
+                new Node(2L, 1L, 1),
+                new Node(4L, 0L, null),
+                new Node(5L, 2L, 1));
+
+        // When
+        List<TreeNode> tree = BUILDER.build(nodes, 0L, TreeNode::new);
+
+        // Then
+        assertEquals(List.of(1L, 4L), tree.stream().map(TreeNode::id).toList(), "顶级节点按排序值排列，空值在后");
+        TreeNode first = tree.get(0);
+        assertEquals(List.of(2L, 3L), first.children().stream().map(TreeNode::id).toList());
+        assertEquals(List.of(5L), first.children().get(0).children().stream().map(TreeNode::id).toList());
+        assertTrue(tree.get(1).children().isEmpty(), "叶子节点的子节点为空列表");
+    }
+
+    @Test
+    void testChildrenMappedBeforeParent() {
+        // Given
+        List<Node> nodes = List.of(new Node(1L, 0L, 1), new Node(2L, 1L, 1));
+        List<Long> order = new ArrayList<>();
+
+        // When
+        BUILDER.build(nodes, 0L, (node, children) -> {
+            order.add(node.id());
+            return node.id();
+        });
+
+        // Then
+        assertEquals(List.of(2L, 1L), order);
+    }
+
+    @Test
+    void testBuildsFromSubtreeRoot() {
+        // Given
+        List<Node> nodes = List.of(new Node(1L, 0L, 1), new Node(2L, 1L, 1), new Node(3L, 2L, 1));
+
+        // When
+        List<TreeNode> tree = BUILDER.build(nodes, 1L, TreeNode::new);
+
+        // Then
+        assertEquals(1, tree.size());
+        assertEquals(2L, tree.get(0).id());
+        assertEquals(3L, tree.get(0).children().get(0).id());
+    }
+
+    @Test
+    void testOrphansAreDropped() {
+        // Given: 节点 10 的父节点 99 不存在，节点 11 挂在孤儿下
+        List<Node> nodes = List.of(new Node(1L, 0L, 1), new Node(10L, 99L, 1), new Node(11L, 10L, 1));
+
+        // When
+        List<TreeNode> tree = BUILDER.build(nodes, 0L, TreeNode::new);
+        TreeBuilder.Detached<Long> detached = BUILDER.findDetached(nodes, 0L);
+
+        // Then
+        assertEquals(1, tree.size());
+        assertEquals(List.of(10L), detached.orphans());
+        assertTrue(detached.cycles().isEmpty());
+    }
+
+    @Test
+    void testCyclesAreDetected() {
+        // Given: 2 → 3 → 2 构成环，4 挂在环上，5 自引用
+        List<Node> nodes = List.of(
+                new Node(1L, 0L, 1),
+                new Node(2L, 3L, 1),
+                new Node(3L, 2L, 1),
+                new Node(4L, 3L, 1),
+                new Node(5L, 5L, 1));
+
+        // When
+        List<TreeNode> tree = BUILDER.build(nodes, 0L, TreeNode::new);
+        TreeBuilder.Detached<Long> detached = BUILDER.findDetached(nodes, 0L);
+
+        // Then
+        assertEquals(1, tree.size());
+        assertTrue(detached.orphans().isEmpty());
+        assertEquals(Set.of(2L, 3L, 5L), detached.cycles());
+    }
+
+    @Test
+    void testDuplicateIdsExpandedOnce() {
+        // Given: 两个 ID 为 2 的节点，其中一个以自身 ID 为父
+        List<Node> nodes = List.of(new Node(1L, 0L, 1), new Node(2L, 1L, 1), new Node(2L, 2L, 2));
+
+        // When
+        List<TreeNode> tree = BUILDER.build(nodes, 0L, TreeNode::new);
+
+        // Then: 不会无限展开
+        assertEquals(1, tree.get(0).children().size());
+    }
+
+    @Test
+    void testEmptyInput() {
+        assertTrue(BUILDER.<TreeNode>build(List.of(), 0L, TreeNode::new).isEmpty());
+    }
+
+    private record Node(Long id, Long parentId, Integer sort) {
+    }
+
+    private record TreeNode(Long id, List<TreeNode> children) {
+
+        TreeNode(Node node, List<TreeNode> children) {
+            this(node.id(), children);
+        }
+    }
+}
@@ -7,12 +7,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import top.flobby.admin.common.core.PageResult;
 import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.JsonDesensitizer;
 import top.flobby.admin.monitor.domain.entity.OperationLog;
 import top.flobby.admin.monitor.domain.repository.OperationLogRepository;
+import top.flobby.admin.monitor.infrastructure.writer.OperationLogWriter;
 import top.flobby.admin.monitor.interfaces.query.OperationLogQuery;
 import top.flobby.admin.monitor.interfaces.vo.OperationLogVO;
 
@@ -25,7 +26,7 @@ import java.util.stream.Collectors;
  * <p>
  * 职责:
  * - 操作日志查询
- * - 操作日志记录(由AOP调用)
+ * - 操作日志记录(由DatabaseOperLogSink调用,异步批量写入)
  * - 操作日志清理
  */
 @Slf4j
@@ -34,11 +35,19 @@ import java.util.stream.Collectors;
 public class OperationLogService {
 
     private final OperationLogRepository operationLogRepository;
+    private final OperationLogWriter operationLogWriter;
 
     /**
-     * 最大日志内容长度
+     * 错误消息最大长度（error_msg 为 VARCHAR(2000)，含截断标记）
      */
-    private static final int MAX_CONTENT_LENGTH = 2000;
+    private static final int MAX_ERROR_LENGTH = 2000 - JsonDesensitizer.TRUNCATED.length();
+
+    /**
+     * 请求参数、返回结果兜底长度（TEXT 最多 65535 字节，utf8mb4 每字符最多 4 字节）
+     * <p>
+     * 正常情况下采集时已按 oper-log.max-content-length 截断，这里只防止单个接口配置过大
+     */
+    private static final int MAX_TEXT_LENGTH = 16000;
 
     /**
      * 分页查询操作日志
@@ -81,30 +90,18 @@ public class OperationLogService {
     /**
      * 记录操作日志
      * <p>
-     * 使用REQUIRES_NEW事务,避免影响主业务
+     * 交给异步写入器批量入库（参数和结果已在采集时脱敏并截断），不占用请求线程的数据库连接
      *
      * @param operLog 操作日志
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void recordOperationLog(OperationLog operLog) {
         try {
-            // 裁剪日志内容
-            if (operLog.getOperParam() != null && operLog.getOperParam().length() > MAX_CONTENT_LENGTH) {
-                operLog.setOperParam(operLog.getOperParam().substring(0, MAX_CONTENT_LENGTH) + "...");
-            }
-            if (operLog.getJsonResult() != null && operLog.getJsonResult().length() > MAX_CONTENT_LENGTH) {
-                operLog.setJsonResult(operLog.getJsonResult().substring(0, MAX_CONTENT_LENGTH) + "...");
-            }
-            if (operLog.getErrorMsg() != null && operLog.getErrorMsg().length() > MAX_CONTENT_LENGTH) {
-                operLog.setErrorMsg(operLog.getErrorMsg().substring(0, MAX_CONTENT_LENGTH) + "...");
-            }
-
-            // 脱敏处理
-            if (operLog.getOperParam() != null) {
-                operLog.setOperParam(desensitize(operLog.getOperParam()));
-            }
-
-            operationLogRepository.save(operLog);
+            // 裁剪日志内容，保证不超过列长度
+            operLog.setOperParam(JsonDesensitizer.truncate(operLog.getOperParam(), MAX_TEXT_LENGTH));
+            operLog.setJsonResult(JsonDesensitizer.truncate(operLog.getJsonResult(), MAX_TEXT_LENGTH));
+            operLog.setErrorMsg(JsonDesensitizer.truncate(operLog.getErrorMsg(), MAX_ERROR_LENGTH));
+
+            operationLogWriter.submit(operLog);
         } catch (Exception e) {
             // 记录日志失败不影响主业务
             log.error("记录操作日志失败", e);
@@ -144,35 +141,17 @@ public class OperationLogService {
 
     /**
      * 清理历史日志
+     * <p>
+     * 按月分区整个删除过期分区（DDL 隐式提交，不在事务中执行），见 OperationLogPartitionManager
      *
      * @param days 保留天数
      */
-    @Transactional
     public void cleanHistoryLogs(int days) {
         LocalDateTime time = LocalDateTime.now().minusDays(days);
         operationLogRepository.deleteBefore(time);
         log.info("清理历史日志成功: before={}", time);
     }
 
-    /**
-     * 脱敏处理
-     *
-     * @param content 内容
-     * @return 脱敏后的内容
-     */
-    private String desensitize(String content) {
-        if (content == null) {
-            return null;
-        }
-
-        // 脱敏密码字段
-        content = content.replaceAll("\"password\"\\s*:\\s*\"[^\"]*\"", "\"password\":\"******\"");
-        content = content.replaceAll("\"token\"\\s*:\\s*\"[^\"]*\"", "\"token\":\"******\"");
-        content = content.replaceAll("\"secret\"\\s*:\\s*\"[^\"]*\"", "\"secret\":\"******\"");
-
-        return content;
-    }
-
     /**
      * 转换为VO
      *
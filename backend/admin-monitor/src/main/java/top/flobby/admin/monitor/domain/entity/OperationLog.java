@@ -106,9 +106,9 @@ public class OperationLog {
     private String errorMsg;
 
     /**
-     * 操作时间
+     * 操作时间（分区键）
      */
-    @Column(name = "oper_time")
+    @Column(name = "oper_time", nullable = false)
     private LocalDateTime operTime;
 
     /**
@@ -0,0 +1,276 @@
+package top.flobby.admin.monitor.infrastructure.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 操作日志分区管理
+ * <p>
+ * sys_oper_log 按 oper_time 按月 RANGE COLUMNS 分区（见 db/migration/partition_oper_log.sql），
+ * 分区 pYYYYMM 保存该月的日志，最后一个分区 p_future 为 MAXVALUE 兜底:
+ * <ul>
+ *     <li>启动时和每天定时从 p_future 拆出未来 {@code oper-log.partition.months-ahead} 个月的分区，
+ *     此时 p_future 为空，拆分只改元数据</li>
+ *     <li>清理历史日志时整个删除上界不晚于截止时间的分区（DROP PARTITION 只删文件，不产生逐行删除的锁和 undo），
+ *     截止时间所在月份的剩余行按分区裁剪后分批删除</li>
+ * </ul>
+ * 表未分区（未执行迁移脚本）或关闭 {@code oper-log.partition.enabled} 时只分批删除，不执行分区 DDL。
+ * 维护任务在数据库命名锁（GET_LOCK）内执行，多实例同时启动或定时触发时只有一个实例执行 DDL，
+ * 其余实例取不到锁直接跳过；启动时的维护在后台线程执行，不阻塞启动
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OperationLogPartitionManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String TABLE = "sys_oper_log";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION " +
+            "FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String DELETE_CHUNK_SQL = "DELETE FROM " + TABLE + " WHERE oper_time < ? LIMIT ?";
+
+    /**
+     * 维护任务的数据库命名锁，与连接绑定，取锁和释放必须在同一连接上
+     */
+    private static final String LOCK_NAME = "admin:" + TABLE + ":partition";
+    private static final String LOCK_SQL = "SELECT GET_LOCK(?, 0)";
+    private static final String UNLOCK_SQL = "SELECT RELEASE_LOCK(?)";
+
+    @Value("${oper-log.partition.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 提前创建的月份数（不含当月）
+     */
+    @Value("${oper-log.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * 定时清理保留的天数，0 表示不自动清理
+     */
+    @Value("${oper-log.partition.retention-days:0}")
+    private int retentionDays;
+
+    /**
+     * 逐行删除时每批的行数
+     */
+    @Value("${oper-log.partition.delete-chunk-size:5000}")
+    private int deleteChunkSize;
+
+    /**
+     * 分区信息
+     *
+     * @param name       分区名
+     * @param upperBound 上界（不含），MAXVALUE 时为 null
+     */
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+
+    /**
+     * 启动时补齐分区，避免应用长时间停机后新日志都落入 p_future
+     * <p>
+     * REORGANIZE PARTITION 需要表的元数据锁，在后台线程执行，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::maintain, "oper-log-partition");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 每天创建未来分区，并按保留天数删除过期分区
+     * <p>
+     * 取不到数据库命名锁时说明其他实例正在维护，直接跳过
+     *
+     * @return 是否取得锁并执行了维护
+     */
+    @Scheduled(cron = "${oper-log.partition.cron:0 10 0 * * ?}")
+    public boolean maintain() {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            Boolean maintained = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                if (!tryLock(connection)) {
+                    return false;
+                }
+                try {
+                    createFuturePartitions(LocalDateTime.now());
+                    if (retentionDays > 0) {
+                        purgeBefore(LocalDateTime.now().minusDays(retentionDays));
+                    }
+                } finally {
+                    releaseLock(connection);
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(maintained)) {
+                log.debug("其他实例正在维护操作日志分区，跳过");
+                return false;
+            }
+            return true;
+        } catch (DataAccessException e) {
+            // 数据库暂不可用或 DDL 与其他操作冲突，下个周期重试
+            log.warn("维护操作日志分区失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 查询当前分区，按上界升序
+     *
+     * @return 分区列表；表未分区或数据库不支持查询分区时为空
+     */
+    public List<Partition> listPartitions() {
+        try {
+            return jdbcTemplate.query(PARTITIONS_SQL,
+                    (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))), TABLE);
+        } catch (DataAccessException e) {
+            log.debug("查询 {} 分区失败，按未分区处理: {}", TABLE, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 从当前最大的月分区开始，创建到 now 所在月份之后 months-ahead 个月
+     *
+     * @param now 当前时间
+     * @return 新建的分区数
+     */
+    public int createFuturePartitions(LocalDateTime now) {
+        List<Partition> partitions = listPartitions();
+        if (partitions.isEmpty()) {
+            log.debug("{} 未分区，跳过创建分区", TABLE);
+            return 0;
+        }
+
+        LocalDate currentMonth = now.toLocalDate().withDayOfMonth(1);
+        LocalDate highest = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(Objects::nonNull)
+                .map(LocalDateTime::toLocalDate)
+                .max(LocalDate::compareTo)
+                .orElse(null);
+        // 上界为下月一号：已有分区之后的第一个月，或当月
+        LocalDate bound = highest != null
+                ? highest.withDayOfMonth(1).plusMonths(1)
+                : currentMonth.plusMonths(1);
+        LocalDate lastBound = currentMonth.plusMonths(monthsAhead + 1L);
+
+        List<String> definitions = new ArrayList<>();
+        for (; !bound.isAfter(lastBound); bound = bound.plusMonths(1)) {
+            definitions.add("PARTITION " + NAME_FORMATTER.format(bound.minusMonths(1))
+                    + " VALUES LESS THAN ('" + BOUND_FORMATTER.format(bound.atStartOfDay()) + "')");
+        }
+        if (definitions.isEmpty()) {
+            return 0;
+        }
+
+        boolean hasFuture = partitions.get(partitions.size() - 1).upperBound() == null;
+        if (hasFuture) {
+            definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION
+                    + " INTO (" + String.join(", ", definitions) + ")");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PARTITION (" + String.join(", ", definitions) + ")");
+        }
+        int created = definitions.size() - (hasFuture ? 1 : 0);
+        log.info("创建操作日志分区: count={}, until={}", created, lastBound);
+        return created;
+    }
+
+    /**
+     * 删除指定时间之前的日志
+     * <p>
+     * 上界不晚于 time 的分区整个删除，其余早于 time 的行（只会位于 time 所在的分区）分批删除。
+     * 关闭分区管理时不删除分区，全部分批删除
+     *
+     * @param time 截止时间（不含）
+     * @return 删除的分区数
+     */
+    public int purgeBefore(LocalDateTime time) {
+        List<String> expired = !enabled ? List.of() : listPartitions().stream()
+                .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(time))
+                .map(Partition::name)
+                .toList();
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+            log.info("删除过期操作日志分区: partitions={}", expired);
+        }
+
+        long rows = 0;
+        int deleted;
+        do {
+            // 每批自动提交，避免单个大事务
+            deleted = jdbcTemplate.update(DELETE_CHUNK_SQL, Timestamp.valueOf(time), deleteChunkSize);
+            rows += deleted;
+        } while (deleted >= deleteChunkSize);
+        log.info("清理历史操作日志: before={}, partitions={}, rows={}", time, expired.size(), rows);
+        return expired.size();
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LOCK_SQL)) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement(UNLOCK_SQL)) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            // 释放失败时锁保留到该连接关闭，期间其他实例跳过维护
+            log.warn("释放操作日志分区锁失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 解析 PARTITION_DESCRIPTION，如 {@code '2026-11-01 00:00:00'}、{@code MAXVALUE}
+     */
+    private static LocalDateTime parseBound(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        return LocalDateTime.parse(value, BOUND_FORMATTER);
+    }
+}
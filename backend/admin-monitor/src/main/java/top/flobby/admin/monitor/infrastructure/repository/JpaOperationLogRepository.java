@@ -37,13 +37,6 @@ public interface JpaOperationLogRepository extends JpaRepository<OperationLog, L
             @Param("endTime") LocalDateTime endTime,
             Pageable pageable);
 
-    /**
-     * 删除指定时间之前的日志
-     */
-    @Modifying
-    @Query("DELETE FROM OperationLog o WHERE o.operTime < :time")
-    void deleteByOperTimeBefore(@Param("time") LocalDateTime time);
-
     /**
      * 批量删除
      */
@@ -10,8 +10,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import top.flobby.admin.monitor.domain.entity.OperationLog;
 import top.flobby.admin.monitor.domain.repository.OperationLogRepository;
+import top.flobby.admin.monitor.infrastructure.partition.OperationLogPartitionManager;
 import top.flobby.admin.monitor.interfaces.query.OperationLogQuery;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -26,8 +28,9 @@ import java.util.Optional;
 public class OperationLogRepositoryImpl implements OperationLogRepository {
 
     private final JpaOperationLogRepository jpaOperationLogRepository;
+    private final OperationLogPartitionManager partitionManager;
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     @Override
     public Optional<OperationLog> findById(Long id) {
@@ -59,14 +62,15 @@ public class OperationLogRepositoryImpl implements OperationLogRepository {
                 predicates.add(criteriaBuilder.equal(root.get("status"), query.getStatus()));
             }
 
-            // 时间范围
+            // 时间范围：直接比较分区键 oper_time，MySQL 只扫描范围内的月分区
             if (StringUtils.hasText(query.getStartTime())) {
-                LocalDateTime startTime = LocalDateTime.parse(query.getStartTime() + " 00:00:00", FORMATTER);
+                LocalDateTime startTime = LocalDate.parse(query.getStartTime(), FORMATTER).atStartOfDay();
                 predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("operTime"), startTime));
             }
             if (StringUtils.hasText(query.getEndTime())) {
-                LocalDateTime endTime = LocalDateTime.parse(query.getEndTime() + " 23:59:59", FORMATTER);
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("operTime"), endTime));
+                // 半开区间 [开始日, 结束日次日)，不遗漏 23:59:59 之后带毫秒的记录
+                LocalDateTime endTime = LocalDate.parse(query.getEndTime(), FORMATTER).plusDays(1).atStartOfDay();
+                predicates.add(criteriaBuilder.lessThan(root.get("operTime"), endTime));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
@@ -92,10 +96,12 @@ public class OperationLogRepositoryImpl implements OperationLogRepository {
         jpaOperationLogRepository.deleteByIdIn(ids);
     }
 
+    /**
+     * 整个删除过期分区，不在同一事务中逐行删除
+     */
     @Override
-    @Transactional
     public void deleteBefore(LocalDateTime time) {
-        jpaOperationLogRepository.deleteByOperTimeBefore(time);
+        partitionManager.purgeBefore(time);
     }
 
     @Override
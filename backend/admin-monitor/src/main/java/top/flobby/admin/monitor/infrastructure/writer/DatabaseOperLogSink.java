@@ -0,0 +1,43 @@
+package top.flobby.admin.monitor.infrastructure.writer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.common.core.OperLogRecord;
+import top.flobby.admin.common.core.OperLogSink;
+import top.flobby.admin.monitor.application.OperationLogService;
+import top.flobby.admin.monitor.domain.entity.OperationLog;
+
+/**
+ * 操作日志输出到数据库
+ * <p>
+ * 把切面采集的快照转换为操作日志实体，交给 OperationLogService 放入异步写入队列
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseOperLogSink implements OperLogSink {
+
+    private final OperationLogService operationLogService;
+
+    @Override
+    public void accept(OperLogRecord record) {
+        OperationLog log = new OperationLog();
+        log.setTitle(record.title());
+        log.setBusinessType(record.businessType().ordinal());
+        log.setMethod(record.method());
+        log.setRequestMethod(record.requestMethod());
+        // 1-后台用户
+        log.setOperatorType(1);
+        log.setOperUrl(record.operUrl());
+        log.setOperIp(record.operIp());
+        log.setOperName(record.operName());
+        log.setOperParam(record.operParam());
+        log.setJsonResult(record.jsonResult());
+        // 0-失败,1-成功
+        log.setStatus(record.success() ? 1 : 0);
+        log.setErrorMsg(record.errorMsg());
+        log.setOperTime(record.operTime());
+        log.setCostTime(record.costTime());
+
+        operationLogService.recordOperationLog(log);
+    }
+}
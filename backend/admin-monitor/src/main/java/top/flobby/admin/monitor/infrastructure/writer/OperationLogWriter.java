@@ -0,0 +1,441 @@
+package top.flobby.admin.monitor.infrastructure.writer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.monitor.domain.entity.OperationLog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 操作日志异步批量写入器
+ * <p>
+ * 请求线程只把日志放入有界内存队列，请求线程不再占用第二个数据库连接；后台线程攒够
+ * {@code oper-log.writer.batch-size} 条或等待 {@code oper-log.writer.flush-interval-ms} 后用 JDBC 批量插入
+ * <p>
+ * 队列满时按 {@code oper-log.writer.overflow-policy} 处理:
+ * <ul>
+ *     <li>BLOCK - 最多阻塞 {@code block-timeout-ms}，仍放不进时丢弃并计数</li>
+ *     <li>DROP - 直接丢弃并计数</li>
+ *     <li>SPILL - 追加写入本地溢出文件，写入线程空闲时回放入库</li>
+ * </ul>
+ * 批量插入失败时同样按溢出策略处理；应用关闭时写完队列中剩余的日志
+ * <p>
+ * 溢出文件按批流式回放，每批入库后在进度文件中记录已回放的行数，失败后从断点继续
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OperationLogWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private static final String INSERT_SQL = "INSERT INTO sys_oper_log (title, business_type, method, request_method, " +
+            "operator_type, oper_name, dept_name, oper_url, oper_ip, oper_location, oper_param, json_result, status, " +
+            "error_msg, oper_time, cost_time, tenant_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SPILL_FILE = "oper-log-spill.jsonl";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String PROGRESS_SUFFIX = ".progress";
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP, SPILL
+    }
+
+    @Value("${oper-log.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${oper-log.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${oper-log.writer.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${oper-log.writer.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${oper-log.writer.block-timeout-ms:100}")
+    private long blockTimeoutMs;
+
+    @Value("${oper-log.writer.spill-dir:${java.io.tmpdir}/admin-oper-log}")
+    private String spillDir;
+
+    /**
+     * 溢出文件回放间隔（毫秒）
+     */
+    @Value("${oper-log.writer.replay-interval-ms:30000}")
+    private long replayIntervalMs;
+
+    private BlockingQueue<OperationLog> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private long lastReplayTime;
+
+    /**
+     * 溢出文件的写入与切换互斥；不使用 synchronized，避免虚拟线程在文件 I/O 时钉住载体线程
+     */
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    private Counter dropped;
+    private Counter spilled;
+    private Counter failed;
+    private DistributionSummary batchSizes;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("oper.log.queue.size", queue, BlockingQueue::size)
+                .description("待写入的操作日志数")
+                .register(meterRegistry);
+        dropped = Counter.builder("oper.log.dropped").description("因队列已满或写入失败丢弃的操作日志数")
+                .register(meterRegistry);
+        spilled = Counter.builder("oper.log.spilled").description("写入溢出文件的操作日志数")
+                .register(meterRegistry);
+        failed = Counter.builder("oper.log.flush.failed").description("批量写入失败的批次数")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("oper.log.batch.size").description("每批写入的操作日志数")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("oper.log.flush").description("每批写入耗时")
+                .register(meterRegistry);
+
+        running = true;
+        worker = new Thread(this::run, "oper-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("操作日志写入器已启动: capacity={}, batchSize={}, flushIntervalMs={}, overflowPolicy={}",
+                queueCapacity, batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 不中断写入线程，避免打断进行中的批量插入；线程最多等待一个刷新间隔后退出
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("应用关闭时仍有未写入的操作日志: count={}", queue.size());
+        }
+    }
+
+    /**
+     * 提交操作日志，不等待写入
+     *
+     * @param operLog 操作日志
+     */
+    public void submit(OperationLog operLog) {
+        if (queue.offer(operLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(operLog, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(1);
+            }
+            case SPILL -> spill(List.of(operLog));
+            default -> drop(1);
+        }
+    }
+
+    private void run() {
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                running = false;
+            }
+            try {
+                if (batch.isEmpty()) {
+                    replaySpillIfDue();
+                } else {
+                    for (int from = 0; from < batch.size(); from += batchSize) {
+                        flush(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 写入线程退出后队列只进不出，任何意外异常都只影响当前批次
+                log.error("操作日志写入线程处理失败，丢弃当前批次: size={}", batch.size(), e);
+                drop(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 收集一批日志：攒够批量大小或等待超过刷新间隔即返回
+     */
+    private void collect(List<OperationLog> batch) throws InterruptedException {
+        OperationLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            OperationLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<OperationLog> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+            batchSizes.record(batch.size());
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            failed.increment();
+            log.error("批量写入操作日志失败: size={}", batch.size(), e);
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                drop(batch.size());
+            }
+        }
+    }
+
+    private void insert(List<OperationLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind);
+    }
+
+    private void bind(PreparedStatement ps, OperationLog operLog) throws SQLException {
+        ps.setString(1, operLog.getTitle());
+        setInteger(ps, 2, operLog.getBusinessType());
+        ps.setString(3, operLog.getMethod());
+        ps.setString(4, operLog.getRequestMethod());
+        setInteger(ps, 5, operLog.getOperatorType());
+        ps.setString(6, operLog.getOperName());
+        ps.setString(7, operLog.getDeptName());
+        ps.setString(8, operLog.getOperUrl());
+        ps.setString(9, operLog.getOperIp());
+        ps.setString(10, operLog.getOperLocation());
+        ps.setString(11, operLog.getOperParam());
+        ps.setString(12, operLog.getJsonResult());
+        setInteger(ps, 13, operLog.getStatus());
+        ps.setString(14, operLog.getErrorMsg());
+        // oper_time 为分区键，不能为空
+        ps.setTimestamp(15, Timestamp.valueOf(operLog.getOperTime() != null ? operLog.getOperTime() : LocalDateTime.now()));
+        if (operLog.getCostTime() != null) {
+            ps.setLong(16, operLog.getCostTime());
+        } else {
+            ps.setNull(16, Types.BIGINT);
+        }
+        if (operLog.getTenantId() != null) {
+            ps.setLong(17, operLog.getTenantId());
+        } else {
+            ps.setNull(17, Types.BIGINT);
+        }
+    }
+
+    private void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private void drop(int count) {
+        // 只计数不逐条告警，避免过载时刷屏；通过 oper.log.dropped 指标监控
+        dropped.increment(count);
+        log.debug("丢弃操作日志: count={}", count);
+    }
+
+    /**
+     * 以 JSON Lines 追加写入溢出文件
+     */
+    private void spill(List<OperationLog> logs) {
+        spillLock.lock();
+        try {
+            Path file = Paths.get(spillDir, SPILL_FILE);
+            try {
+                Files.createDirectories(file.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (OperationLog operLog : logs) {
+                        writer.write(objectMapper.writeValueAsString(operLog));
+                        writer.newLine();
+                    }
+                }
+                spilled.increment(logs.size());
+            } catch (IOException e) {
+                log.error("写入操作日志溢出文件失败: file={}", file, e);
+                dropped.increment(logs.size());
+            }
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * 队列空闲时回放溢出文件
+     * <p>
+     * 先把溢出文件改名为回放文件，新的溢出写入新文件；回放失败的文件保留，下次从进度文件记录的位置继续
+     */
+    private void replaySpillIfDue() {
+        if (overflowPolicy != OverflowPolicy.SPILL
+                || System.currentTimeMillis() - lastReplayTime < replayIntervalMs) {
+            return;
+        }
+        lastReplayTime = System.currentTimeMillis();
+        Path dir = Paths.get(spillDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        spillLock.lock();
+        try {
+            Path file = dir.resolve(SPILL_FILE);
+            if (Files.exists(file)) {
+                try {
+                    Files.move(file, dir.resolve(SPILL_FILE + "." + System.currentTimeMillis() + REPLAY_SUFFIX));
+                } catch (IOException e) {
+                    log.error("切换操作日志溢出文件失败: file={}", file, e);
+                    return;
+                }
+            }
+        } finally {
+            spillLock.unlock();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + REPLAY_SUFFIX)) {
+            for (Path file : files) {
+                replay(file);
+            }
+        } catch (IOException e) {
+            log.error("读取操作日志溢出目录失败: dir={}", dir, e);
+        }
+    }
+
+    /**
+     * 按批流式回放一个文件
+     * <p>
+     * 每批入库后把已回放的行数写入进度文件，再次回放时跳过这些行；只有批次入库后、进度写入前进程退出时
+     * 才会重复该批。无法解析的行（如进程崩溃时写了一半）跳过，所在批次入库后计入丢弃数
+     */
+    private void replay(Path file) {
+        Path progressFile = file.resolveSibling(file.getFileName() + PROGRESS_SUFFIX);
+        long replayed = readProgress(progressFile);
+        long committed = replayed;
+        long lineNumber = 0;
+        long count = 0;
+        // 无法解析的行随所在批次一起计数，重试时不重复计入
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<OperationLog> logs = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= replayed || line.isBlank()) {
+                    continue;
+                }
+                try {
+                    logs.add(objectMapper.readValue(line, OperationLog.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("跳过无法解析的操作日志: file={}, line={}, error={}", file, lineNumber, e.getOriginalMessage());
+                    skipped++;
+                }
+                if (logs.size() >= batchSize) {
+                    insert(logs);
+                    count += logs.size();
+                    logs.clear();
+                    writeProgress(progressFile, lineNumber);
+                    committed = lineNumber;
+                    if (skipped > 0) {
+                        drop(skipped);
+                        skipped = 0;
+                    }
+                }
+            }
+            if (!logs.isEmpty()) {
+                insert(logs);
+                count += logs.size();
+            }
+            if (skipped > 0) {
+                drop(skipped);
+            }
+        } catch (Exception e) {
+            log.warn("回放操作日志溢出文件失败，稍后从第 {} 行继续: file={}, error={}",
+                    committed + 1, file, e.getMessage());
+            return;
+        }
+
+        try {
+            Files.delete(file);
+            Files.deleteIfExists(progressFile);
+        } catch (IOException e) {
+            log.error("删除已回放的操作日志溢出文件失败: file={}", file, e);
+        }
+        log.info("回放操作日志溢出文件: file={}, count={}", file, count);
+    }
+
+    /**
+     * 读取已回放的行数，进度文件不存在或损坏时从头回放
+     */
+    private long readProgress(Path progressFile) {
+        try {
+            return Files.exists(progressFile) ? Long.parseLong(Files.readString(progressFile).trim()) : 0L;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("读取操作日志回放进度失败，从头回放: file={}, error={}", progressFile, e.getMessage());
+            return 0L;
+        }
+    }
+
+    private void writeProgress(Path progressFile, long lineNumber) throws IOException {
+        Files.writeString(progressFile, String.valueOf(lineNumber), StandardCharsets.UTF_8);
+    }
+}
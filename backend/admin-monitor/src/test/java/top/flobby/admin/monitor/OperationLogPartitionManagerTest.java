@@ -0,0 +1,219 @@
+package top.flobby.admin.monitor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.flobby.admin.monitor.infrastructure.partition.OperationLogPartitionManager;
+import top.flobby.admin.monitor.infrastructure.partition.OperationLogPartitionManager.Partition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 操作日志分区管理测试
+ * <p>
+ * JdbcTemplate 为模拟对象，information_schema 的查询结果由 {@link #partitions(String...)} 给出
+ */
+@DisplayName("操作日志分区管理测试")
+class OperationLogPartitionManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 9, 30);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private OperationLogPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new OperationLogPartitionManager(jdbcTemplate);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "monthsAhead", 3);
+        ReflectionTestUtils.setField(manager, "retentionDays", 0);
+        ReflectionTestUtils.setField(manager, "deleteChunkSize", 5000);
+    }
+
+    @Test
+    @DisplayName("解析分区上界: 带引号的日期时间、仅日期、MAXVALUE")
+    void testParseBound() throws SQLException {
+        partitions("p202610", "'2026-11-01 00:00:00'", "p202611", "'2026-12-01'", "p_future", "MAXVALUE");
+
+        assertEquals(List.of(
+                new Partition("p202610", LocalDateTime.of(2026, 11, 1, 0, 0)),
+                new Partition("p202611", LocalDateTime.of(2026, 12, 1, 0, 0)),
+                new Partition("p_future", null)), manager.listPartitions());
+    }
+
+    @Test
+    @DisplayName("只有 p_future: 从当月开始拆出分区，p_future 保留在最后")
+    void testCreateFromOnlyFuturePartition() throws SQLException {
+        partitions("p_future", "MAXVALUE");
+
+        assertEquals(4, manager.createFuturePartitions(NOW));
+
+        verify(jdbcTemplate).execute("ALTER TABLE sys_oper_log REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p202610 VALUES LESS THAN ('2026-11-01 00:00:00'), "
+                + "PARTITION p202611 VALUES LESS THAN ('2026-12-01 00:00:00'), "
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), "
+                + "PARTITION p202701 VALUES LESS THAN ('2027-02-01 00:00:00'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    @DisplayName("已有月分区和 p_future: 从最大的月分区之后继续拆分")
+    void testCreateAfterExistingMonthsWithFuture() throws SQLException {
+        partitions("p202610", "'2026-11-01 00:00:00'", "p202611", "'2026-12-01 00:00:00'", "p_future", "MAXVALUE");
+
+        assertEquals(2, manager.createFuturePartitions(NOW));
+
+        verify(jdbcTemplate).execute("ALTER TABLE sys_oper_log REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), "
+                + "PARTITION p202701 VALUES LESS THAN ('2027-02-01 00:00:00'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    @DisplayName("已有月分区、没有 p_future: ADD PARTITION 追加")
+    void testCreateAfterExistingMonthsWithoutFuture() throws SQLException {
+        partitions("p202610", "'2026-11-01 00:00:00'", "p202611", "'2026-12-01 00:00:00'");
+
+        assertEquals(2, manager.createFuturePartitions(NOW));
+
+        verify(jdbcTemplate).execute("ALTER TABLE sys_oper_log ADD PARTITION ("
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), "
+                + "PARTITION p202701 VALUES LESS THAN ('2027-02-01 00:00:00'))");
+    }
+
+    @Test
+    @DisplayName("分区已覆盖到 months-ahead: 不执行 DDL")
+    void testCreateNothingWhenUpToDate() throws SQLException {
+        partitions("p202701", "'2027-02-01 00:00:00'", "p_future", "MAXVALUE");
+
+        assertEquals(0, manager.createFuturePartitions(NOW));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("清理: 只删除上界不晚于截止时间的分区，其余行分批删除")
+    void testPurgeNeverDropsPartitionEndingAfterCutoff() throws SQLException {
+        partitions("p202607", "'2026-08-01 00:00:00'", "p202608", "'2026-09-01 00:00:00'",
+                "p202609", "'2026-10-01 00:00:00'", "p_future", "MAXVALUE");
+
+        assertEquals(1, manager.purgeBefore(LocalDateTime.of(2026, 8, 31, 23, 59, 59)));
+        verify(jdbcTemplate).execute("ALTER TABLE sys_oper_log DROP PARTITION p202607");
+
+        LocalDateTime cutoff = LocalDateTime.of(2026, 9, 1, 0, 0);
+        assertEquals(2, manager.purgeBefore(cutoff));
+        verify(jdbcTemplate).execute("ALTER TABLE sys_oper_log DROP PARTITION p202607, p202608");
+        verify(jdbcTemplate).update(anyString(), eq(Timestamp.valueOf(cutoff)), eq(5000));
+        verify(jdbcTemplate, never()).execute(contains("p202609"));
+        verify(jdbcTemplate, never()).execute(contains("p_future"));
+    }
+
+    @Test
+    @DisplayName("清理: 满批时继续删除，直到不足一批")
+    void testPurgeDeletesInChunks() throws SQLException {
+        partitions();
+        ReflectionTestUtils.setField(manager, "deleteChunkSize", 100);
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(100))).thenReturn(100, 100, 30);
+
+        assertEquals(0, manager.purgeBefore(NOW));
+
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Timestamp.class), eq(100));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("关闭分区管理: 清理不查询、不删除分区，只分批删除；维护不执行")
+    void testDisabled() throws SQLException {
+        partitions("p202607", "'2026-08-01 00:00:00'", "p_future", "MAXVALUE");
+        ReflectionTestUtils.setField(manager, "enabled", false);
+
+        assertEquals(0, manager.purgeBefore(NOW));
+        assertFalse(manager.maintain());
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), eq("sys_oper_log"));
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate).update(anyString(), eq(Timestamp.valueOf(NOW)), eq(5000));
+    }
+
+    @Test
+    @DisplayName("维护: 取得命名锁后执行并释放锁")
+    void testMaintainUnderLock() throws SQLException {
+        partitions("p_future", "MAXVALUE");
+        Connection connection = lockConnection(1);
+
+        assertTrue(manager.maintain());
+
+        verify(jdbcTemplate).execute(startsWith("ALTER TABLE sys_oper_log REORGANIZE PARTITION p_future"));
+        verify(connection).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    @Test
+    @DisplayName("维护: 其他实例持有命名锁时跳过，不执行 DDL")
+    void testMaintainSkippedWhenLockHeld() throws SQLException {
+        partitions("p_future", "MAXVALUE");
+        Connection connection = lockConnection(0);
+
+        assertFalse(manager.maintain());
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(connection, never()).prepareStatement("SELECT RELEASE_LOCK(?)");
+    }
+
+    /**
+     * 模拟 information_schema.PARTITIONS 的查询结果，参数为分区名、PARTITION_DESCRIPTION 交替
+     */
+    @SuppressWarnings("unchecked")
+    private void partitions(String... nameAndDescriptions) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        List<String> names = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < nameAndDescriptions.length; i += 2) {
+            names.add(nameAndDescriptions[i]);
+            descriptions.add(nameAndDescriptions[i + 1]);
+        }
+        int[] row = {0};
+        when(rs.getString(1)).thenAnswer(invocation -> names.get(row[0]));
+        when(rs.getString(2)).thenAnswer(invocation -> descriptions.get(row[0]));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("sys_oper_log"))).thenAnswer(invocation -> {
+            RowMapper<Partition> mapper = invocation.getArgument(1);
+            List<Partition> result = new ArrayList<>();
+            for (row[0] = 0; row[0] < names.size(); row[0]++) {
+                result.add(mapper.mapRow(rs, row[0]));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 模拟持有连接执行 GET_LOCK，lockResult 为 GET_LOCK 的返回值
+     */
+    @SuppressWarnings("unchecked")
+    private Connection lockConnection(int lockResult) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getInt(1)).thenReturn(lockResult);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(
+                invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        return connection;
+    }
+}
@@ -0,0 +1,299 @@
+package top.flobby.admin.monitor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.flobby.admin.monitor.domain.entity.OperationLog;
+import top.flobby.admin.monitor.infrastructure.writer.OperationLogWriter;
+import top.flobby.admin.monitor.infrastructure.writer.OperationLogWriter.OverflowPolicy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 操作日志批量写入器测试
+ * <p>
+ * JdbcTemplate 为模拟对象，记录每批写入的日志标题
+ */
+@DisplayName("操作日志批量写入器测试")
+class OperationLogWriterTest {
+
+    @TempDir
+    Path spillDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    /**
+     * 每批写入的日志标题
+     */
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private OperationLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        onInsert(batch -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("攒批写入: 每批不超过批量大小，关闭时写完队列")
+    void testBatching() {
+        start(OverflowPolicy.DROP, 100, 3);
+
+        for (int i = 1; i <= 7; i++) {
+            writer.submit(log("log" + i));
+        }
+        writer.stop();
+        writer = null;
+
+        assertEquals(7, inserted().size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 3));
+        assertTrue(batches.stream().anyMatch(batch -> batch.size() == 3), "应合并为满批写入");
+    }
+
+    @Test
+    @DisplayName("DROP: 队列满时直接丢弃并计数")
+    void testDropWhenQueueFull() throws Exception {
+        CountDownLatch release = blockFirstInsert(OverflowPolicy.DROP);
+
+        writer.submit(log("queued"));
+        writer.submit(log("dropped"));
+
+        assertEquals(1.0, dropped());
+        release.countDown();
+        writer.stop();
+        writer = null;
+        assertEquals(List.of("first", "queued"), inserted());
+    }
+
+    @Test
+    @DisplayName("BLOCK: 队列满时最多阻塞 block-timeout-ms，仍放不进时丢弃")
+    void testBlockTimesOut() throws Exception {
+        CountDownLatch release = blockFirstInsert(OverflowPolicy.BLOCK);
+        ReflectionTestUtils.setField(writer, "blockTimeoutMs", 100L);
+
+        writer.submit(log("queued"));
+        long start = System.nanoTime();
+        writer.submit(log("dropped"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis >= 90, "应等待阻塞超时: " + elapsedMillis + "ms");
+        assertEquals(1.0, dropped());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("SPILL: 队列满时写入溢出文件，空闲时回放入库")
+    void testSpillWhenQueueFullAndReplay() throws Exception {
+        CountDownLatch release = blockFirstInsert(OverflowPolicy.SPILL);
+
+        writer.submit(log("queued"));
+        writer.submit(log("spilled"));
+
+        List<String> lines = Files.readAllLines(spillDir.resolve("oper-log-spill.jsonl"));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("spilled"));
+        assertEquals(0.0, dropped());
+
+        release.countDown();
+        await(() -> inserted().contains("spilled") && listSpillDir().isEmpty());
+        assertEquals(List.of("first", "queued", "spilled"), inserted().stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("SPILL: 批量写入失败时写入溢出文件，之后回放入库")
+    void testSpillOnInsertFailure() {
+        onInsert(batch -> {
+            if (calls.get() == 1) {
+                throw new DataAccessResourceFailureException("数据库不可用");
+            }
+        });
+        start(OverflowPolicy.SPILL, 20, 10);
+
+        writer.submit(log("retry"));
+
+        await(() -> inserted().contains("retry") && listSpillDir().isEmpty());
+        assertEquals(1, meterRegistry.get("oper.log.spilled").counter().count());
+        assertEquals(List.of("retry"), inserted());
+    }
+
+    @Test
+    @DisplayName("回放: 按批流式写入，失败后从断点继续，不重复已写入的批次，跳过无法解析的行")
+    void testReplayResumesFromProgress() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            lines.add(objectMapper.writeValueAsString(log("log" + i)));
+            if (i == 3) {
+                lines.add("{\"title\":\"broken");
+            }
+        }
+        Files.write(spillDir.resolve("oper-log-spill.jsonl.1.replay"), lines, StandardCharsets.UTF_8);
+        // 第二批失败一次
+        onInsert(batch -> {
+            if (calls.get() == 2) {
+                throw new DataAccessResourceFailureException("数据库不可用");
+            }
+        });
+
+        start(OverflowPolicy.SPILL, 20, 2);
+
+        await(() -> listSpillDir().isEmpty());
+        assertEquals(List.of("log1", "log2", "log3", "log4", "log5"), inserted());
+        assertEquals(List.of("log1", "log2"), batches.get(0));
+        assertEquals(1.0, dropped(), "无法解析的行计入丢弃数");
+    }
+
+    @Test
+    @DisplayName("写入线程: 处理批次时的意外异常不会终止线程")
+    void testWorkerSurvivesRuntimeException() throws IOException {
+        ObjectMapper failingMapper = mock(ObjectMapper.class);
+        when(failingMapper.writeValueAsString(any())).thenThrow(new IllegalStateException("序列化失败"));
+        onInsert(batch -> {
+            if (calls.get() == 1) {
+                throw new DataAccessResourceFailureException("数据库不可用");
+            }
+        });
+        writer = new OperationLogWriter(jdbcTemplate, failingMapper, meterRegistry);
+        configure(OverflowPolicy.SPILL, 20, 10);
+        writer.start();
+
+        writer.submit(log("lost"));
+        await(() -> dropped() == 1.0);
+        writer.submit(log("after"));
+
+        await(() -> inserted().contains("after"));
+        assertEquals(List.of("after"), inserted());
+    }
+
+    /**
+     * 启动写入器：队列容量 1，第一条日志写入时阻塞，直到返回的门闩放行
+     */
+    private CountDownLatch blockFirstInsert(OverflowPolicy policy) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        onInsert(batch -> {
+            if (calls.get() == 1) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        writer = new OperationLogWriter(jdbcTemplate, objectMapper, meterRegistry);
+        configure(policy, 20, 10);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 1);
+        writer.start();
+
+        writer.submit(log("first"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void start(OverflowPolicy policy, long flushIntervalMs, int batchSize) {
+        writer = new OperationLogWriter(jdbcTemplate, objectMapper, meterRegistry);
+        configure(policy, flushIntervalMs, batchSize);
+        writer.start();
+    }
+
+    private void configure(OverflowPolicy policy, long flushIntervalMs, int batchSize) {
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(writer, "blockTimeoutMs", 10L);
+        ReflectionTestUtils.setField(writer, "spillDir", spillDir.toString());
+        ReflectionTestUtils.setField(writer, "replayIntervalMs", 0L);
+    }
+
+    /**
+     * 模拟批量插入：调用 action 后记录本批标题，action 抛出异常时视为写入失败
+     */
+    @SuppressWarnings("unchecked")
+    private void onInsert(Consumer<Collection<OperationLog>> action) {
+        Answer<int[][]> answer = invocation -> {
+            Collection<OperationLog> batch = invocation.getArgument(1);
+            calls.incrementAndGet();
+            action.accept(batch);
+            batches.add(batch.stream().map(OperationLog::getTitle).toList());
+            return new int[0][];
+        };
+        doAnswer(answer).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    private List<String> inserted() {
+        synchronized (batches) {
+            return batches.stream().flatMap(List::stream).toList();
+        }
+    }
+
+    private double dropped() {
+        return meterRegistry.get("oper.log.dropped").counter().count();
+    }
+
+    private List<Path> listSpillDir() {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待条件超时");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("等待被中断");
+            }
+        }
+    }
+
+    private static OperationLog log(String title) {
+        OperationLog operLog = new OperationLog();
+        operLog.setTitle(title);
+        operLog.setStatus(0);
+        return operLog;
+    }
+}
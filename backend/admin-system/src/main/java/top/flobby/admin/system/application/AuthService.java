@@ -1,9 +1,11 @@
 package top.flobby.admin.system.application;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -11,15 +13,19 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import top.flobby.admin.common.exception.BusinessException;
 import top.flobby.admin.common.utils.JwtUtils;
+import top.flobby.admin.common.utils.VerifiedToken;
 import top.flobby.admin.system.domain.entity.User;
 import top.flobby.admin.system.domain.repository.UserRepository;
+import top.flobby.admin.system.infrastructure.security.LoginUser;
+import top.flobby.admin.system.infrastructure.security.TokenPrincipalResolver;
+import top.flobby.admin.system.infrastructure.security.UserDetailsCache;
 import top.flobby.admin.system.interfaces.dto.LoginDTO;
 import top.flobby.admin.system.interfaces.vo.LoginVO;
-import top.flobby.admin.system.interfaces.vo.RouterVO;
 import top.flobby.admin.system.interfaces.vo.UserInfoVO;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -34,8 +40,14 @@ public class AuthService {
     private final LoginLockService loginLockService;
     private final UserRepository userRepository;
     private final PermissionCacheService permissionCacheService;
-    private final MenuService menuService;
+    private final RouterCacheService routerCacheService;
+    private final SecurityVersionService securityVersionService;
+    private final MenuSnapshotService menuSnapshotService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenPrincipalResolver tokenPrincipalResolver;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * 登录
@@ -47,7 +59,7 @@ public class AuthService {
         loginLockService.checkLock(username);
 
         try {
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(username, loginDTO.getPassword())
             );
 
@@ -55,13 +67,15 @@ public class AuthService {
             loginLockService.clearLock(username);
 
             // 生成 Token
-            String token = jwtUtils.generateToken(username);
-            return LoginVO.builder().token(token).build();
+            return issueTokens((LoginUser) authentication.getPrincipal(), refreshTokenService.create(username));
 
         } catch (BadCredentialsException e) {
             // 记录登录失败
             loginLockService.recordFail(username);
             throw new BusinessException("用户名或密码错误");
+        } catch (BusinessException e) {
+            // 业务异常（如密码哈希队列已满返回 429）原样抛出，保留错误码
+            throw e;
         } catch (Exception e) {
             // 处理其他认证异常（如部门禁用、账号禁用等）
             String message = e.getMessage();
@@ -72,6 +86,73 @@ public class AuthService {
         }
     }
 
+    /**
+     * 刷新 Token
+     * <p>
+     * 校验刷新 Token 后轮换出新的刷新 Token 与访问 Token，不经过密码校验
+     */
+    public LoginVO refresh(String refreshToken) {
+        VerifiedToken verified = jwtUtils.verify(refreshToken);
+        if (verified == null || !verified.isRefreshToken() || tokenRevocationService.isRevoked(verified)) {
+            throw new BusinessException(401, "刷新令牌无效或已过期");
+        }
+
+        RefreshTokenService.IssuedRefreshToken rotated = refreshTokenService.rotate(verified);
+
+        // 用户详情走本地缓存，同时校验账号与部门状态
+        LoginUser loginUser;
+        try {
+            loginUser = (LoginUser) userDetailsCache.get(verified.getUsername(), null);
+        } catch (Exception e) {
+            refreshTokenService.revokeFamily(rotated.familyId());
+            throw new BusinessException(401, e.getMessage() != null ? e.getMessage() : "刷新令牌无效或已过期");
+        }
+        return issueTokens(loginUser, rotated);
+    }
+
+    /**
+     * 登出
+     * <p>
+     * 吊销当前请求携带的 Token 及其刷新 Token 家族
+     */
+    public void logout() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getCredentials() instanceof VerifiedToken token) {
+            tokenRevocationService.revoke(token);
+            String familyId = token.getClaim(JwtUtils.CLAIM_FAMILY_ID, String.class);
+            if (familyId != null) {
+                refreshTokenService.revokeFamily(familyId);
+            }
+        }
+    }
+
+    /**
+     * 签发访问 Token 与刷新 Token
+     */
+    private LoginVO issueTokens(LoginUser loginUser, RefreshTokenService.IssuedRefreshToken refreshToken) {
+        return LoginVO.builder()
+                .token(generateToken(loginUser, refreshToken.familyId()))
+                .refreshToken(refreshToken.refreshToken())
+                .expiresIn(System.currentTimeMillis() + jwtUtils.getExpiration())
+                .build();
+    }
+
+    /**
+     * 生成访问 Token
+     * <p>
+     * 携带刷新 Token 家族ID，登出时一并吊销；
+     * 无状态模式下附带用户ID、数据权限范围、权限集合指纹与权限纪元
+     */
+    private String generateToken(LoginUser loginUser, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtils.CLAIM_FAMILY_ID, familyId);
+        if (tokenPrincipalResolver.isStatelessEnabled()) {
+            int dataScope = permissionCacheService.getUserDataScope(loginUser.getUserId());
+            claims.putAll(tokenPrincipalResolver.buildClaims(loginUser, dataScope));
+        }
+        return jwtUtils.generateToken(loginUser.getUsername(), claims);
+    }
+
     /**
      * 获取当前用户信息
      */
@@ -94,26 +175,55 @@ public class AuthService {
      * 获取当前用户权限列表
      */
     public Set<String> getCurrentUserPermissions() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return permissionCacheService.getUserPermissions(currentUserId());
+    }
 
-        return permissionCacheService.getUserPermissions(user.getId());
+    /**
+     * 获取当前用户权限列表的版本
+     * <p>
+     * 由用户ID与安全版本戳组成：用户角色、角色菜单、菜单变更都会递增安全版本号
+     *
+     * @return 版本，用于 ETag
+     */
+    public String getCurrentUserPermissionsVersion() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return currentUserId() + "-" + securityVersionService.currentStamp(authentication.getName());
     }
 
     /**
-     * 获取当前用户路由
+     * 获取当前用户路由的版本
      * <p>
-     * 根据用户角色权限动态生成前端路由
+     * 在权限列表版本的基础上加入菜单版本号，菜单新增等不影响权限的变更同样使路由失效
      *
-     * @return 路由列表
+     * @return 版本，用于 ETag
      */
-    public List<RouterVO> getUserRouters() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BusinessException("用户不存在"));
+    public String getUserRoutersVersion() {
+        return getCurrentUserPermissionsVersion() + "-" + menuSnapshotService.latestVersion();
+    }
+
+    /**
+     * 获取当前用户路由的 JSON
+     * <p>
+     * 根据用户角色权限动态生成前端路由，同一角色组合的用户共享缓存的路由树；
+     * 直接返回缓存中已序列化的路由，省去每次请求的序列化
+     *
+     * @return 已序列化的路由列表
+     */
+    public RawValue getUserRoutersJson() {
+        return routerCacheService.getUserRoutersJson(currentUserId());
+    }
 
-        return menuService.buildRoutersByUserId(user.getId());
+    /**
+     * 获取当前用户ID，认证主体不是 {@link LoginUser} 时按用户名查询
+     */
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof LoginUser loginUser && loginUser.getUserId() != null) {
+            return loginUser.getUserId();
+        }
+        return userRepository.findByUsername(authentication.getName())
+                .map(User::getId)
+                .orElseThrow(() -> new BusinessException("用户不存在"));
     }
 
     /**
@@ -0,0 +1,127 @@
+package top.flobby.admin.system.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.context.DataScopeInfo;
+import top.flobby.admin.system.domain.entity.UserDept;
+import top.flobby.admin.system.infrastructure.repository.JpaUserDeptRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 数据权限服务
+ * <p>
+ * 计算用户的数据权限信息（有效范围与允许访问的部门集合），并按用户缓存在本地。
+ * 缓存条目带有 "全局版本.用户版本.部门树版本" 版本戳，每次读取时通过一次 MGET 比对：
+ * <ul>
+ *     <li>用户角色、所属部门变更: 递增用户版本号</li>
+ *     <li>角色数据范围、状态变更: 递增拥有该角色的用户的版本号</li>
+ *     <li>部门新增、移动、删除: 递增部门树版本号</li>
+ *     <li>部门状态变更: 递增全局版本号</li>
+ * </ul>
+ * 版本戳不一致时重新计算，无需逐节点广播失效
+ * <p>
+ * 命中率指标: cache.gets{cache="data.scope", result="hit|miss"}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataScopeService {
+
+    private final PermissionCacheService permissionCacheService;
+    private final SecurityVersionService securityVersionService;
+    private final JpaUserDeptRepository userDeptRepository;
+    private final DepartmentIndexService departmentIndexService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.data-scope-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.data-scope-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Long, CachedScope> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "data.scope");
+        log.info("数据权限缓存已初始化: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取用户的数据权限信息
+     *
+     * @param userId   用户ID
+     * @param username 用户名，用于读取用户版本号
+     * @return 数据权限信息，部门集合不可修改
+     */
+    public DataScopeInfo getDataScopeInfo(Long userId, String username) {
+        String stamp = securityVersionService.currentDataScopeStamp(username);
+        CachedScope cached = cache.getIfPresent(userId);
+        if (cached != null && cached.stamp().equals(stamp)) {
+            return cached.info();
+        }
+
+        // 在缓存锁之外查询数据库，与认证主体缓存保持一致
+        int dataScope = permissionCacheService.getUserDataScope(userId);
+        Set<Long> rootDeptIds = Set.copyOf(resolveRootDeptIds(userId, dataScope));
+        // "本部门及下级"需要展开子部门，由部门层级索引按区间取子树；闭包表查询只使用所属部门。
+        // 部门版本号先于部门树版本号递增，同步到 Redis 中的部门版本后展开，不会把旧子树缓存在新版本戳下
+        Set<Long> allowedDeptIds = dataScope == 2
+                ? Set.copyOf(departmentIndexService.latest().expand(rootDeptIds))
+                : rootDeptIds;
+        DataScopeInfo info = new DataScopeInfo(userId, dataScope, allowedDeptIds, rootDeptIds);
+        cache.put(userId, new CachedScope(stamp, info));
+        log.debug("计算数据权限: userId={}, dataScope={}, deptIds={}", userId, dataScope, info.getAllowedDeptIds());
+        return info;
+    }
+
+    /**
+     * 查询用户所属的部门ID集合（未展开子部门）
+     *
+     * @param userId    用户ID
+     * @param dataScope 数据权限范围
+     * @return 部门ID集合
+     */
+    private Set<Long> resolveRootDeptIds(Long userId, int dataScope) {
+        // 1 - 全部数据、4 - 仅本人：不需要部门过滤
+        if (dataScope != 2 && dataScope != 3) {
+            return Set.of();
+        }
+
+        // 2 - 本部门及下级 或 3 - 仅本部门：查询用户所属的部门
+        List<UserDept> userDepts = userDeptRepository.findByUserId(userId);
+        if (userDepts.isEmpty()) {
+            log.warn("用户 {} 未关联任何部门，数据权限过滤将返回空结果", userId);
+            return Set.of();
+        }
+
+        return userDepts.stream()
+                .map(UserDept::getDeptId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param stamp 计算时的版本戳
+     * @param info  数据权限信息
+     */
+    private record CachedScope(String stamp, DataScopeInfo info) {
+    }
+}
@@ -0,0 +1,235 @@
+package top.flobby.admin.system.application;
+
+import top.flobby.admin.system.domain.entity.Department;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 部门层级索引
+ * <p>
+ * 对部门树做一次先序遍历，为每个部门记录区间 [pre, post)：pre 为先序编号，post 为其最后一个子孙的先序编号加一。
+ * 部门 d 是部门 a 的子孙当且仅当 pre(a) &lt; pre(d) &lt; post(a)，子树即先序数组中的一段连续区间:
+ * <ul>
+ *     <li>子孙判断: O(1)</li>
+ *     <li>展开子树: O(k)，k 为子树大小</li>
+ *     <li>是否存在禁用部门: 按先序编号查询启用状态位图，O(k)，k 为查询的部门数</li>
+ * </ul>
+ * 父部门不存在（已删除）的部门作为根处理，其子孙关系不受影响；环上的部门同样从任一节点起作为根，不会死循环
+ * <p>
+ * 索引不可变，只包含未删除的部门
+ */
+public final class DepartmentIndex {
+
+    /**
+     * 空索引
+     */
+    public static final DepartmentIndex EMPTY = new DepartmentIndex(0L, List.of());
+
+    private final long version;
+
+    /**
+     * 部门ID → 先序编号
+     */
+    private final Map<Long, Integer> preOf;
+
+    /**
+     * 先序编号 → 部门ID
+     */
+    private final long[] ids;
+
+    /**
+     * 先序编号 → 子树区间右端（不含）
+     */
+    private final int[] post;
+
+    /**
+     * 先序编号 → 是否启用
+     */
+    private final BitSet enabled;
+
+    private DepartmentIndex(long version, Collection<Department> departments) {
+        this.version = version;
+        int size = departments.size();
+        this.preOf = new HashMap<>(size * 2);
+        this.ids = new long[size];
+        this.post = new int[size];
+        this.enabled = new BitSet(size);
+
+        Map<Long, Department> byId = new HashMap<>(size * 2);
+        Map<Long, List<Department>> childrenByParent = new HashMap<>();
+        for (Department department : departments) {
+            byId.put(department.getId(), department);
+            childrenByParent.computeIfAbsent(department.getParentId(), key -> new ArrayList<>()).add(department);
+        }
+
+        int next = 0;
+        // 先从父部门不存在的部门出发，剩余未编号的只可能在环上
+        for (Department department : departments) {
+            if (!byId.containsKey(department.getParentId())) {
+                next = number(department, next, childrenByParent);
+            }
+        }
+        for (Department department : departments) {
+            if (!preOf.containsKey(department.getId())) {
+                next = number(department, next, childrenByParent);
+            }
+        }
+    }
+
+    /**
+     * 由未删除的部门创建索引
+     *
+     * @param version     部门版本号
+     * @param departments 未删除的部门
+     * @return 索引
+     */
+    public static DepartmentIndex of(long version, Collection<Department> departments) {
+        return new DepartmentIndex(version, departments);
+    }
+
+    /**
+     * 自 root 起迭代先序遍历编号，返回下一个可用编号
+     */
+    private int number(Department root, int next, Map<Long, List<Department>> childrenByParent) {
+        // 栈元素: 先序编号；子节点迭代位置另存，避免递归过深
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> childCursor = new ArrayDeque<>();
+        next = visit(root, next);
+        stack.push(next - 1);
+        childCursor.push(0);
+
+        while (!stack.isEmpty()) {
+            int pre = stack.peek();
+            int cursor = childCursor.pop();
+            List<Department> children = childrenByParent.getOrDefault(ids[pre], List.of());
+            Department child = null;
+            while (cursor < children.size()) {
+                Department candidate = children.get(cursor++);
+                if (!preOf.containsKey(candidate.getId())) {
+                    child = candidate;
+                    break;
+                }
+            }
+            if (child == null) {
+                post[stack.pop()] = next;
+                continue;
+            }
+            childCursor.push(cursor);
+            next = visit(child, next);
+            stack.push(next - 1);
+            childCursor.push(0);
+        }
+        return next;
+    }
+
+    private int visit(Department department, int pre) {
+        preOf.put(department.getId(), pre);
+        ids[pre] = department.getId();
+        if (Objects.equals(department.getStatus(), 1)) {
+            enabled.set(pre);
+        }
+        return pre + 1;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 部门数量
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 索引中是否存在该部门（未删除）
+     */
+    public boolean contains(Long deptId) {
+        return deptId != null && preOf.containsKey(deptId);
+    }
+
+    /**
+     * 判断 deptId 是否为 ancestorId 的子孙（不含自身）
+     *
+     * @param ancestorId 祖先部门ID
+     * @param deptId     部门ID
+     * @return 是否为子孙
+     */
+    public boolean isDescendant(Long ancestorId, Long deptId) {
+        Integer ancestor = ancestorId != null ? preOf.get(ancestorId) : null;
+        Integer descendant = deptId != null ? preOf.get(deptId) : null;
+        if (ancestor == null || descendant == null) {
+            return false;
+        }
+        return ancestor < descendant && descendant < post[ancestor];
+    }
+
+    /**
+     * 获取部门及其全部子孙部门ID
+     *
+     * @param deptId 部门ID
+     * @return 子树部门ID（包含自身）；部门不存在时只包含自身
+     */
+    public Set<Long> subtree(Long deptId) {
+        Set<Long> result = new HashSet<>();
+        collectSubtree(deptId, result);
+        return result;
+    }
+
+    /**
+     * 获取多个部门及其全部子孙部门ID
+     *
+     * @param deptIds 部门ID
+     * @return 子树部门ID的并集（包含自身）
+     */
+    public Set<Long> expand(Collection<Long> deptIds) {
+        Set<Long> result = new HashSet<>();
+        for (Long deptId : deptIds) {
+            // 已被其他子树包含的部门无需再次展开
+            if (!result.contains(deptId)) {
+                collectSubtree(deptId, result);
+            }
+        }
+        return result;
+    }
+
+    private void collectSubtree(Long deptId, Set<Long> result) {
+        result.add(deptId);
+        Integer pre = deptId != null ? preOf.get(deptId) : null;
+        if (pre == null) {
+            return;
+        }
+        for (int i = pre + 1; i < post[pre]; i++) {
+            result.add(ids[i]);
+        }
+    }
+
+    /**
+     * 是否存在已禁用的部门
+     * <p>
+     * 只判断部门自身的状态；已删除或不存在的部门视为未禁用
+     *
+     * @param deptIds 部门ID
+     * @return 任一部门已禁用时返回 true
+     */
+    public boolean anyDisabled(Collection<Long> deptIds) {
+        for (Long deptId : deptIds) {
+            Integer pre = deptId != null ? preOf.get(deptId) : null;
+            if (pre != null && !enabled.get(pre)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package top.flobby.admin.system.application;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.ReplicatedSnapshot;
+import top.flobby.admin.common.utils.TransactionUtils;
+import top.flobby.admin.system.domain.repository.DepartmentRepository;
+
+/**
+ * 部门层级索引服务
+ * <p>
+ * 在本地内存中维护当前版本的 {@link DepartmentIndex}，子孙判断、子树展开、部门禁用检查不再查询部门表。
+ * 部门新增、移动、状态变更、删除提交后递增 Redis 中的部门版本号并广播，各节点在下次读取时重新编号
+ * <p>
+ * 另外每隔 {@code cache.dept-index.refresh-seconds} 秒从 Redis 兜底同步一次版本号，防止漏收消息
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DepartmentIndexService {
+
+    private final DepartmentRepository departmentRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String VERSION_KEY = "admin:dept:version";
+
+    @Value("${cache.dept-index.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    private ReplicatedSnapshot<DepartmentIndex> index;
+
+    @PostConstruct
+    public void init() {
+        index = new ReplicatedSnapshot<>(VERSION_KEY, redisTemplate, listenerContainer, refreshSeconds, this::load);
+    }
+
+    /**
+     * 获取当前部门索引
+     *
+     * @return 部门索引
+     */
+    public DepartmentIndex current() {
+        return index.get();
+    }
+
+    /**
+     * 从 Redis 同步部门版本号后获取部门索引
+     * <p>
+     * 用于结果会被缓存或决定认证结果的读取，不会读到早于已提交变更的索引
+     *
+     * @return 部门索引
+     */
+    public DepartmentIndex latest() {
+        return index.getLatest();
+    }
+
+    /**
+     * 递增部门版本号并广播（事务提交后执行）
+     * <p>
+     * 调用方需在递增安全版本号之前调用：提交后先推进部门版本号，读取方看到新的安全版本戳时，
+     * 通过 {@link #latest()} 一定能拿到新的索引
+     */
+    public void refresh() {
+        TransactionUtils.afterCommit(index::invalidate);
+    }
+
+    private DepartmentIndex load(long version) {
+        DepartmentIndex loaded = DepartmentIndex.of(version, departmentRepository.findAll());
+        log.debug("加载部门索引: version={}, size={}", version, loaded.size());
+        return loaded;
+    }
+}
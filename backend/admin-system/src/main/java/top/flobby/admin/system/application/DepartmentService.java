@@ -1,18 +1,27 @@
 package top.flobby.admin.system.application;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.SubtreeMover;
+import top.flobby.admin.common.utils.TreeMutationLease;
+import top.flobby.admin.common.utils.TreeBuilder;
 import top.flobby.admin.system.domain.entity.Department;
 import top.flobby.admin.system.domain.repository.DepartmentRepository;
+import top.flobby.admin.system.infrastructure.repository.JpaDeptClosureRepository;
 import top.flobby.admin.system.infrastructure.repository.JpaUserDeptRepository;
 import top.flobby.admin.system.interfaces.dto.DepartmentDTO;
 import top.flobby.admin.system.interfaces.vo.DepartmentVO;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -30,12 +39,50 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final JpaUserDeptRepository jpaUserDeptRepository;
+    private final JpaDeptClosureRepository jpaDeptClosureRepository;
+    private final SecurityVersionService securityVersionService;
+    private final ResourceVersionService resourceVersionService;
+    private final DepartmentIndexService departmentIndexService;
+    private final TransactionTemplate transactionTemplate;
+    private final TreeMutationLease treeMutationLease;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 移动子树时每批改写的部门数
+     */
+    @Value("${tree.move.chunk-size:500}")
+    private int moveChunkSize;
+
+    private SubtreeMover subtreeMover;
 
     /**
      * 最大层级深度
      */
     private static final int MAX_LEVEL = 10;
 
+    /**
+     * 部门树资源版本号，任何部门变更都会递增
+     */
+    private static final String TREE_VERSION = "dept-tree";
+
+    /**
+     * 部门树变更租约名
+     */
+    private static final String TREE_LEASE = "department";
+
+    /**
+     * 部门树构建器，同级按 sortOrder 排序（为空视为 0）
+     */
+    private static final TreeBuilder<Department, Long> DEPARTMENT_TREE =
+            TreeBuilder.<Department, Long>of(Department::getId, Department::getParentId)
+                    .sortedBy(Comparator.comparingInt(d -> d.getSortOrder() != null ? d.getSortOrder() : 0));
+
+    @PostConstruct
+    public void init() {
+        subtreeMover = new SubtreeMover("department", transactionTemplate, moveChunkSize,
+                departmentRepository::findDescendantIdsAfter, departmentRepository::updateAncestorsByIds, meterRegistry);
+    }
+
     /**
      * 获取部门树
      *
@@ -46,6 +93,17 @@ public class DepartmentService {
         return buildDepartmentTree(departments, 0L);
     }
 
+    /**
+     * 获取部门树版本号
+     * <p>
+     * 用于部门树接口的 ETag
+     *
+     * @return 版本号
+     */
+    public long getDepartmentTreeVersion() {
+        return resourceVersionService.current(TREE_VERSION);
+    }
+
     /**
      * 获取部门详情
      *
@@ -60,12 +118,22 @@ public class DepartmentService {
 
     /**
      * 创建部门
+     * <p>
+     * 新部门的祖级路径取自父部门，持有部门树变更租约执行，避免父部门所在子树分批移动时写入旧路径
      *
      * @param dto 部门DTO
      * @return 部门ID
      */
-    @Transactional
     public Long createDepartment(DepartmentDTO dto) {
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            return transactionTemplate.execute(tx -> insertDepartment(dto));
+        }
+    }
+
+    /**
+     * 在当前事务中创建部门并发布相关版本号
+     */
+    private Long insertDepartment(DepartmentDTO dto) {
         // 校验父部门
         Department parent = null;
         if (dto.getParentId() != null && dto.getParentId() != 0) {
@@ -101,6 +169,12 @@ public class DepartmentService {
         department.setDeleted(0);
 
         Department savedDepartment = departmentRepository.save(department);
+        jpaDeptClosureRepository.insertNode(savedDepartment.getId(), savedDepartment.getParentId());
+
+        // 新部门进入上级部门的子孙集合，数据权限缓存需要重新展开；部门版本号先于安全版本号递增
+        departmentIndexService.refresh();
+        securityVersionService.bumpDeptTree();
+        resourceVersionService.bump(TREE_VERSION);
         log.info("创建部门成功: id={}, name={}", savedDepartment.getId(), savedDepartment.getDeptName());
 
         return savedDepartment.getId();
@@ -108,62 +182,127 @@ public class DepartmentService {
 
     /**
      * 更新部门
+     * <p>
+     * 持有部门树变更租约执行，同一时刻只有一个移动或级联状态更新。
+     * 未移动时在单个事务中更新；移动时由 {@link SubtreeMover} 分批改写子孙部门，避免长事务锁住整棵子树。
+     * 收尾事务中重新加载部门并再次校验，分批期间其他请求对部门的修改不会被覆盖
      *
      * @param dto 部门DTO
      */
-    @Transactional
     public void updateDepartment(DepartmentDTO dto) {
         if (dto.getId() == null) {
             throw new BusinessException("部门ID不能为空");
         }
 
-        Department department = departmentRepository.findById(dto.getId())
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            Department department = departmentRepository.findById(dto.getId())
+                    .orElseThrow(() -> new BusinessException("部门不存在"));
+
+            // 检查是否修改了父部门
+            boolean parentChanged = !department.getParentId().equals(dto.getParentId());
+            if (!parentChanged) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Department current = reloadForUpdate(dto, department.getAncestors());
+                    applyUpdate(current, dto, false);
+                });
+                return;
+            }
+
+            // 先在事务外校验，尽早失败；收尾事务中按同样规则再次校验
+            String newAncestors = validateMove(dto);
+            String oldAncestors = department.getAncestors();
+
+            // 分批更新子孙部门的ancestors，最后一个事务中切换部门自身、闭包表并发布版本号
+            String oldPrefix = oldAncestors.isEmpty() ? String.valueOf(dto.getId()) : oldAncestors + "," + dto.getId();
+            String newPrefix = newAncestors.isEmpty() ? String.valueOf(dto.getId()) : newAncestors + "," + dto.getId();
+            subtreeMover.move(oldPrefix, newPrefix, lease::renew, () -> {
+                Department current = reloadForUpdate(dto, oldAncestors);
+                if (!newAncestors.equals(validateMove(dto))) {
+                    throw new BusinessException("目标父部门已被移动，请刷新后重试");
+                }
+                current.setAncestors(newAncestors);
+
+                // 维护闭包表：先断开子树与原祖先的关系，再连接到新父部门的祖先
+                jpaDeptClosureRepository.detachSubtree(dto.getId());
+                jpaDeptClosureRepository.attachSubtree(dto.getId(), dto.getParentId());
+                applyUpdate(current, dto, true);
+            });
+        }
+    }
+
+    /**
+     * 在当前事务中重新加载部门并校验名称唯一性
+     *
+     * @param dto       部门信息
+     * @param ancestors 开始更新时部门的祖级路径，不一致说明部门已被其他操作移动
+     * @return 部门
+     */
+    private Department reloadForUpdate(DepartmentDTO dto, String ancestors) {
+        Department current = departmentRepository.findById(dto.getId())
                 .orElseThrow(() -> new BusinessException("部门不存在"));
+        if (!Objects.equals(current.getAncestors(), ancestors)) {
+            throw new BusinessException("部门已被移动，请刷新后重试");
+        }
 
         // 校验部门名称唯一性(同父节点下,排除自己)
         if (departmentRepository.existsByDeptNameAndParentIdAndIdNotAndDeleted(
                 dto.getDeptName(), dto.getParentId(), dto.getId(), 0)) {
             throw new BusinessException("同级部门名称已存在");
         }
+        return current;
+    }
 
-        // 检查是否修改了父部门
-        boolean parentChanged = !department.getParentId().equals(dto.getParentId());
-
-        if (parentChanged) {
-            // 校验不能将部门移动到自己或子孙部门下
-            if (dto.getParentId().equals(dto.getId())) {
-                throw new BusinessException("不能将部门移动到自己下面");
-            }
-
-            // 检查是否移动到子孙部门
-            if (isDescendant(dto.getId(), dto.getParentId())) {
-                throw new BusinessException("不能将部门移动到其子孙部门下");
-            }
+    /**
+     * 校验部门移动并计算新的祖级路径
+     *
+     * @param dto 部门信息
+     * @return 新的祖级路径
+     */
+    private String validateMove(DepartmentDTO dto) {
+        // 校验不能将部门移动到自己或子孙部门下
+        if (dto.getParentId().equals(dto.getId())) {
+            throw new BusinessException("不能将部门移动到自己下面");
+        }
 
-            // 获取新父部门
-            Department newParent = null;
-            if (dto.getParentId() != 0) {
-                newParent = departmentRepository.findById(dto.getParentId())
-                        .orElseThrow(() -> new BusinessException("父部门不存在"));
-            }
+        // 检查是否移动到子孙部门
+        checkNotDescendant(dto.getId(), dto.getParentId());
 
-            // 计算新的ancestors
-            String newAncestors = calculateAncestors(newParent);
+        // 获取新父部门
+        Department newParent = null;
+        if (dto.getParentId() != 0) {
+            newParent = departmentRepository.findById(dto.getParentId())
+                    .orElseThrow(() -> new BusinessException("父部门不存在"));
+        }
 
-            // 校验层级深度
-            int newLevel = newAncestors.isEmpty() ? 1 : newAncestors.split(",").length + 1;
-            if (newLevel > MAX_LEVEL) {
-                throw new BusinessException("部门层级不能超过" + MAX_LEVEL + "级");
-            }
+        // 计算新的ancestors
+        String newAncestors = calculateAncestors(newParent);
 
-            // 更新当前部门的ancestors
-            String oldAncestors = department.getAncestors();
-            department.setAncestors(newAncestors);
+        // 校验层级深度
+        int newLevel = newAncestors.isEmpty() ? 1 : newAncestors.split(",").length + 1;
+        if (newLevel > MAX_LEVEL) {
+            throw new BusinessException("部门层级不能超过" + MAX_LEVEL + "级");
+        }
+        return newAncestors;
+    }
 
-            // 批量更新子孙部门的ancestors
-            String oldPrefix = oldAncestors.isEmpty() ? String.valueOf(dto.getId()) : oldAncestors + "," + dto.getId();
-            String newPrefix = newAncestors.isEmpty() ? String.valueOf(dto.getId()) : newAncestors + "," + dto.getId();
-            departmentRepository.updateAncestorsByPrefix(oldPrefix, newPrefix);
+    /**
+     * 保存部门信息并发布相关版本号
+     *
+     * @param department    部门
+     * @param dto           部门信息
+     * @param parentChanged 是否修改了父部门
+     */
+    private void applyUpdate(Department department, DepartmentDTO dto, boolean parentChanged) {
+        // 状态变化时递增全局安全版本号，移动时递增部门树版本号；部门版本号需先于二者递增
+        boolean statusChanged = !Objects.equals(department.getStatus(), dto.getStatus());
+        if (parentChanged || statusChanged) {
+            departmentIndexService.refresh();
+        }
+        if (parentChanged) {
+            securityVersionService.bumpDeptTree();
+        }
+        if (statusChanged) {
+            securityVersionService.bumpAll();
         }
 
         // 更新部门信息
@@ -176,6 +315,7 @@ public class DepartmentService {
         department.setStatus(dto.getStatus());
 
         departmentRepository.save(department);
+        resourceVersionService.bump(TREE_VERSION);
         log.info("更新部门成功: id={}, name={}", department.getId(), department.getDeptName());
     }
 
@@ -201,6 +341,10 @@ public class DepartmentService {
 
         // 逻辑删除
         departmentRepository.deleteById(id);
+        jpaDeptClosureRepository.deleteByDescendantId(id);
+        departmentIndexService.refresh();
+        securityVersionService.bumpDeptTree();
+        resourceVersionService.bump(TREE_VERSION);
         log.info("删除部门成功: id={}, name={}", id, department.getDeptName());
     }
 
@@ -210,13 +354,22 @@ public class DepartmentService {
      * @param id     部门ID
      * @param status 状态
      */
-    @Transactional
     public void updateDepartmentStatus(Long id, Integer status) {
         // 校验状态值
         if (status != 0 && status != 1) {
             throw new BusinessException("状态值只能是0（禁用）或1（启用）");
         }
 
+        // 级联禁用按祖级路径匹配子孙部门，与移动互斥，避免漏掉分批移动中已改写路径的部门
+        try (TreeMutationLease.Lease lease = treeMutationLease.acquire(TREE_LEASE)) {
+            transactionTemplate.executeWithoutResult(tx -> applyStatus(id, status));
+        }
+    }
+
+    /**
+     * 在当前事务中更新部门状态并发布相关版本号
+     */
+    private void applyStatus(Long id, Integer status) {
         Department department = departmentRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("部门不存在"));
 
@@ -231,6 +384,11 @@ public class DepartmentService {
             departmentRepository.save(department);
             log.info("启用部门成功: id={}", id);
         }
+
+        // 部门状态决定所属用户能否通过认证，先递增部门版本号，再递增全局安全版本号
+        departmentIndexService.refresh();
+        securityVersionService.bumpAll();
+        resourceVersionService.bump(TREE_VERSION);
     }
 
     /**
@@ -267,24 +425,17 @@ public class DepartmentService {
     }
 
     /**
-     * 检查是否为子孙部门
+     * 校验目标部门不是指定部门的子孙
+     * <p>
+     * 写路径的校验查询闭包表，不使用最终一致的部门层级索引
      *
-     * @param ancestorId   祖先部门ID
-     * @param descendantId 子孙部门ID
-     * @return true-是子孙部门, false-不是
+     * @param ancestorId   被移动的部门ID
+     * @param descendantId 目标父部门ID
      */
-    private boolean isDescendant(Long ancestorId, Long descendantId) {
-        Department descendant = departmentRepository.findById(descendantId).orElse(null);
-        if (descendant == null) {
-            return false;
+    private void checkNotDescendant(Long ancestorId, Long descendantId) {
+        if (jpaDeptClosureRepository.existsByAncestorIdAndDescendantId(ancestorId, descendantId)) {
+            throw new BusinessException("不能将部门移动到其子孙部门下");
         }
-
-        String ancestors = descendant.getAncestors();
-        if (ancestors == null || ancestors.isEmpty()) {
-            return false;
-        }
-
-        return ancestors.contains(String.valueOf(ancestorId));
     }
 
     /**
@@ -295,24 +446,11 @@ public class DepartmentService {
      * @return 部门树
      */
     private List<DepartmentVO> buildDepartmentTree(List<Department> departments, Long parentId) {
-        List<DepartmentVO> tree = new ArrayList<>();
-
-        for (Department department : departments) {
-            if (department.getParentId().equals(parentId)) {
-                DepartmentVO vo = toDepartmentVO(department);
-                vo.setChildren(buildDepartmentTree(departments, department.getId()));
-                tree.add(vo);
-            }
-        }
-
-        // 按排序字段排序
-        tree.sort((a, b) -> {
-            int orderA = a.getSortOrder() != null ? a.getSortOrder() : 0;
-            int orderB = b.getSortOrder() != null ? b.getSortOrder() : 0;
-            return Integer.compare(orderA, orderB);
+        return DEPARTMENT_TREE.build(departments, parentId, (department, children) -> {
+            DepartmentVO vo = toDepartmentVO(department);
+            vo.setChildren(children);
+            return vo;
         });
-
-        return tree;
     }
 
     /**
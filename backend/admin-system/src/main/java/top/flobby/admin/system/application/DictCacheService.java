@@ -5,13 +5,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.SingleFlightLoader;
 import top.flobby.admin.system.domain.entity.DictData;
 import top.flobby.admin.system.domain.repository.DictDataRepository;
 import top.flobby.admin.system.interfaces.vo.DictDataVO;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -19,7 +20,7 @@ import java.util.stream.Collectors;
 /**
  * 字典缓存服务
  * <p>
- * 采用 Cache-Aside 模式管理字典数据缓存
+ * 采用 Cache-Aside 模式管理字典数据缓存，未命中时经 {@link SingleFlightLoader} 合并回源
  * </p>
  */
 @Slf4j
@@ -30,10 +31,16 @@ public class DictCacheService {
     private final StringRedisTemplate redisTemplate;
     private final DictDataRepository dictDataRepository;
     private final ObjectMapper objectMapper;
+    private final SingleFlightLoader singleFlightLoader;
+    private final ResourceVersionService resourceVersionService;
 
     private static final String DICT_CACHE_PREFIX = "admin:dict:data:";
+    private static final String DICT_VERSION_PREFIX = "dict:";
     private static final long CACHE_EXPIRE_HOURS = 2;
 
+    @Value("${cache.negative-ttl-seconds:300}")
+    private long negativeTtlSeconds;
+
     /**
      * 获取字典数据（带缓存）
      * 仅返回启用的数据,按 sort asc, id asc 排序
@@ -41,8 +48,29 @@ public class DictCacheService {
     public List<DictDataVO> getDictDataByType(String dictType) {
         String cacheKey = DICT_CACHE_PREFIX + dictType;
 
+        // 尝试从缓存获取
+        List<DictDataVO> cached = readCache(cacheKey, dictType);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 从数据库加载，同一字典类型的并发未命中合并为一次回源
+        return singleFlightLoader.load(cacheKey,
+                () -> readCache(cacheKey, dictType),
+                () -> {
+                    List<DictDataVO> dictDataList = loadDictDataFromDB(dictType);
+                    writeCache(cacheKey, dictType, dictDataList);
+                    return dictDataList;
+                });
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @return 字典数据；未命中或解析失败时返回 null
+     */
+    private List<DictDataVO> readCache(String cacheKey, String dictType) {
         try {
-            // 尝试从缓存获取
             String cachedData = redisTemplate.opsForValue().get(cacheKey);
             if (cachedData != null) {
                 return objectMapper.readValue(cachedData, new TypeReference<List<DictDataVO>>() {});
@@ -51,19 +79,34 @@ public class DictCacheService {
             log.warn("解析字典缓存失败: dictType={}, error={}", dictType, e.getMessage());
             // 缓存解析失败,降级到数据库查询
         }
+        return null;
+    }
 
-        // 从数据库加载
-        List<DictDataVO> dictDataList = loadDictDataFromDB(dictType);
-
-        // 写入缓存
+    /**
+     * 写入缓存
+     * <p>
+     * 空结果（不存在的字典类型）使用较短的过期时间，既挡住穿透，又不会长期占用缓存
+     */
+    private void writeCache(String cacheKey, String dictType, List<DictDataVO> dictDataList) {
         try {
             String jsonData = objectMapper.writeValueAsString(dictDataList);
-            redisTemplate.opsForValue().set(cacheKey, jsonData, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+            if (dictDataList.isEmpty()) {
+                redisTemplate.opsForValue().set(cacheKey, jsonData, negativeTtlSeconds, TimeUnit.SECONDS);
+            } else {
+                redisTemplate.opsForValue().set(cacheKey, jsonData, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+            }
         } catch (JsonProcessingException e) {
             log.error("写入字典缓存失败: dictType={}, error={}", dictType, e.getMessage());
         }
+    }
 
-        return dictDataList;
+    /**
+     * 获取字典数据版本号
+     * <p>
+     * 字典数据刷新或清除时递增，用于字典数据接口的 ETag
+     */
+    public long getDictVersion(String dictType) {
+        return resourceVersionService.current(DICT_VERSION_PREFIX + dictType);
     }
 
     /**
@@ -77,13 +120,9 @@ public class DictCacheService {
         List<DictDataVO> dictDataList = loadDictDataFromDB(dictType);
 
         // 覆盖缓存
-        try {
-            String jsonData = objectMapper.writeValueAsString(dictDataList);
-            redisTemplate.opsForValue().set(cacheKey, jsonData, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            log.info("刷新字典缓存成功: dictType={}, count={}", dictType, dictDataList.size());
-        } catch (JsonProcessingException e) {
-            log.error("刷新字典缓存失败: dictType={}, error={}", dictType, e.getMessage());
-        }
+        writeCache(cacheKey, dictType, dictDataList);
+        resourceVersionService.bump(DICT_VERSION_PREFIX + dictType);
+        log.info("刷新字典缓存成功: dictType={}, count={}", dictType, dictDataList.size());
     }
 
     /**
@@ -92,6 +131,7 @@ public class DictCacheService {
     public void clearDictCache(String dictType) {
         String cacheKey = DICT_CACHE_PREFIX + dictType;
         redisTemplate.delete(cacheKey);
+        resourceVersionService.bump(DICT_VERSION_PREFIX + dictType);
         log.info("清除字典缓存: dictType={}", dictType);
     }
 
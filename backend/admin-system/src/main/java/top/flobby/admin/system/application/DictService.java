@@ -120,10 +120,8 @@ public class DictService {
 
         dictTypeRepository.save(dictType);
 
-        // 如果状态变为禁用,清除缓存
-        if (dto.getStatus() == 0) {
-            dictCacheService.clearDictCache(dictType.getDictType());
-        }
+        // 名称、状态等任何变更都清除缓存并递增版本号，客户端的旧 ETag 随即失效
+        dictCacheService.clearDictCache(dictType.getDictType());
 
         log.info("更新字典类型成功: id={}, type={}", id, dictType.getDictType());
     }
@@ -160,6 +158,13 @@ public class DictService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 获取字典数据版本号，用于公共字典数据接口的 ETag
+     */
+    public long getDictVersion(String dictType) {
+        return dictCacheService.getDictVersion(dictType);
+    }
+
     /**
      * 根据字典类型获取字典数据（公共接口,仅启用数据,带缓存）
      */
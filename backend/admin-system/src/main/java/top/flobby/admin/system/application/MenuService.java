@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import top.flobby.admin.common.utils.TreeBuilder;
 import top.flobby.admin.system.domain.entity.Menu;
 import top.flobby.admin.system.domain.repository.MenuRepository;
 import top.flobby.admin.system.infrastructure.repository.JpaRoleMenuRepository;
@@ -39,19 +40,39 @@ public class MenuService {
 
     private final MenuRepository menuRepository;
     private final JpaRoleMenuRepository jpaRoleMenuRepository;
+    private final SecurityVersionService securityVersionService;
+    private final PermissionCacheService permissionCacheService;
+    private final MenuSnapshotService menuSnapshotService;
+
+    /**
+     * 菜单树构建器，同级按 sortOrder 排序
+     */
+    private static final TreeBuilder<Menu, Long> MENU_TREE = TreeBuilder.<Menu, Long>of(Menu::getId, Menu::getParentId)
+            .sortedBy(Comparator.comparing(Menu::getSortOrder, Comparator.nullsLast(Integer::compareTo)));
 
     /**
      * 获取菜单树
      * <p>
-     * 查询所有菜单并构建树形结构，用于菜单管理页面展示
+     * 基于菜单快照构建树形结构，用于菜单管理页面展示
      *
      * @return 菜单树列表
      */
     public List<MenuTreeVO> listMenuTree() {
-        List<Menu> menus = menuRepository.findAll();
+        List<Menu> menus = menuSnapshotService.current().getMenus();
         return buildMenuTree(menus, 0L);
     }
 
+    /**
+     * 获取菜单树版本号
+     * <p>
+     * 菜单新增、修改、删除、状态变更时递增，用于菜单树接口的 ETag
+     *
+     * @return 版本号
+     */
+    public long getMenuTreeVersion() {
+        return menuSnapshotService.latestVersion();
+    }
+
     /**
      * 新增菜单
      * <p>
@@ -89,6 +110,7 @@ public class MenuService {
 
         // 保存菜单
         Menu savedMenu = menuRepository.save(menu);
+        menuSnapshotService.refresh();
         log.info("创建菜单成功: id={}, name={}, type={}", savedMenu.getId(), savedMenu.getMenuName(), savedMenu.getMenuType());
 
         return savedMenu;
@@ -151,6 +173,10 @@ public class MenuService {
 
         // 保存更新
         Menu updatedMenu = menuRepository.save(menu);
+        // 菜单权限变化影响所有用户，递增全局安全版本号并清除权限缓存
+        securityVersionService.bumpAll();
+        permissionCacheService.clearAllCache();
+        menuSnapshotService.refresh();
         log.info("更新菜单成功: id={}, name={}, type={}", updatedMenu.getId(), updatedMenu.getMenuName(), updatedMenu.getMenuType());
 
         return updatedMenu;
@@ -184,6 +210,9 @@ public class MenuService {
 
         // 执行删除（逻辑删除）
         menuRepository.deleteById(id);
+        securityVersionService.bumpAll();
+        permissionCacheService.clearAllCache();
+        menuSnapshotService.refresh();
         log.info("删除菜单成功: id={}, name={}", id, menu.getMenuName());
     }
 
@@ -205,6 +234,9 @@ public class MenuService {
         // 更新状态
         menu.setStatus(status);
         menuRepository.save(menu);
+        securityVersionService.bumpAll();
+        permissionCacheService.clearAllCache();
+        menuSnapshotService.refresh();
         log.info("更新菜单状态成功: id={}, name={}, status={}", id, menu.getMenuName(), status);
     }
 
@@ -231,147 +263,125 @@ public class MenuService {
     /**
      * 构建菜单树
      * <p>
-     * 递归构建父子关系，按 sortOrder 排序，空子节点设为 null
-     * <p>
-     * 参考 RoleService 中的实现
+     * 一次分组构建父子关系，按 sortOrder 排序，空子节点设为 null
      *
      * @param menus    菜单列表
      * @param parentId 父菜单ID
      * @return 菜单树列表
      */
     private List<MenuTreeVO> buildMenuTree(List<Menu> menus, Long parentId) {
-        return menus.stream()
-                .filter(m -> Objects.equals(m.getParentId(), parentId))
-                .sorted(Comparator.comparing(Menu::getSortOrder, Comparator.nullsLast(Integer::compareTo)))
-                .map(m -> {
-                    MenuTreeVO vo = MenuTreeVO.builder()
-                            .id(m.getId())
-                            .parentId(m.getParentId())
-                            .menuName(m.getMenuName())
-                            .menuType(m.getMenuType())
-                            .routePath(m.getRoutePath())
-                            .component(m.getComponent())
-                            .permission(m.getPermission())
-                            .icon(m.getIcon())
-                            .sortOrder(m.getSortOrder())
-                            .visible(m.getVisible())
-                            .status(m.getStatus())
-                            .children(buildMenuTree(menus, m.getId()))
-                            .build();
-                    if (vo.getChildren() != null && vo.getChildren().isEmpty()) {
-                        vo.setChildren(null);
-                    }
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        return MENU_TREE.build(menus, parentId, (m, children) -> MenuTreeVO.builder()
+                .id(m.getId())
+                .parentId(m.getParentId())
+                .menuName(m.getMenuName())
+                .menuType(m.getMenuType())
+                .routePath(m.getRoutePath())
+                .component(m.getComponent())
+                .permission(m.getPermission())
+                .icon(m.getIcon())
+                .sortOrder(m.getSortOrder())
+                .visible(m.getVisible())
+                .status(m.getStatus())
+                .children(children.isEmpty() ? null : children)
+                .build());
     }
 
     /**
-     * 根据用户菜单ID列表构建动态路由
+     * 根据角色组合构建动态路由
      * <p>
-     * 将菜单数据转换为前端 Vue Router 格式，用于动态路由加载
+     * 将菜单数据转换为前端 Vue Router 格式，用于动态路由加载，结果由 RouterCacheService 按角色组合缓存
      * <p>
      * 转换规则：
      * - 目录类型(1)：component 为 Layout，有 children
      * - 菜单类型(2)：component 为实际组件路径
      * - 按钮类型(3)：不生成路由，仅作为权限标识
      *
-     * @param menuIds 用户拥有的菜单ID列表
+     * @param roleSetKey 角色组合键（排序后的启用角色ID，逗号分隔）
+     * @param snapshot   菜单快照
      * @return 路由列表
      */
-    public List<RouterVO> buildRoutersByMenuIds(Set<Long> menuIds) {
+    public List<RouterVO> buildRoutersByRoleSetKey(String roleSetKey, MenuSnapshot snapshot) {
+        if (roleSetKey.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> roleIds = Arrays.stream(roleSetKey.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+        return buildRoutersByMenuIds(jpaRoleMenuRepository.findMenuIdsByRoleIds(roleIds), snapshot);
+    }
+
+    private List<RouterVO> buildRoutersByMenuIds(Set<Long> menuIds, MenuSnapshot snapshot) {
         if (menuIds == null || menuIds.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // 查询用户拥有的菜单（排除按钮类型，只保留目录和菜单）
-        List<Menu> menus = menuRepository.findAll().stream()
-                .filter(m -> menuIds.contains(m.getId()))
+        // 从菜单快照中取用户拥有的菜单（排除按钮类型，只保留启用的目录和菜单）
+        List<Menu> menus = snapshot.enabledOf(menuIds).stream()
                 .filter(m -> m.getMenuType() != 3) // 排除按钮
-                .filter(m -> m.getStatus() == 1) // 只保留启用的
                 .collect(Collectors.toList());
 
         return buildRouterTree(menus, 0L);
     }
 
     /**
-     * 根据用户ID构建动态路由
-     * <p>
-     * 查询用户拥有的所有菜单并转换为路由格式
-     *
-     * @param userId 用户ID
-     * @return 路由列表
-     */
-    public List<RouterVO> buildRoutersByUserId(Long userId) {
-        // 查询用户拥有的菜单ID
-        Set<Long> menuIds = jpaRoleMenuRepository.findMenuIdsByUserId(userId);
-        return buildRoutersByMenuIds(menuIds);
-    }
-
-    /**
-     * 递归构建路由树
+     * 构建路由树
      *
      * @param menus    菜单列表
      * @param parentId 父菜单ID
      * @return 路由树列表
      */
     private List<RouterVO> buildRouterTree(List<Menu> menus, Long parentId) {
-        return menus.stream()
-                .filter(m -> Objects.equals(m.getParentId(), parentId))
-                .sorted(Comparator.comparing(Menu::getSortOrder, Comparator.nullsLast(Integer::compareTo)))
-                .map(m -> {
-                    RouterVO router = new RouterVO();
-
-                    // 设置路由路径
-                    if (parentId == 0L) {
-                        // 顶级菜单，路径以 / 开头
-                        router.setPath(m.getRoutePath().startsWith("/") ? m.getRoutePath() : "/" + m.getRoutePath());
-                    } else {
-                        // 子菜单，相对路径
-                        router.setPath(m.getRoutePath());
-                    }
-
-                    // 设置路由名称（使用菜单名称的驼峰形式）
-                    router.setName(generateRouteName(m.getMenuName()));
-
-                    // 设置组件路径
-                    if (m.getMenuType() == 1) {
-                        // 目录类型使用 Layout
-                        router.setComponent("Layout");
-                    } else {
-                        // 菜单类型使用实际组件路径
-                        router.setComponent(m.getComponent());
-                    }
-
-                    // 设置元信息
-                    RouterVO.MetaVO meta = RouterVO.MetaVO.builder()
-                            .title(m.getMenuName())
-                            .icon(m.getIcon())
-                            .hidden(m.getVisible() == 0)
-                            .keepAlive(true)
-                            .build();
-
-                    // 如果有权限标识，添加到 meta
-                    if (StringUtils.hasText(m.getPermission())) {
-                        meta.setPermissions(Collections.singletonList(m.getPermission()));
-                    }
-
-                    router.setMeta(meta);
-
-                    // 递归构建子路由
-                    List<RouterVO> children = buildRouterTree(menus, m.getId());
-                    if (!children.isEmpty()) {
-                        router.setChildren(children);
-                        // 目录类型设置重定向到第一个子菜单
-                        if (m.getMenuType() == 1 && !children.isEmpty()) {
-                            String firstChildPath = children.get(0).getPath();
-                            router.setRedirect(router.getPath() + "/" + firstChildPath);
-                        }
-                    }
-
-                    return router;
-                })
-                .collect(Collectors.toList());
+        return MENU_TREE.build(menus, parentId, (m, children) -> {
+            RouterVO router = new RouterVO();
+
+            // 设置路由路径
+            if (Objects.equals(m.getParentId(), 0L)) {
+                // 顶级菜单，路径以 / 开头
+                router.setPath(m.getRoutePath().startsWith("/") ? m.getRoutePath() : "/" + m.getRoutePath());
+            } else {
+                // 子菜单，相对路径
+                router.setPath(m.getRoutePath());
+            }
+
+            // 设置路由名称（使用菜单名称的驼峰形式）
+            router.setName(generateRouteName(m.getMenuName()));
+
+            // 设置组件路径
+            if (m.getMenuType() == 1) {
+                // 目录类型使用 Layout
+                router.setComponent("Layout");
+            } else {
+                // 菜单类型使用实际组件路径
+                router.setComponent(m.getComponent());
+            }
+
+            // 设置元信息
+            RouterVO.MetaVO meta = RouterVO.MetaVO.builder()
+                    .title(m.getMenuName())
+                    .icon(m.getIcon())
+                    .hidden(m.getVisible() == 0)
+                    .keepAlive(true)
+                    .build();
+
+            // 如果有权限标识，添加到 meta
+            if (StringUtils.hasText(m.getPermission())) {
+                meta.setPermissions(Collections.singletonList(m.getPermission()));
+            }
+
+            router.setMeta(meta);
+
+            // 子路由已先行构建
+            if (!children.isEmpty()) {
+                router.setChildren(children);
+                // 目录类型设置重定向到第一个子菜单
+                if (m.getMenuType() == 1 && !children.isEmpty()) {
+                    String firstChildPath = children.get(0).getPath();
+                    router.setRedirect(router.getPath() + "/" + firstChildPath);
+                }
+            }
+
+            return router;
+        });
     }
 
     /**
@@ -0,0 +1,166 @@
+package top.flobby.admin.system.application;
+
+import org.springframework.util.StringUtils;
+import top.flobby.admin.system.domain.entity.Menu;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 菜单快照
+ * <p>
+ * 某一菜单版本下全部未删除菜单的不可变副本，按菜单ID、父菜单ID、权限标识建立索引。
+ * 快照中的菜单是脱离持久化上下文的拷贝，与实体管理器中的实例互不影响；调用方只读，不得修改
+ */
+public final class MenuSnapshot {
+
+    /**
+     * 空快照
+     */
+    public static final MenuSnapshot EMPTY = new MenuSnapshot(0L, List.of());
+
+    private final long version;
+    private final List<Menu> menus;
+    private final Map<Long, Menu> byId;
+    private final Map<Long, List<Menu>> byParentId;
+    private final Map<String, Menu> byPermission;
+
+    private MenuSnapshot(long version, List<Menu> menus) {
+        this.version = version;
+        this.menus = menus;
+
+        Map<Long, Menu> idIndex = new HashMap<>(menus.size() * 2);
+        Map<Long, List<Menu>> parentIndex = new HashMap<>();
+        Map<String, Menu> permissionIndex = new HashMap<>();
+        for (Menu menu : menus) {
+            idIndex.put(menu.getId(), menu);
+            if (menu.getParentId() != null) {
+                parentIndex.computeIfAbsent(menu.getParentId(), key -> new ArrayList<>()).add(menu);
+            }
+            if (StringUtils.hasText(menu.getPermission())) {
+                permissionIndex.putIfAbsent(menu.getPermission(), menu);
+            }
+        }
+        parentIndex.replaceAll((parentId, children) -> List.copyOf(children));
+
+        this.byId = Map.copyOf(idIndex);
+        this.byParentId = Map.copyOf(parentIndex);
+        this.byPermission = Map.copyOf(permissionIndex);
+    }
+
+    /**
+     * 由数据库中的菜单创建快照
+     *
+     * @param version 菜单版本号
+     * @param menus   未删除的菜单
+     * @return 快照
+     */
+    public static MenuSnapshot of(long version, Collection<Menu> menus) {
+        return new MenuSnapshot(version, menus.stream().map(MenuSnapshot::detach).toList());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 全部未删除菜单
+     */
+    public List<Menu> getMenus() {
+        return menus;
+    }
+
+    /**
+     * 根据ID获取菜单
+     *
+     * @return 菜单，不存在时返回 null
+     */
+    public Menu getById(Long id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    /**
+     * 获取直接子菜单
+     *
+     * @return 子菜单，没有时返回空列表
+     */
+    public List<Menu> getChildren(Long parentId) {
+        return parentId != null ? byParentId.getOrDefault(parentId, List.of()) : List.of();
+    }
+
+    /**
+     * 根据权限标识获取菜单
+     *
+     * @return 菜单，不存在时返回 null
+     */
+    public Menu getByPermission(String permission) {
+        return permission != null ? byPermission.get(permission) : null;
+    }
+
+    /**
+     * 获取指定菜单中已启用菜单的权限标识
+     * <p>
+     * 与按角色联表查询菜单权限的结果一致：排除已删除、已禁用及未配置权限标识的菜单
+     *
+     * @param menuIds 菜单ID
+     * @return 权限标识集合
+     */
+    public Set<String> permissionsOf(Collection<Long> menuIds) {
+        Set<String> permissions = new HashSet<>();
+        for (Long menuId : menuIds) {
+            Menu menu = byId.get(menuId);
+            if (menu != null && isEnabled(menu) && StringUtils.hasText(menu.getPermission())) {
+                permissions.add(menu.getPermission());
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * 获取指定菜单中已启用的菜单
+     *
+     * @param menuIds 菜单ID
+     * @return 菜单列表，顺序与快照一致
+     */
+    public List<Menu> enabledOf(Set<Long> menuIds) {
+        return menus.stream()
+                .filter(menu -> menuIds.contains(menu.getId()))
+                .filter(MenuSnapshot::isEnabled)
+                .toList();
+    }
+
+    private static boolean isEnabled(Menu menu) {
+        return Objects.equals(menu.getStatus(), 1);
+    }
+
+    /**
+     * 拷贝菜单，避免快照引用持久化上下文中的托管实例
+     */
+    private static Menu detach(Menu source) {
+        Menu menu = new Menu();
+        menu.setId(source.getId());
+        menu.setParentId(source.getParentId());
+        menu.setMenuName(source.getMenuName());
+        menu.setMenuType(source.getMenuType());
+        menu.setRoutePath(source.getRoutePath());
+        menu.setComponent(source.getComponent());
+        menu.setPermission(source.getPermission());
+        menu.setIcon(source.getIcon());
+        menu.setSortOrder(source.getSortOrder());
+        menu.setVisible(source.getVisible());
+        menu.setStatus(source.getStatus());
+        menu.setCreateTime(source.getCreateTime());
+        menu.setUpdateTime(source.getUpdateTime());
+        menu.setCreateBy(source.getCreateBy());
+        menu.setUpdateBy(source.getUpdateBy());
+        menu.setDeleted(source.getDeleted());
+        menu.setTenantId(source.getTenantId());
+        return menu;
+    }
+}
@@ -0,0 +1,76 @@
+package top.flobby.admin.system.application;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.ReplicatedSnapshot;
+import top.flobby.admin.common.utils.TransactionUtils;
+import top.flobby.admin.system.domain.repository.MenuRepository;
+
+/**
+ * 菜单快照服务
+ * <p>
+ * 在本地内存中维护当前版本的 {@link MenuSnapshot}，路由构建与权限展开直接读取快照，不再查询菜单表。
+ * 菜单新增、修改、删除、状态变更提交后递增 Redis 中的菜单版本号并广播，各节点在下次读取时重新加载
+ * <p>
+ * 另外每隔 {@code cache.menu-snapshot.refresh-seconds} 秒从 Redis 兜底同步一次版本号，防止漏收消息
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshotService {
+
+    private final MenuRepository menuRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String VERSION_KEY = "admin:menu:version";
+
+    @Value("${cache.menu-snapshot.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    private ReplicatedSnapshot<MenuSnapshot> snapshot;
+
+    @PostConstruct
+    public void init() {
+        snapshot = new ReplicatedSnapshot<>(VERSION_KEY, redisTemplate, listenerContainer, refreshSeconds,
+                this::load);
+    }
+
+    /**
+     * 获取当前菜单快照
+     *
+     * @return 菜单快照
+     */
+    public MenuSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * 从 Redis 读取最新菜单版本号
+     * <p>
+     * 用于菜单相关接口的 ETag，避免本地版本号滞后时把旧 ETag 当作有效
+     *
+     * @return 最新菜单版本号
+     */
+    public long latestVersion() {
+        return snapshot.latestVersion();
+    }
+
+    /**
+     * 递增菜单版本号并广播（事务提交后执行）
+     */
+    public void refresh() {
+        TransactionUtils.afterCommit(snapshot::invalidate);
+    }
+
+    private MenuSnapshot load(long version) {
+        MenuSnapshot loaded = MenuSnapshot.of(version, menuRepository.findAll());
+        log.debug("加载菜单快照: version={}, size={}", version, loaded.getMenus().size());
+        return loaded;
+    }
+}
@@ -1,20 +1,50 @@
 package top.flobby.admin.system.application;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
-import top.flobby.admin.system.domain.entity.Menu;
+import top.flobby.admin.common.utils.SingleFlightLoader;
+import top.flobby.admin.common.utils.TransactionUtils;
 import top.flobby.admin.system.domain.entity.Role;
-import top.flobby.admin.system.domain.repository.MenuRepository;
 import top.flobby.admin.system.domain.repository.RoleRepository;
+import top.flobby.admin.system.domain.repository.UserRoleRepository;
+import top.flobby.admin.system.infrastructure.repository.JpaRoleMenuRepository;
+import top.flobby.admin.system.infrastructure.security.PermissionRegistry;
+import top.flobby.admin.system.infrastructure.security.PermissionSnapshot;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 权限缓存服务
+ * <p>
+ * 用户权限按角色组合共享: Redis 中每个用户只保存指向角色组合的指针（排序后的启用角色ID），
+ * 权限集合按角色组合保存一份；进程内每个角色组合构建一个不可变的 {@link PermissionSnapshot} 位图，
+ * 用户条目引用共享快照，权限判断只做位运算
+ * <p>
+ * 两级缓存: 进程内 L1（Caffeine，有界）在前，Redis（L2）在后。
+ * 清除缓存时删除 Redis 并在 admin:permission:invalidate 频道广播，各节点收到后清除 L1；
+ * L1 另设较短的写入过期时间，兜底可能丢失的广播
+ * <p>
+ * 两级都未命中时经 {@link SingleFlightLoader} 合并回源，空结果以空值标记短期缓存
+ * <p>
+ * 命中率指标: permission.cache.requests{level="l1|l2", result="hit|miss"}
  */
 @Slf4j
 @Service
@@ -23,93 +53,316 @@ public class PermissionCacheService {
 
     private final StringRedisTemplate redisTemplate;
     private final RoleRepository roleRepository;
-    private final MenuRepository menuRepository;
+    private final JpaRoleMenuRepository roleMenuRepository;
+    private final MenuSnapshotService menuSnapshotService;
+    private final UserRoleRepository userRoleRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlightLoader singleFlightLoader;
+    private final PermissionRegistry permissionRegistry;
 
-    private static final String PERMISSION_CACHE_PREFIX = "admin:permission:user:";
+    /**
+     * 用户 → 角色组合指针
+     */
+    private static final String USER_ROLE_SET_PREFIX = "admin:permission:user-roleset:";
+
+    /**
+     * 角色组合 → 权限集合
+     */
+    private static final String ROLE_SET_PREFIX = "admin:permission:roleset:";
+
+    /**
+     * 角色 → 包含该角色的角色组合键（Redis Set），写入角色组合权限集合前登记，
+     * 清除角色缓存时只删除登记的角色组合，不扫描整个键空间
+     */
+    private static final String ROLE_ROLE_SET_PREFIX = "admin:permission:role-roleset:";
     private static final String ROLE_CACHE_PREFIX = "admin:role:user:";
     private static final long CACHE_EXPIRE_HOURS = 2;
 
+    private static final String INVALIDATE_CHANNEL = "admin:permission:invalidate";
+
+    /**
+     * 广播消息: 清除全部 L1
+     */
+    private static final String INVALIDATE_ALL = "*";
+
+    /**
+     * 广播消息前缀: 清除包含该角色的角色组合快照
+     */
+    private static final String INVALIDATE_ROLE_PREFIX = "role:";
+
+    private static final int UNLINK_BATCH_SIZE = 500;
+
+    /**
+     * 空集合标记，Redis 不能保存空 Set
+     */
+    private static final String EMPTY_MARKER = "__EMPTY__";
+
+    @Value("${cache.negative-ttl-seconds:300}")
+    private long negativeTtlSeconds;
+
+    @Value("${security.permission-cache.l1-max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${security.permission-cache.l1-ttl-seconds:60}")
+    private long l1TtlSeconds;
+
+    @Value("${security.permission-cache.role-set-max-size:1000}")
+    private long roleSetMaxSize;
+
+    /**
+     * L1 缓存，键为 Redis 键
+     */
+    private Cache<String, Set<String>> localCache;
+
+    /**
+     * L1 用户权限快照，值为共享的角色组合快照
+     */
+    private Cache<Long, PermissionSnapshot> userSnapshots;
+
+    /**
+     * 角色组合快照，键为角色组合键
+     */
+    private Cache<String, PermissionSnapshot> roleSetSnapshots;
+
+    /**
+     * 失效序号，每次清除 L1 递增。回源前记录序号，写回 L1 时序号已变化则放弃写入，
+     * 避免失效前读到的旧值在失效后写回
+     */
+    private final AtomicLong invalidationSeq = new AtomicLong();
+
+    /**
+     * 角色权限版本，清除角色组合快照（角色或全部失效）时递增，用户级失效不影响。
+     * 按角色组合缓存的派生数据（如路由树）记录构建时的版本，版本变化即重建
+     */
+    private final AtomicLong roleVersion = new AtomicLong();
+
+    private Counter l1Hit;
+    private Counter l1Miss;
+    private Counter l2Hit;
+    private Counter l2Miss;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1TtlSeconds, TimeUnit.SECONDS)
+                .build();
+        userSnapshots = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1TtlSeconds, TimeUnit.SECONDS)
+                .build();
+        roleSetSnapshots = Caffeine.newBuilder()
+                .maximumSize(roleSetMaxSize)
+                .expireAfterWrite(l1TtlSeconds, TimeUnit.SECONDS)
+                .build();
+        l1Hit = requestCounter("l1", "hit");
+        l1Miss = requestCounter("l1", "miss");
+        l2Hit = requestCounter("l2", "hit");
+        l2Miss = requestCounter("l2", "miss");
+        listenerContainer.addMessageListener((message, pattern) ->
+                        invalidateLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
     /**
      * 获取用户权限列表（带缓存）
      */
     public Set<String> getUserPermissions(Long userId) {
-        String cacheKey = PERMISSION_CACHE_PREFIX + userId;
+        return getUserPermissionSnapshot(userId).getPermissions();
+    }
 
-        // 尝试从缓存获取
-        Set<String> cachedPermissions = redisTemplate.opsForSet().members(cacheKey);
-        if (cachedPermissions != null && !cachedPermissions.isEmpty()) {
-            return cachedPermissions;
+    /**
+     * 获取用户权限快照（带缓存）
+     * <p>
+     * 按 L1 用户快照 → 角色组合指针 → 角色组合快照 → Redis 权限集合 → 数据库的顺序读取
+     */
+    public PermissionSnapshot getUserPermissionSnapshot(Long userId) {
+        PermissionSnapshot local = userSnapshots.getIfPresent(userId);
+        if (local != null) {
+            l1Hit.increment();
+            return local;
         }
+        l1Miss.increment();
 
-        // 从数据库加载
-        Set<String> permissions = loadUserPermissions(userId);
+        long seq = invalidationSeq.get();
+        PermissionSnapshot snapshot = getRoleSetSnapshot(getUserRoleSetKey(userId), seq);
+        if (invalidationSeq.get() == seq) {
+            userSnapshots.put(userId, snapshot);
+        }
+        return snapshot;
+    }
 
-        // 写入缓存
-        if (!permissions.isEmpty()) {
-            redisTemplate.opsForSet().add(cacheKey, permissions.toArray(new String[0]));
-            redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+    /**
+     * 获取用户的角色组合键
+     *
+     * @return 排序后的启用角色ID，逗号分隔；没有启用角色时为空字符串
+     */
+    private String getUserRoleSetKey(Long userId) {
+        String pointerKey = USER_ROLE_SET_PREFIX + userId;
+        String cached = redisTemplate.opsForValue().get(pointerKey);
+        if (cached != null) {
+            return cached;
         }
 
-        return permissions;
+        String roleSetKey = roleRepository.findByUserId(userId).stream()
+                .filter(Role::isEnabled)
+                .map(Role::getId)
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        redisTemplate.opsForValue().set(pointerKey, roleSetKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        return roleSetKey;
     }
 
     /**
-     * 获取用户角色编码列表（带缓存）
+     * 获取角色组合的权限快照，同一角色组合在本节点只保留一个实例
      */
-    public Set<String> getUserRoleCodes(Long userId) {
-        String cacheKey = ROLE_CACHE_PREFIX + userId;
+    private PermissionSnapshot getRoleSetSnapshot(String roleSetKey, long seq) {
+        if (roleSetKey.isEmpty()) {
+            return PermissionSnapshot.EMPTY;
+        }
+        PermissionSnapshot interned = roleSetSnapshots.getIfPresent(roleSetKey);
+        if (interned != null) {
+            return interned;
+        }
 
-        // 尝试从缓存获取
-        Set<String> cachedRoles = redisTemplate.opsForSet().members(cacheKey);
-        if (cachedRoles != null && !cachedRoles.isEmpty()) {
-            return cachedRoles;
+        String cacheKey = ROLE_SET_PREFIX + roleSetKey;
+        Set<String> permissions = readRedisSet(cacheKey);
+        if (permissions != null) {
+            l2Hit.increment();
+        } else {
+            l2Miss.increment();
+            // 从数据库加载，同一角色组合的并发未命中合并为一次回源
+            permissions = singleFlightLoader.load(cacheKey,
+                    () -> readRedisSet(cacheKey),
+                    () -> {
+                        indexRoleSet(roleSetKey);
+                        return loadAndStore(cacheKey, () -> loadRoleSetPermissions(roleSetKey));
+                    });
         }
 
-        // 从数据库加载
-        List<Role> roles = roleRepository.findByUserId(userId);
-        Set<String> roleCodes = roles.stream()
+        PermissionSnapshot snapshot = PermissionSnapshot.of(roleSetKey, permissions, permissionRegistry);
+        if (invalidationSeq.get() != seq) {
+            return snapshot;
+        }
+        PermissionSnapshot existing = roleSetSnapshots.asMap().putIfAbsent(roleSetKey, snapshot);
+        return existing != null ? existing : snapshot;
+    }
+
+    /**
+     * 获取用户角色编码列表（带缓存）
+     */
+    public Set<String> getUserRoleCodes(Long userId) {
+        return getCachedSet(ROLE_CACHE_PREFIX + userId, () -> roleRepository.findByUserId(userId).stream()
                 .filter(Role::isEnabled)
                 .map(Role::getRoleCode)
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()));
+    }
 
-        // 写入缓存
-        if (!roleCodes.isEmpty()) {
-            redisTemplate.opsForSet().add(cacheKey, roleCodes.toArray(new String[0]));
-            redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+    /**
+     * 按 L1 → Redis → 数据库的顺序读取集合
+     *
+     * @param cacheKey Redis 键，同时作为 L1 键
+     * @param loader   数据库加载逻辑
+     * @return 集合
+     */
+    private Set<String> getCachedSet(String cacheKey, Supplier<Set<String>> loader) {
+        Set<String> local = localCache.getIfPresent(cacheKey);
+        if (local != null) {
+            l1Hit.increment();
+            return local;
+        }
+        l1Miss.increment();
+
+        long seq = invalidationSeq.get();
+
+        // 尝试从 Redis 获取
+        Set<String> cached = readRedisSet(cacheKey);
+        if (cached != null) {
+            l2Hit.increment();
+            return putLocal(cacheKey, cached, seq);
         }
+        l2Miss.increment();
 
-        return roleCodes;
+        // 从数据库加载，同一键的并发未命中合并为一次回源
+        Set<String> values = singleFlightLoader.load(cacheKey,
+                () -> readRedisSet(cacheKey),
+                () -> loadAndStore(cacheKey, loader));
+        return putLocal(cacheKey, values, seq);
     }
 
     /**
-     * 从数据库加载用户权限
+     * 读取 Redis 集合
+     *
+     * @return 集合；仅含空值标记时返回空集合，键不存在时返回 null
      */
-    private Set<String> loadUserPermissions(Long userId) {
-        // 获取用户角色
-        List<Role> roles = roleRepository.findByUserId(userId);
-        if (roles.isEmpty()) {
+    private Set<String> readRedisSet(String cacheKey) {
+        Set<String> members = redisTemplate.opsForSet().members(cacheKey);
+        if (members == null || members.isEmpty()) {
+            return null;
+        }
+        if (members.contains(EMPTY_MARKER)) {
             return Collections.emptySet();
         }
+        return members;
+    }
 
-        // 过滤启用的角色
-        List<Long> enabledRoleIds = roles.stream()
-                .filter(Role::isEnabled)
-                .map(Role::getId)
-                .collect(Collectors.toList());
+    /**
+     * 从数据库加载并写入 Redis
+     * <p>
+     * 空结果写入空值标记并使用较短的过期时间，避免没有权限的用户每次都穿透到数据库
+     */
+    private Set<String> loadAndStore(String cacheKey, Supplier<Set<String>> loader) {
+        Set<String> values = loader.get();
+        if (values.isEmpty()) {
+            redisTemplate.opsForSet().add(cacheKey, EMPTY_MARKER);
+            redisTemplate.expire(cacheKey, negativeTtlSeconds, TimeUnit.SECONDS);
+        } else {
+            redisTemplate.opsForSet().add(cacheKey, values.toArray(new String[0]));
+            redisTemplate.expire(cacheKey, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
+        }
+        return values;
+    }
 
-        if (enabledRoleIds.isEmpty()) {
-            return Collections.emptySet();
+    /**
+     * 在每个角色的索引中登记角色组合
+     * <p>
+     * 先于角色组合权限集合写入，保证存在的权限集合都能经索引找到；索引过期时间每次写入时续期，
+     * 不短于其登记的权限集合
+     */
+    private void indexRoleSet(String roleSetKey) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] member = roleSetKey.getBytes(StandardCharsets.UTF_8);
+            for (String roleId : roleSetKey.split(",")) {
+                byte[] indexKey = (ROLE_ROLE_SET_PREFIX + roleId).getBytes(StandardCharsets.UTF_8);
+                connection.setCommands().sAdd(indexKey, member);
+                connection.keyCommands().expire(indexKey, TimeUnit.HOURS.toSeconds(CACHE_EXPIRE_HOURS));
+            }
+            return null;
+        });
+    }
+
+    private Set<String> putLocal(String cacheKey, Set<String> values, long seq) {
+        Set<String> immutable = Set.copyOf(values);
+        if (invalidationSeq.get() == seq) {
+            localCache.put(cacheKey, immutable);
         }
+        return immutable;
+    }
 
-        // 获取角色对应的菜单
-        List<Menu> menus = menuRepository.findByRoleIds(enabledRoleIds);
+    /**
+     * 加载角色组合的权限
+     * <p>
+     * 只查询角色菜单关联表，菜单的状态与权限标识取自本地菜单快照
+     */
+    private Set<String> loadRoleSetPermissions(String roleSetKey) {
+        List<Long> roleIds = Arrays.stream(roleSetKey.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
 
-        // 提取权限标识
-        return menus.stream()
-                .map(Menu::getPermission)
-                .filter(Objects::nonNull)
-                .filter(p -> !p.isEmpty())
-                .collect(Collectors.toSet());
+        Set<Long> menuIds = roleMenuRepository.findMenuIdsByRoleIds(roleIds);
+        return menuSnapshotService.current().permissionsOf(menuIds);
     }
 
     /**
@@ -125,55 +378,215 @@ public class PermissionCacheService {
     }
 
     /**
-     * 清除用户权限缓存
+     * 获取角色权限版本
+     * <p>
+     * 只在角色菜单关联、角色状态或菜单权限标识变更时前进，与 L1 过期无关
+     *
+     * @return 当前版本
+     */
+    public long getRoleVersion() {
+        return roleVersion.get();
+    }
+
+    /**
+     * 清除用户权限缓存（事务提交后执行）
      */
     public void clearUserCache(Long userId) {
-        redisTemplate.delete(PERMISSION_CACHE_PREFIX + userId);
-        redisTemplate.delete(ROLE_CACHE_PREFIX + userId);
-        log.info("清除用户权限缓存: userId={}", userId);
+        TransactionUtils.afterCommit(() -> {
+            unlink(List.of(USER_ROLE_SET_PREFIX + userId, ROLE_CACHE_PREFIX + userId));
+            publishInvalidation(String.valueOf(userId));
+            log.info("清除用户权限缓存: userId={}", userId);
+        });
     }
 
     /**
-     * 清除角色相关用户的权限缓存
+     * 清除角色相关用户的权限缓存（事务提交后执行）
+     * <p>
+     * 按角色索引清除包含该角色的角色组合权限集合（只访问登记的键，与 Redis 键总数无关）；
+     * 并通过 sys_user_role 反查拥有该角色的用户，只清除这些用户的角色组合指针（角色状态变化会改变用户的角色组合）
      */
     public void clearRoleUsersCache(Long roleId) {
-        // 这里需要查询拥有该角色的所有用户，然后清除他们的缓存
-        // 简化实现：清除所有权限缓存
-        Set<String> permissionKeys = redisTemplate.keys(PERMISSION_CACHE_PREFIX + "*");
-        Set<String> roleKeys = redisTemplate.keys(ROLE_CACHE_PREFIX + "*");
+        // 在当前事务内查询，提交后再删除缓存
+        List<Long> userIds = userRoleRepository.findUserIdsByRoleId(roleId);
+        String role = String.valueOf(roleId);
+
+        TransactionUtils.afterCommit(() -> {
+            // 索引保留：并发加载可能刚登记完、稍后才写入权限集合，删除索引会使该集合无法再被找到；
+            // 指向已删除集合的成员无害，随索引过期清除
+            Set<String> roleSetKeys = redisTemplate.opsForSet().members(ROLE_ROLE_SET_PREFIX + role);
+            List<String> roleSetCacheKeys = roleSetKeys == null ? List.of() : roleSetKeys.stream()
+                    .map(roleSetKey -> ROLE_SET_PREFIX + roleSetKey)
+                    .toList();
+            long roleSetCount = roleSetCacheKeys.size();
+            unlink(roleSetCacheKeys);
+            // 先清除角色组合快照，再清除用户快照，避免用户重新加载时取到旧快照
+            publishInvalidation(INVALIDATE_ROLE_PREFIX + role);
+
+            if (!userIds.isEmpty()) {
+                List<String> keys = new ArrayList<>(userIds.size() * 2);
+                for (Long userId : userIds) {
+                    keys.add(USER_ROLE_SET_PREFIX + userId);
+                    keys.add(ROLE_CACHE_PREFIX + userId);
+                }
+                unlink(keys);
+                publishInvalidation(userIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            }
 
-        if (permissionKeys != null && !permissionKeys.isEmpty()) {
-            redisTemplate.delete(permissionKeys);
+            log.info("清除角色相关权限缓存: roleId={}, roleSetCount={}, userCount={}",
+                    roleId, roleSetCount, userIds.size());
+        });
+    }
+
+    /**
+     * 清除所有用户的权限缓存（事务提交后执行）
+     * <p>
+     * 用于菜单权限标识变更等影响所有用户的场景，使用 SCAN 增量遍历，不阻塞 Redis
+     */
+    public void clearAllCache() {
+        TransactionUtils.afterCommit(() -> {
+            long count = scanAndUnlink(ROLE_SET_PREFIX + "*")
+                    + scanAndUnlink(ROLE_ROLE_SET_PREFIX + "*")
+                    + scanAndUnlink(USER_ROLE_SET_PREFIX + "*")
+                    + scanAndUnlink(ROLE_CACHE_PREFIX + "*");
+            publishInvalidation(INVALIDATE_ALL);
+            log.info("清除所有用户权限缓存: keyCount={}", count);
+        });
+    }
+
+    /**
+     * SCAN 匹配的键并分批 UNLINK
+     * <p>
+     * SCAN 遍历整个键空间，只用于清除全部缓存
+     *
+     * @param pattern 键模式
+     * @return 删除的键数量
+     */
+    private long scanAndUnlink(String pattern) {
+        long count = 0;
+        List<String> batch = new ArrayList<>(UNLINK_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(UNLINK_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= UNLINK_BATCH_SIZE) {
+                    count += batch.size();
+                    unlink(batch);
+                    batch = new ArrayList<>(UNLINK_BATCH_SIZE);
+                }
+            }
         }
-        if (roleKeys != null && !roleKeys.isEmpty()) {
-            redisTemplate.delete(roleKeys);
+        count += batch.size();
+        unlink(batch);
+        return count;
+    }
+
+    /**
+     * 分批 UNLINK，多个批次通过管道一次发送
+     * <p>
+     * UNLINK 在后台线程回收内存，不阻塞 Redis 主线程
+     */
+    private void unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
         }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < keys.size(); from += UNLINK_BATCH_SIZE) {
+                byte[][] rawKeys = keys.subList(from, Math.min(from + UNLINK_BATCH_SIZE, keys.size())).stream()
+                        .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new);
+                connection.keyCommands().unlink(rawKeys);
+            }
+            return null;
+        });
+    }
 
-        log.info("清除角色相关用户权限缓存: roleId={}", roleId);
+    /**
+     * 清除本节点 L1 并广播到其他节点
+     */
+    private void publishInvalidation(String message) {
+        invalidateLocal(message);
+        redisTemplate.convertAndSend(INVALIDATE_CHANNEL, message);
+    }
+
+    /**
+     * 清除本节点 L1
+     *
+     * @param message 逗号分隔的用户ID，{@link #INVALIDATE_ROLE_PREFIX} 加角色ID表示该角色的角色组合，
+     *                或 {@link #INVALIDATE_ALL} 表示全部
+     */
+    private void invalidateLocal(String message) {
+        invalidationSeq.incrementAndGet();
+        if (INVALIDATE_ALL.equals(message)) {
+            roleVersion.incrementAndGet();
+            localCache.invalidateAll();
+            userSnapshots.invalidateAll();
+            roleSetSnapshots.invalidateAll();
+            return;
+        }
+        if (message.startsWith(INVALIDATE_ROLE_PREFIX)) {
+            String roleId = message.substring(INVALIDATE_ROLE_PREFIX.length());
+            roleVersion.incrementAndGet();
+            roleSetSnapshots.asMap().keySet().removeIf(roleSetKey -> containsRole(roleSetKey, roleId));
+            return;
+        }
+        for (String userId : message.split(",")) {
+            userSnapshots.invalidate(Long.valueOf(userId));
+            localCache.invalidate(ROLE_CACHE_PREFIX + userId);
+        }
+    }
+
+    /**
+     * 角色组合是否包含指定角色
+     */
+    private static boolean containsRole(String roleSetKey, String roleId) {
+        for (String id : roleSetKey.split(",")) {
+            if (id.equals(roleId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter requestCounter(String level, String result) {
+        return Counter.builder("permission.cache.requests")
+                .description("权限缓存请求次数")
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     /**
      * 检查用户是否有指定权限
      */
     public boolean hasPermission(Long userId, String permission) {
-        Set<String> permissions = getUserPermissions(userId);
-        return permissions.contains(permission);
+        PermissionSnapshot snapshot = getUserPermissionSnapshot(userId);
+        return snapshot.has(permissionRegistry.idOf(permission));
     }
 
     /**
      * 检查用户是否有任一权限
      */
     public boolean hasAnyPermission(Long userId, String... permissions) {
-        Set<String> userPermissions = getUserPermissions(userId);
-        return Arrays.stream(permissions).anyMatch(userPermissions::contains);
+        PermissionSnapshot snapshot = getUserPermissionSnapshot(userId);
+        for (String permission : permissions) {
+            if (snapshot.has(permissionRegistry.idOf(permission))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * 检查用户是否有所有权限
      */
     public boolean hasAllPermissions(Long userId, String... permissions) {
-        Set<String> userPermissions = getUserPermissions(userId);
-        return Arrays.stream(permissions).allMatch(userPermissions::contains);
+        PermissionSnapshot snapshot = getUserPermissionSnapshot(userId);
+        for (String permission : permissions) {
+            if (!snapshot.has(permissionRegistry.idOf(permission))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -0,0 +1,233 @@
+package top.flobby.admin.system.application;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 权限纪元服务
+ * <p>
+ * 无状态 Token 在签发时记录当前纪元，权限相关数据变更时纪元递增，
+ * 纪元落后于当前值的 Token 被拒绝，客户端需重新获取 Token
+ * <p>
+ * 纪元保存在本地内存中，请求路径上不访问 Redis：变更通过 Pub/Sub 广播，
+ * 另外由定时任务每隔 {@code jwt.stateless.epoch-refresh-seconds} 秒从 Redis 兜底同步一次，防止漏收消息
+ * <p>
+ * 单个用户的权限变更不推进全局纪元，只记录该用户的变更时间（admin:permission:epoch:user:{username}，
+ * TTL 为访问 Token 有效期），该用户在此之前签发的 Token 被拒绝，其他用户不受影响
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionEpochService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String EPOCH_KEY = "admin:permission:epoch";
+    private static final String EPOCH_CHANNEL = "admin:permission:epoch:channel";
+    private static final String USER_EPOCH_PREFIX = "admin:permission:epoch:user:";
+
+    /**
+     * 用户级变更消息前缀，消息格式: u:{username}:{变更时间戳}
+     */
+    private static final String USER_MESSAGE_PREFIX = "u:";
+
+    /**
+     * 同步用户级变更时每次 MGET 的键数
+     */
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    @Value("${jwt.expiration}")
+    private long accessExpiration;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * 用户名 → 权限变更时间（毫秒）
+     */
+    private final Map<String, Long> userChangedAt = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                if (body.startsWith(USER_MESSAGE_PREFIX)) {
+                    int separator = body.lastIndexOf(':');
+                    markUserChanged(body.substring(USER_MESSAGE_PREFIX.length(), separator),
+                            Long.parseLong(body.substring(separator + 1)));
+                } else {
+                    advanceTo(Long.parseLong(body));
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                log.warn("忽略无法识别的权限纪元消息: {}", body);
+            }
+        }, new ChannelTopic(EPOCH_CHANNEL));
+    }
+
+    /**
+     * 获取当前纪元（本地值），不访问 Redis
+     *
+     * @return 当前纪元
+     */
+    public long currentEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * 定时从 Redis 兜底同步全局纪元和用户级变更，不在请求线程中执行
+     * <p>
+     * 未开启无状态模式时纪元不参与认证，跳过同步
+     */
+    @Scheduled(fixedDelayString = "${jwt.stateless.epoch-refresh-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        if (!statelessEnabled) {
+            return;
+        }
+        sync();
+        syncUsers();
+    }
+
+    /**
+     * 从 Redis 读取最新纪元
+     * <p>
+     * 用于签发 Token，避免本地值滞后导致新 Token 在其他节点被拒绝
+     *
+     * @return 最新纪元
+     */
+    public long latestEpoch() {
+        sync();
+        return epoch.get();
+    }
+
+    /**
+     * 递增纪元并广播
+     * <p>
+     * 调用方负责在事务提交后调用
+     */
+    public void bump() {
+        Long next = redisTemplate.opsForValue().increment(EPOCH_KEY);
+        if (next == null) {
+            return;
+        }
+        advanceTo(next);
+        redisTemplate.convertAndSend(EPOCH_CHANNEL, String.valueOf(next));
+        log.info("权限纪元递增: epoch={}", next);
+    }
+
+    /**
+     * 记录用户权限变更并广播，不推进全局纪元
+     * <p>
+     * 调用方负责在事务提交后调用
+     *
+     * @param usernames 用户名集合
+     */
+    public void bumpUsers(Collection<String> usernames) {
+        long now = System.currentTimeMillis();
+        for (String username : usernames) {
+            redisTemplate.opsForValue().set(USER_EPOCH_PREFIX + username, String.valueOf(now),
+                    accessExpiration, TimeUnit.MILLISECONDS);
+            markUserChanged(username, now);
+            redisTemplate.convertAndSend(EPOCH_CHANNEL, USER_MESSAGE_PREFIX + username + ":" + now);
+        }
+        log.debug("用户权限纪元递增: count={}", usernames.size());
+    }
+
+    /**
+     * 判断 Token 是否签发于用户最近一次权限变更之前（只查本地）
+     *
+     * @param username 用户名
+     * @param issuedAt Token 签发时间
+     * @return true 表示需重新获取 Token
+     */
+    public boolean isUserStale(String username, Date issuedAt) {
+        Long changedAt = userChangedAt.get(username);
+        // iat 精度为秒，同一秒内签发的 Token 视为变更前签发
+        return changedAt != null && issuedAt != null && issuedAt.getTime() <= changedAt;
+    }
+
+    /**
+     * 从 Redis 同步用户级变更，弥补漏收的消息，并清理已超过访问 Token 有效期的本地记录
+     * <p>
+     * 扫描到的键按 {@link #SYNC_BATCH_SIZE} 个一批 MGET，不逐个 GET
+     */
+    private void syncUsers() {
+        userChangedAt.values().removeIf(changedAt -> changedAt < System.currentTimeMillis() - accessExpiration);
+        ScanOptions options = ScanOptions.scanOptions().match(USER_EPOCH_PREFIX + "*").count(1000).build();
+        List<String> keys = new ArrayList<>(SYNC_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() >= SYNC_BATCH_SIZE) {
+                    syncUserBatch(keys);
+                    keys.clear();
+                }
+            }
+            if (!keys.isEmpty()) {
+                syncUserBatch(keys);
+            }
+        } catch (Exception e) {
+            log.warn("同步用户权限纪元失败: {}", e.getMessage());
+        }
+    }
+
+    private void syncUserBatch(List<String> keys) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            // 扫描与读取之间过期的键返回 null
+            if (value != null) {
+                markUserChanged(keys.get(i).substring(USER_EPOCH_PREFIX.length()), Long.parseLong(value));
+            }
+        }
+    }
+
+    private void markUserChanged(String username, long changedAt) {
+        userChangedAt.merge(username, changedAt, Math::max);
+    }
+
+    /**
+     * 从 Redis 同步纪元
+     */
+    private void sync() {
+        try {
+            String value = redisTemplate.opsForValue().get(EPOCH_KEY);
+            advanceTo(value != null ? Long.parseLong(value) : 0L);
+        } catch (Exception e) {
+            // Redis 不可用时保留本地值，下个周期重试
+            log.warn("同步权限纪元失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 纪元只增不减，乱序到达的旧消息被忽略
+     */
+    private void advanceTo(long value) {
+        epoch.accumulateAndGet(value, Math::max);
+    }
+}
@@ -0,0 +1,122 @@
+package top.flobby.admin.system.application;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.JwtUtils;
+import top.flobby.admin.common.utils.VerifiedToken;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新 Token 服务
+ * <p>
+ * 每次登录创建一个刷新 Token 家族，Redis 中 admin:token:refresh:{familyId} 只记录当前有效的刷新 Token ID。
+ * 刷新时通过 Lua 脚本原子地比较并轮换：
+ * <ul>
+ *     <li>与记录一致：写入新的 Token ID，旧刷新 Token 立即失效（一次性使用）</li>
+ *     <li>与记录不一致：说明旧刷新 Token 被重复使用（可能已泄露），删除整个家族，双方都需重新登录</li>
+ *     <li>记录不存在：家族已过期或已登出</li>
+ * </ul>
+ * 续期只需一次 HMAC 验签与一次 Redis 调用，不再经过 BCrypt
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final JwtUtils jwtUtils;
+
+    private static final String FAMILY_PREFIX = "admin:token:refresh:";
+
+    private static final long ROTATED = 1L;
+    private static final long REUSED = -1L;
+
+    /**
+     * KEYS[1] 家族键；ARGV[1] 出示的 Token ID，ARGV[2] 新 Token ID，ARGV[3] 过期毫秒数
+     */
+    private static final RedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if not current then
+                return 0
+            end
+            if current == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            redis.call('DEL', KEYS[1])
+            return -1
+            """, Long.class);
+
+    /**
+     * 创建新的刷新 Token 家族
+     *
+     * @param username 用户名
+     * @return 家族ID与首个刷新 Token
+     */
+    public IssuedRefreshToken create(String username) {
+        String familyId = UUID.randomUUID().toString();
+        String jti = UUID.randomUUID().toString();
+        redisTemplate.opsForValue().set(FAMILY_PREFIX + familyId, jti,
+                jwtUtils.getRefreshExpiration(), TimeUnit.MILLISECONDS);
+        return new IssuedRefreshToken(familyId, sign(username, familyId, jti));
+    }
+
+    /**
+     * 轮换刷新 Token
+     *
+     * @param refreshToken 已验签的刷新 Token
+     * @return 家族ID与新的刷新 Token
+     */
+    public IssuedRefreshToken rotate(VerifiedToken refreshToken) {
+        String familyId = refreshToken.getClaim(JwtUtils.CLAIM_FAMILY_ID, String.class);
+        if (familyId == null || refreshToken.getJti() == null) {
+            throw new BusinessException(401, "刷新令牌无效或已过期");
+        }
+
+        String nextJti = UUID.randomUUID().toString();
+        Long result = redisTemplate.execute(ROTATE_SCRIPT, List.of(FAMILY_PREFIX + familyId),
+                refreshToken.getJti(), nextJti, String.valueOf(jwtUtils.getRefreshExpiration()));
+
+        if (result != null && result == ROTATED) {
+            return new IssuedRefreshToken(familyId, sign(refreshToken.getUsername(), familyId, nextJti));
+        }
+        if (result != null && result == REUSED) {
+            log.warn("检测到刷新令牌重复使用，已吊销整个令牌家族: username={}, familyId={}",
+                    refreshToken.getUsername(), familyId);
+        }
+        throw new BusinessException(401, "刷新令牌无效或已过期");
+    }
+
+    /**
+     * 吊销刷新 Token 家族（登出）
+     *
+     * @param familyId 家族ID
+     */
+    public void revokeFamily(String familyId) {
+        redisTemplate.delete(FAMILY_PREFIX + familyId);
+    }
+
+    private String sign(String username, String familyId, String jti) {
+        return jwtUtils.generateRefreshToken(username,
+                Map.of(JwtUtils.CLAIM_FAMILY_ID, familyId, Claims.ID, jti));
+    }
+
+    /**
+     * 签发结果
+     *
+     * @param familyId     家族ID
+     * @param refreshToken 刷新 Token
+     */
+    public record IssuedRefreshToken(String familyId, String refreshToken) {
+    }
+}
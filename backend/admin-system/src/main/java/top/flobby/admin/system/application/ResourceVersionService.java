@@ -0,0 +1,80 @@
+package top.flobby.admin.system.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.TransactionUtils;
+
+import java.util.List;
+
+/**
+ * 资源版本号服务
+ * <p>
+ * 为部门树、字典数据等读多写少的资源维护 Redis 中的版本号，数据变更提交后递增，
+ * 读接口以版本号作为 ETag，客户端携带的版本未变化时返回 304
+ * <p>
+ * 版本号键不设置过期时间，避免过期后版本回退导致客户端的旧 ETag 重新命中。
+ * 版本号以当前毫秒时间戳为下限：键丢失（FLUSH、无持久化的主从切换）后从当前时间重新开始，
+ * 不会回到旧值，旧 ETag 不会匹配到不同的内容
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private static final String VERSION_PREFIX = "admin:version:";
+
+    /**
+     * 读取版本号，不存在时以当前时间初始化
+     */
+    private static final RedisScript<Long> CURRENT_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+                return tonumber(current)
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'NX')
+            return tonumber(redis.call('GET', KEYS[1]))
+            """, Long.class);
+
+    /**
+     * 递增版本号，结果不小于当前时间
+     */
+    private static final RedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('GET', KEYS[1]))
+            if current and current >= tonumber(ARGV[1]) then
+                return redis.call('INCR', KEYS[1])
+            end
+            redis.call('SET', KEYS[1], ARGV[1])
+            return tonumber(ARGV[1])
+            """, Long.class);
+
+    /**
+     * 获取资源当前版本号
+     *
+     * @param resource 资源名
+     * @return 版本号
+     */
+    public long current(String resource) {
+        Long version = redisTemplate.execute(CURRENT_SCRIPT, List.of(VERSION_PREFIX + resource),
+                String.valueOf(System.currentTimeMillis()));
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * 递增资源版本号（事务提交后执行）
+     *
+     * @param resource 资源名
+     */
+    public void bump(String resource) {
+        TransactionUtils.afterCommit(() -> {
+            Long version = redisTemplate.execute(BUMP_SCRIPT, List.of(VERSION_PREFIX + resource),
+                    String.valueOf(System.currentTimeMillis()));
+            log.debug("递增资源版本号: resource={}, version={}", resource, version);
+        });
+    }
+}
@@ -5,11 +5,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.TreeBuilder;
 import top.flobby.admin.system.domain.entity.Menu;
 import top.flobby.admin.system.domain.entity.Role;
 import top.flobby.admin.system.domain.entity.RoleMenu;
+import top.flobby.admin.system.domain.entity.User;
 import top.flobby.admin.system.domain.repository.MenuRepository;
 import top.flobby.admin.system.domain.repository.RoleRepository;
+import top.flobby.admin.system.domain.repository.UserRepository;
 import top.flobby.admin.system.infrastructure.repository.JpaRoleMenuRepository;
 import top.flobby.admin.system.infrastructure.repository.JpaUserRoleRepository;
 import top.flobby.admin.system.interfaces.dto.RoleDTO;
@@ -32,6 +35,14 @@ public class RoleService {
     private final JpaRoleMenuRepository jpaRoleMenuRepository;
     private final JpaUserRoleRepository jpaUserRoleRepository;
     private final PermissionCacheService permissionCacheService;
+    private final SecurityVersionService securityVersionService;
+    private final UserRepository userRepository;
+
+    /**
+     * 菜单树构建器，同级按 sortOrder 排序
+     */
+    private static final TreeBuilder<Menu, Long> MENU_TREE = TreeBuilder.<Menu, Long>of(Menu::getId, Menu::getParentId)
+            .sortedBy(Comparator.comparing(Menu::getSortOrder, Comparator.nullsLast(Integer::compareTo)));
 
     /**
      * 获取角色列表
@@ -124,6 +135,7 @@ public class RoleService {
 
         // 清除相关用户的权限缓存
         permissionCacheService.clearRoleUsersCache(dto.getId());
+        bumpRoleUsersVersion(dto.getId());
 
         log.info("更新角色成功: id={}", dto.getId());
     }
@@ -149,6 +161,7 @@ public class RoleService {
 
         // 清除相关用户的权限缓存
         permissionCacheService.clearRoleUsersCache(id);
+        bumpRoleUsersVersion(id);
 
         log.info("删除角色成功: id={}", id);
     }
@@ -166,6 +179,7 @@ public class RoleService {
 
         // 清除相关用户的权限缓存
         permissionCacheService.clearRoleUsersCache(id);
+        bumpRoleUsersVersion(id);
 
         log.info("修改角色状态成功: id={}, status={}", id, status);
     }
@@ -195,6 +209,16 @@ public class RoleService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 递增拥有该角色的用户的安全版本号
+     */
+    private void bumpRoleUsersVersion(Long roleId) {
+        List<String> usernames = userRepository.findByRoleId(roleId).stream()
+                .map(User::getUsername)
+                .collect(Collectors.toList());
+        securityVersionService.bumpUsers(usernames);
+    }
+
     /**
      * 保存角色菜单关联
      */
@@ -209,30 +233,20 @@ public class RoleService {
      * 构建菜单树
      */
     private List<MenuTreeVO> buildMenuTree(List<Menu> menus, Long parentId) {
-        return menus.stream()
-                .filter(m -> Objects.equals(m.getParentId(), parentId))
-                .sorted(Comparator.comparing(Menu::getSortOrder, Comparator.nullsLast(Integer::compareTo)))
-                .map(m -> {
-                    MenuTreeVO vo = MenuTreeVO.builder()
-                            .id(m.getId())
-                            .parentId(m.getParentId())
-                            .menuName(m.getMenuName())
-                            .menuType(m.getMenuType())
-                            .routePath(m.getRoutePath())
-                            .component(m.getComponent())
-                            .permission(m.getPermission())
-                            .icon(m.getIcon())
-                            .sortOrder(m.getSortOrder())
-                            .visible(m.getVisible())
-                            .status(m.getStatus())
-                            .children(buildMenuTree(menus, m.getId()))
-                            .build();
-                    if (vo.getChildren() != null && vo.getChildren().isEmpty()) {
-                        vo.setChildren(null);
-                    }
-                    return vo;
-                })
-                .collect(Collectors.toList());
+        return MENU_TREE.build(menus, parentId, (m, children) -> MenuTreeVO.builder()
+                .id(m.getId())
+                .parentId(m.getParentId())
+                .menuName(m.getMenuName())
+                .menuType(m.getMenuType())
+                .routePath(m.getRoutePath())
+                .component(m.getComponent())
+                .permission(m.getPermission())
+                .icon(m.getIcon())
+                .sortOrder(m.getSortOrder())
+                .visible(m.getVisible())
+                .status(m.getStatus())
+                .children(children.isEmpty() ? null : children)
+                .build());
     }
 
     /**
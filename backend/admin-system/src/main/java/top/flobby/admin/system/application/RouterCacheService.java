@@ -0,0 +1,113 @@
+package top.flobby.admin.system.application;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.system.infrastructure.security.PermissionSnapshot;
+import top.flobby.admin.system.interfaces.vo.RouterVO;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 路由缓存服务
+ * <p>
+ * 启用角色相同的用户得到的路由完全相同，因此路由树按角色组合缓存，同一角色组合的用户共享
+ * 一份路由树及其序列化后的 JSON，请求路由时只需查找缓存并输出已序列化的内容
+ * <p>
+ * 缓存条目以角色组合键为键，记录构建时的菜单快照版本和角色权限版本:
+ * <ul>
+ *     <li>菜单变更: 菜单快照版本前进，条目失效</li>
+ *     <li>角色菜单关联、角色状态变更: 权限缓存清除角色组合快照时角色权限版本前进，条目失效</li>
+ * </ul>
+ * 两个版本只随权限数据变化，权限快照的 L1 过期和重新加载不会使条目失效
+ * 命中率指标: cache.gets{cache="router", result="hit|miss"}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RouterCacheService {
+
+    private final PermissionCacheService permissionCacheService;
+    private final MenuSnapshotService menuSnapshotService;
+    private final MenuService menuService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.router-cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${security.router-cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    private Cache<String, CachedRouters> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "router");
+        log.info("路由缓存已初始化: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取用户路由的 JSON
+     * <p>
+     * 返回值作为响应数据时原样输出，不再序列化
+     *
+     * @param userId 用户ID
+     * @return 已序列化的路由列表
+     */
+    public RawValue getUserRoutersJson(Long userId) {
+        return get(userId).json();
+    }
+
+    private CachedRouters get(Long userId) {
+        PermissionSnapshot roleSet = permissionCacheService.getUserPermissionSnapshot(userId);
+        // 先取版本再构建，构建期间版本前进时条目带旧版本，下次请求即重建
+        long roleVersion = permissionCacheService.getRoleVersion();
+        MenuSnapshot menus = menuSnapshotService.current();
+        CachedRouters cached = cache.getIfPresent(roleSet.getRoleSetKey());
+        if (cached != null && cached.roleVersion() == roleVersion && cached.menuVersion() == menus.getVersion()) {
+            return cached;
+        }
+
+        List<RouterVO> routers = menuService.buildRoutersByRoleSetKey(roleSet.getRoleSetKey(), menus);
+        CachedRouters built = new CachedRouters(menus.getVersion(), roleVersion, serialize(routers));
+        cache.put(roleSet.getRoleSetKey(), built);
+        log.debug("构建角色组合路由: roleSet={}, menuVersion={}, roleVersion={}, size={}",
+                roleSet.getRoleSetKey(), menus.getVersion(), roleVersion, routers.size());
+        return built;
+    }
+
+    private RawValue serialize(List<RouterVO> routers) {
+        try {
+            return new RawValue(objectMapper.writeValueAsString(routers));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(500, "路由序列化失败");
+        }
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param menuVersion 构建时的菜单快照版本
+     * @param roleVersion 构建时的角色权限版本
+     * @param json        路由列表的 JSON
+     */
+    private record CachedRouters(long menuVersion, long roleVersion, RawValue json) {
+    }
+}
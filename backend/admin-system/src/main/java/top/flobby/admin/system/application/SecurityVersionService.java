@@ -0,0 +1,129 @@
+package top.flobby.admin.system.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.TransactionUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 安全版本号服务
+ * <p>
+ * 维护全局与用户级两个版本号，认证主体缓存以 "用户名 + 版本戳" 作为键。
+ * 角色、菜单、部门、用户状态等变更时递增版本号，旧缓存条目随即失效
+ * <p>
+ * 版本号键不设置过期时间，避免过期后版本回退导致旧缓存重新命中
+ * <p>
+ * 全局递增同时推进权限纪元，使所有无状态 Token 失效；用户级递增只使该用户的无状态 Token 失效，
+ * 不影响其他用户的缓存与 Token
+ * <p>
+ * 另维护部门树版本号，仅用于数据权限缓存：部门新增、移动、删除只影响数据权限的部门展开结果，
+ * 不影响认证主体，因此不推进权限纪元
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SecurityVersionService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final PermissionEpochService permissionEpochService;
+
+    private static final String GLOBAL_VERSION_KEY = "admin:security:version:global";
+    private static final String USER_VERSION_PREFIX = "admin:security:version:user:";
+    private static final String DEPT_TREE_VERSION_KEY = "admin:security:version:dept-tree";
+
+    /**
+     * 获取用户当前的版本戳
+     * <p>
+     * 一次 MGET 同时读取全局与用户版本号
+     *
+     * @param username 用户名
+     * @return 版本戳，格式: 全局版本.用户版本
+     */
+    public String currentStamp(String username) {
+        List<String> values = redisTemplate.opsForValue()
+                .multiGet(List.of(GLOBAL_VERSION_KEY, USER_VERSION_PREFIX + username));
+        if (values == null) {
+            return "0.0";
+        }
+        return valueOrZero(values.get(0)) + "." + valueOrZero(values.get(1));
+    }
+
+    /**
+     * 获取用户当前的数据权限版本戳
+     * <p>
+     * 一次 MGET 同时读取全局、用户与部门树版本号
+     *
+     * @param username 用户名
+     * @return 版本戳，格式: 全局版本.用户版本.部门树版本
+     */
+    public String currentDataScopeStamp(String username) {
+        List<String> values = redisTemplate.opsForValue()
+                .multiGet(List.of(GLOBAL_VERSION_KEY, USER_VERSION_PREFIX + username, DEPT_TREE_VERSION_KEY));
+        if (values == null) {
+            return "0.0.0";
+        }
+        return valueOrZero(values.get(0)) + "." + valueOrZero(values.get(1)) + "." + valueOrZero(values.get(2));
+    }
+
+    /**
+     * 递增用户版本号（事务提交后执行）
+     *
+     * @param username 用户名
+     */
+    public void bumpUser(String username) {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForValue().increment(USER_VERSION_PREFIX + username);
+            permissionEpochService.bumpUsers(List.of(username));
+            log.debug("递增用户安全版本号: username={}", username);
+        });
+    }
+
+    /**
+     * 批量递增用户版本号（事务提交后执行）
+     *
+     * @param usernames 用户名集合
+     */
+    public void bumpUsers(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            usernames.forEach(username -> redisTemplate.opsForValue().increment(USER_VERSION_PREFIX + username));
+            permissionEpochService.bumpUsers(usernames);
+            log.debug("批量递增用户安全版本号: count={}", usernames.size());
+        });
+    }
+
+    /**
+     * 递增全局版本号（事务提交后执行）
+     * <p>
+     * 用于菜单、部门状态等影响所有用户的变更
+     */
+    public void bumpAll() {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForValue().increment(GLOBAL_VERSION_KEY);
+            permissionEpochService.bump();
+            log.info("递增全局安全版本号");
+        });
+    }
+
+    /**
+     * 递增部门树版本号（事务提交后执行）
+     * <p>
+     * 用于部门新增、移动、删除等改变子孙部门集合的变更
+     */
+    public void bumpDeptTree() {
+        TransactionUtils.afterCommit(() -> {
+            redisTemplate.opsForValue().increment(DEPT_TREE_VERSION_KEY);
+            log.debug("递增部门树版本号");
+        });
+    }
+
+    private static String valueOrZero(String value) {
+        return value != null ? value : "0";
+    }
+}
@@ -0,0 +1,182 @@
+package top.flobby.admin.system.application;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import top.flobby.admin.common.utils.BloomFilter;
+import top.flobby.admin.common.utils.VerifiedToken;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 吊销服务
+ * <p>
+ * 吊销记录保存在 Redis，TTL 与 Token 剩余有效期一致：
+ * <ul>
+ *     <li>单个 Token: admin:token:revoked:jti:{jti}（登出）</li>
+ *     <li>用户级: admin:token:revoked:user:{username} = 吊销时间戳，早于该时间签发的访问 Token 和刷新 Token
+ *     全部失效（强制下线、重置密码），保留到最长的刷新 Token 有效期结束</li>
+ * </ul>
+ * 每个节点在本地布隆过滤器中镜像吊销列表，通过 Pub/Sub 增量更新，并定期由 SCAN 重建以清理过期记录。
+ * 未被吊销的 Token（绝大多数请求）只查本地过滤器，仅过滤器命中时才回查 Redis 确认
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String REVOKED_PREFIX = "admin:token:revoked:";
+    private static final String REVOKED_JTI_PREFIX = REVOKED_PREFIX + "jti:";
+    private static final String REVOKED_USER_PREFIX = REVOKED_PREFIX + "user:";
+    private static final String REVOKED_CHANNEL = "admin:token:revoked:channel";
+
+    /**
+     * 过滤器元素前缀，区分 Token ID 与用户名
+     */
+    private static final String JTI_MEMBER = "t:";
+    private static final String USER_MEMBER = "u:";
+
+    @Value("${jwt.expiration}")
+    private long accessExpiration;
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpiration;
+
+    @Value("${security.token-revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${security.token-revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建期间的新过滤器，重建开始后收到的广播同时写入，避免 SCAN 期间的吊销丢失
+     */
+    private volatile BloomFilter pending;
+
+    @PostConstruct
+    public void init() {
+        filter = newFilter();
+        listenerContainer.addMessageListener((message, pattern) ->
+                        addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(REVOKED_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 吊销单个 Token（登出）
+     *
+     * @param token 已验签的 Token
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.getJti() == null) {
+            return;
+        }
+        long ttl = token.getRemainingMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_JTI_PREFIX + token.getJti(), "1", ttl, TimeUnit.MILLISECONDS);
+        publish(JTI_MEMBER + token.getJti());
+        log.info("Token 已吊销: username={}, jti={}", token.getUsername(), token.getJti());
+    }
+
+    /**
+     * 吊销用户当前所有 Token（强制下线）
+     * <p>
+     * 刷新接口同样校验吊销记录，记录需保留到此前签发的访问 Token 与刷新 Token 都已过期，
+     * 否则旧刷新 Token 可在访问 Token 过期后重新换取新 Token
+     *
+     * @param username 用户名
+     */
+    public void revokeUser(String username) {
+        redisTemplate.opsForValue().set(REVOKED_USER_PREFIX + username, String.valueOf(System.currentTimeMillis()),
+                Math.max(accessExpiration, refreshExpiration), TimeUnit.MILLISECONDS);
+        publish(USER_MEMBER + username);
+        log.info("用户 Token 已全部吊销: username={}", username);
+    }
+
+    /**
+     * 判断 Token 是否已被吊销
+     *
+     * @param token 已验签的 Token
+     * @return true 表示已吊销
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        BloomFilter current = filter;
+        if (token.getJti() != null && current.mightContain(JTI_MEMBER + token.getJti())
+                && Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_JTI_PREFIX + token.getJti()))) {
+            return true;
+        }
+        if (current.mightContain(USER_MEMBER + token.getUsername())) {
+            String revokedAt = redisTemplate.opsForValue().get(REVOKED_USER_PREFIX + token.getUsername());
+            // iat 精度为秒，同一秒内签发的 Token 视为吊销前签发
+            return revokedAt != null && token.getIssuedAt() != null
+                    && token.getIssuedAt().getTime() <= Long.parseLong(revokedAt);
+        }
+        return false;
+    }
+
+    /**
+     * 由 Redis 重建本地过滤器
+     * <p>
+     * 布隆过滤器不支持删除，定期重建以清除已过期的吊销记录，同时弥补 Pub/Sub 可能丢失的消息
+     */
+    @Scheduled(fixedDelayString = "${security.token-revocation.rebuild-interval-ms:300000}",
+            initialDelayString = "${security.token-revocation.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        BloomFilter rebuilding = newFilter();
+        pending = rebuilding;
+        int count = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(REVOKED_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (key.startsWith(REVOKED_JTI_PREFIX)) {
+                    rebuilding.put(JTI_MEMBER + key.substring(REVOKED_JTI_PREFIX.length()));
+                    count++;
+                } else if (key.startsWith(REVOKED_USER_PREFIX)) {
+                    rebuilding.put(USER_MEMBER + key.substring(REVOKED_USER_PREFIX.length()));
+                    count++;
+                }
+            }
+            filter = rebuilding;
+            log.debug("Token 吊销过滤器已重建: entries={}", count);
+        } catch (Exception e) {
+            // Redis 不可用时保留旧过滤器，下个周期重试
+            log.warn("重建 Token 吊销过滤器失败: {}", e.getMessage());
+        } finally {
+            pending = null;
+        }
+    }
+
+    private void publish(String member) {
+        addLocal(member);
+        redisTemplate.convertAndSend(REVOKED_CHANNEL, member);
+    }
+
+    private void addLocal(String member) {
+        filter.put(member);
+        BloomFilter rebuilding = pending;
+        if (rebuilding != null) {
+            rebuilding.put(member);
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.util.StringUtils;
 import top.flobby.admin.common.annotation.DataScope;
 import top.flobby.admin.common.core.PageResult;
 import top.flobby.admin.common.exception.BusinessException;
+import top.flobby.admin.common.utils.TransactionUtils;
 import top.flobby.admin.system.domain.entity.Department;
 import top.flobby.admin.system.domain.entity.Role;
 import top.flobby.admin.system.domain.entity.User;
@@ -53,6 +54,9 @@ public class UserService {
     private final JpaRoleRepository jpaRoleRepository;
     private final JpaDepartmentRepository jpaDepartmentRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SecurityVersionService securityVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PermissionCacheService permissionCacheService;
 
     /**
      * 分页查询用户列表
@@ -225,6 +229,9 @@ public class UserService {
             throw new BusinessException("不能修改管理员账号");
         }
 
+        // 用户名、状态、角色、部门变更后需要让已缓存的认证主体失效
+        securityVersionService.bumpUser(user.getUsername());
+
         // 检查用户名是否已被其他用户使用
         if (!user.getUsername().equals(dto.getUsername())) {
             if (userRepository.existsByUsername(dto.getUsername())) {
@@ -270,6 +277,7 @@ public class UserService {
             if (!dto.getRoleIds().isEmpty()) {
                 saveUserRoles(user.getId(), dto.getRoleIds());
             }
+            permissionCacheService.clearUserCache(user.getId());
         }
 
         // 更新用户部门关联
@@ -308,6 +316,9 @@ public class UserService {
         // 删除用户部门关联
         jpaUserDeptRepository.deleteByUserId(id);
 
+        securityVersionService.bumpUser(user.getUsername());
+        permissionCacheService.clearUserCache(id);
+
         log.info("删除用户成功，用户ID: {}, 用户名: {}", id, user.getUsername());
     }
 
@@ -339,9 +350,32 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
 
+        // 密码重置后旧 Token 全部失效
+        String username = user.getUsername();
+        TransactionUtils.afterCommit(() -> tokenRevocationService.revokeUser(username));
+
         log.info("重置用户密码成功，用户ID: {}, 用户名: {}", id, user.getUsername());
     }
 
+    /**
+     * 强制用户下线
+     * <p>
+     * 吊销该用户此前签发的所有 Token
+     */
+    public void kickout(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+
+        // 检查是否是管理员账号
+        if ("admin".equals(user.getUsername())) {
+            throw new BusinessException("不能强制管理员账号下线");
+        }
+
+        tokenRevocationService.revokeUser(user.getUsername());
+
+        log.info("强制用户下线成功，用户ID: {}, 用户名: {}", id, user.getUsername());
+    }
+
     /**
      * 修改用户状态
      */
@@ -365,6 +399,8 @@ public class UserService {
         user.setStatus(status);
         userRepository.save(user);
 
+        securityVersionService.bumpUser(user.getUsername());
+
         log.info("修改用户状态成功，用户ID: {}, 用户名: {}, 新状态: {}", id, user.getUsername(), status);
     }
 
@@ -0,0 +1,40 @@
+package top.flobby.admin.system.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 部门闭包实体
+ * <p>
+ * 保存部门树中每一对祖先-子孙关系（包含自身，深度为 0），
+ * 子树查询转换为按祖先ID的等值连接，不再展开部门ID列表
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "sys_dept_closure")
+public class DeptClosure {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 祖先部门ID
+     */
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    /**
+     * 子孙部门ID
+     */
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    /**
+     * 祖先到子孙的层级距离
+     */
+    @Column(nullable = false)
+    private Integer depth;
+}
@@ -86,13 +86,24 @@ public interface DepartmentRepository {
     void deleteById(Long id);
 
     /**
-     * 批量更新祖级路径(前缀替换)
+     * 按ID升序查询祖级路径以前缀开头的子孙部门ID
      *
+     * @param prefix  祖级路径前缀
+     * @param afterId 只返回大于该ID的部门
+     * @param limit   最多返回的数量
+     * @return 子孙部门ID
+     */
+    List<Long> findDescendantIdsAfter(String prefix, long afterId, int limit);
+
+    /**
+     * 按ID批量更新祖级路径(前缀替换)
+     *
+     * @param ids       部门ID
      * @param oldPrefix 旧前缀
      * @param newPrefix 新前缀
      * @return 更新的记录数
      */
-    int updateAncestorsByPrefix(String oldPrefix, String newPrefix);
+    int updateAncestorsByIds(List<Long> ids, String oldPrefix, String newPrefix);
 
     /**
      * 级联更新部门状态（包含所有子孙部门）
@@ -1,6 +1,7 @@
 package top.flobby.admin.system.infrastructure.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import top.flobby.admin.system.domain.entity.Department;
@@ -65,10 +66,15 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
         jpaDepartmentRepository.softDeleteById(id);
     }
 
+    @Override
+    public List<Long> findDescendantIdsAfter(String prefix, long afterId, int limit) {
+        return jpaDepartmentRepository.findDescendantIdsAfter(prefix, afterId, PageRequest.of(0, limit));
+    }
+
     @Override
     @Transactional
-    public int updateAncestorsByPrefix(String oldPrefix, String newPrefix) {
-        return jpaDepartmentRepository.updateAncestorsByPrefix(oldPrefix, newPrefix);
+    public int updateAncestorsByIds(List<Long> ids, String oldPrefix, String newPrefix) {
+        return jpaDepartmentRepository.updateAncestorsByIds(ids, oldPrefix, newPrefix);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package top.flobby.admin.system.infrastructure.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -52,18 +53,31 @@ public interface JpaDepartmentRepository extends JpaRepository<Department, Long>
     void softDeleteById(@Param("id") Long id);
 
     /**
-     * 批量更新祖级路径(前缀替换)
+     * 按ID升序查询祖级路径以前缀开头的子孙部门ID(分批移动子树)
+     * <p>
+     * 前缀按路径分隔符匹配，避免 "0,1" 误匹配 "0,10"
+     */
+    @Query("SELECT d.id FROM Department d WHERE (d.ancestors = :prefix OR d.ancestors LIKE CONCAT(:prefix, ',%')) " +
+           "AND d.deleted = 0 AND d.id > :afterId ORDER BY d.id")
+    List<Long> findDescendantIdsAfter(@Param("prefix") String prefix, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按ID批量更新祖级路径(前缀替换)
      */
     @Modifying
     @Query("UPDATE Department d SET d.ancestors = CONCAT(:newPrefix, SUBSTRING(d.ancestors, LENGTH(:oldPrefix) + 1)) " +
-           "WHERE d.ancestors LIKE CONCAT(:oldPrefix, '%') AND d.deleted = 0")
-    int updateAncestorsByPrefix(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix);
+           "WHERE d.id IN :ids AND (d.ancestors = :oldPrefix OR d.ancestors LIKE CONCAT(:oldPrefix, ',%'))")
+    int updateAncestorsByIds(@Param("ids") List<Long> ids, @Param("oldPrefix") String oldPrefix,
+                             @Param("newPrefix") String newPrefix);
 
     /**
      * 级联更新部门状态（包含所有子孙部门）
+     * <p>
+     * 按路径分隔符匹配前缀，"0,1" 不会匹配 "0,10"
      */
     @Modifying
-    @Query("UPDATE Department d SET d.status = :status WHERE d.deleted = 0 AND (d.id = :id OR d.ancestors LIKE CONCAT(:prefix, '%'))")
+    @Query("UPDATE Department d SET d.status = :status WHERE d.deleted = 0 AND (d.id = :id OR d.ancestors = :prefix " +
+           "OR d.ancestors LIKE CONCAT(:prefix, ',%'))")
     int updateStatusCascade(@Param("id") Long id, @Param("prefix") String prefix, @Param("status") Integer status);
 
     /**
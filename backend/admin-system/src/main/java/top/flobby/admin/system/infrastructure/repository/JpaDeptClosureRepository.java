@@ -0,0 +1,124 @@
+package top.flobby.admin.system.infrastructure.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import top.flobby.admin.system.domain.entity.DeptClosure;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA 部门闭包仓储
+ * <p>
+ * 闭包表由部门服务在同一事务内维护
+ */
+public interface JpaDeptClosureRepository extends JpaRepository<DeptClosure, Long> {
+
+    /**
+     * 断开子树时每条 DELETE 携带的子孙部门数
+     */
+    int DETACH_BATCH_SIZE = 1000;
+
+    /**
+     * 新增部门：复制父部门的全部祖先关系（深度加一），并加入自身关系
+     * <p>
+     * 新部门ID从已保存的部门行中取，参数只出现在条件中，不依赖数据库推断查询列中参数的类型
+     *
+     * @param deptId   新部门ID，部门须已保存
+     * @param parentId 父部门ID，顶级部门为 0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT c.ancestor_id, d.id, c.depth + 1 FROM sys_dept_closure c " +
+                   "JOIN sys_department d ON d.id = :deptId WHERE c.descendant_id = :parentId " +
+                   "UNION ALL SELECT id, id, 0 FROM sys_department WHERE id = :deptId",
+           nativeQuery = true)
+    int insertNode(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 移动部门第一步：断开子树与原祖先之间的关系，子树内部关系保持不变
+     * <p>
+     * 先查出子树中的部门和原祖先（最多 MAX_LEVEL 个），再按批删除两者之间的关系；
+     * 不使用多表 DELETE JOIN，MySQL 也不允许在删除语句的子查询中读取同一张表
+     *
+     * @param deptId 被移动的部门ID
+     * @return 删除的关系数
+     */
+    default int detachSubtree(Long deptId) {
+        List<Long> ancestorIds = findAncestorIds(deptId);
+        if (ancestorIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> descendantIds = findDescendantIds(deptId);
+        int deleted = 0;
+        for (int from = 0; from < descendantIds.size(); from += DETACH_BATCH_SIZE) {
+            List<Long> batch = descendantIds.subList(from, Math.min(from + DETACH_BATCH_SIZE, descendantIds.size()));
+            deleted += deleteLinks(ancestorIds, batch);
+        }
+        return deleted;
+    }
+
+    /**
+     * 查询部门的全部祖先（不含自身）
+     *
+     * @param deptId 部门ID
+     * @return 祖先部门ID
+     */
+    @Query("SELECT c.ancestorId FROM DeptClosure c WHERE c.descendantId = :deptId AND c.depth > 0")
+    List<Long> findAncestorIds(@Param("deptId") Long deptId);
+
+    /**
+     * 查询部门及其全部子孙
+     *
+     * @param deptId 部门ID
+     * @return 子树部门ID（含自身）
+     */
+    @Query("SELECT c.descendantId FROM DeptClosure c WHERE c.ancestorId = :deptId")
+    List<Long> findDescendantIds(@Param("deptId") Long deptId);
+
+    /**
+     * 删除指定祖先与子孙之间的关系
+     *
+     * @param ancestorIds   祖先部门ID
+     * @param descendantIds 子孙部门ID
+     * @return 删除的关系数
+     */
+    @Modifying
+    @Query("DELETE FROM DeptClosure c WHERE c.ancestorId IN :ancestorIds AND c.descendantId IN :descendantIds")
+    int deleteLinks(@Param("ancestorIds") Collection<Long> ancestorIds,
+                    @Param("descendantIds") Collection<Long> descendantIds);
+
+    /**
+     * 移动部门第二步：把新父部门的每个祖先连接到子树中的每个部门
+     *
+     * @param deptId   被移动的部门ID
+     * @param parentId 新父部门ID，顶级部门为 0（无需连接）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sys_dept_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 " +
+                   "FROM sys_dept_closure sup JOIN sys_dept_closure sub " +
+                   "ON sup.descendant_id = :parentId AND sub.ancestor_id = :deptId",
+           nativeQuery = true)
+    int attachSubtree(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 是否存在祖先-子孙关系（含自身关系）
+     *
+     * @param ancestorId   祖先部门ID
+     * @param descendantId 子孙部门ID
+     * @return 是否存在
+     */
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    /**
+     * 删除部门：部门不允许有子部门，只需删除以其为子孙的关系
+     *
+     * @param deptId 部门ID
+     */
+    @Modifying
+    @Query("DELETE FROM DeptClosure c WHERE c.descendantId = :deptId")
+    int deleteByDescendantId(@Param("deptId") Long deptId);
+}
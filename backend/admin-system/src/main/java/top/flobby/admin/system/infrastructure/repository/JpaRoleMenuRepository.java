@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import top.flobby.admin.system.domain.entity.RoleMenu;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -39,4 +40,13 @@ public interface JpaRoleMenuRepository extends JpaRepository<RoleMenu, Long> {
     @Query("SELECT DISTINCT rm.menuId FROM RoleMenu rm " +
            "WHERE rm.roleId IN (SELECT ur.roleId FROM UserRole ur WHERE ur.userId = :userId)")
     Set<Long> findMenuIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * 根据角色ID列表查询菜单ID
+     *
+     * @param roleIds 角色ID列表
+     * @return 菜单ID集合
+     */
+    @Query("SELECT DISTINCT rm.menuId FROM RoleMenu rm WHERE rm.roleId IN :roleIds")
+    Set<Long> findMenuIdsByRoleIds(@Param("roleIds") Collection<Long> roleIds);
 }
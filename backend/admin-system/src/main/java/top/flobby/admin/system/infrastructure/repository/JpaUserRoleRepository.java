@@ -19,6 +19,12 @@ public interface JpaUserRoleRepository extends JpaRepository<UserRole, Long> {
 
     List<UserRole> findByRoleId(Long roleId);
 
+    /**
+     * 根据角色ID查询用户ID（走 idx_role_id 索引，只取用户ID列）
+     */
+    @Query("SELECT ur.userId FROM UserRole ur WHERE ur.roleId = :roleId")
+    List<Long> findUserIdsByRoleId(@Param("roleId") Long roleId);
+
     @Modifying
     @Query("DELETE FROM UserRole ur WHERE ur.userId = :userId")
     void deleteByUserId(@Param("userId") Long userId);
@@ -9,21 +9,17 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 import top.flobby.admin.common.utils.DataScopeUtils;
-import top.flobby.admin.system.domain.entity.Department;
+import top.flobby.admin.system.domain.entity.DeptClosure;
 import top.flobby.admin.system.domain.entity.User;
 import top.flobby.admin.system.domain.entity.UserDept;
-import top.flobby.admin.system.domain.repository.DepartmentRepository;
 import top.flobby.admin.system.domain.repository.UserRepository;
 import top.flobby.admin.system.interfaces.query.UserQuery;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * 用户仓储实现
@@ -33,7 +29,6 @@ import java.util.stream.Collectors;
 public class UserRepositoryImpl implements UserRepository {
 
     private final JpaUserRepository jpaUserRepository;
-    private final DepartmentRepository departmentRepository;
 
     @Override
     public Optional<User> findByUsername(String username) {
@@ -93,13 +88,14 @@ public class UserRepositoryImpl implements UserRepository {
                 predicates.add(criteriaBuilder.equal(root.get("status"), query.getStatus()));
             }
 
-            // 部门过滤（包含子部门，通过子查询关联 sys_user_dept 表）
+            // 部门过滤（包含子部门，通过闭包表关联 sys_user_dept 表）
             if (query.getDeptId() != null) {
-                Set<Long> deptIds = getDescendantDeptIds(query.getDeptId());
                 Subquery<Long> deptSubquery = criteriaQuery.subquery(Long.class);
                 var userDeptRoot = deptSubquery.from(UserDept.class);
+                var closureRoot = deptSubquery.from(DeptClosure.class);
                 deptSubquery.select(userDeptRoot.get("userId"))
-                        .where(userDeptRoot.get("deptId").in(deptIds));
+                        .where(criteriaBuilder.equal(closureRoot.get("descendantId"), userDeptRoot.get("deptId")),
+                                criteriaBuilder.equal(closureRoot.get("ancestorId"), query.getDeptId()));
                 predicates.add(root.get("id").in(deptSubquery));
             }
 
@@ -116,7 +112,7 @@ public class UserRepositoryImpl implements UserRepository {
 
             // 应用数据权限过滤
             Predicate dataScopePredicate = DataScopeUtils.buildUserDataScopePredicate(
-                    root, criteriaBuilder, criteriaQuery, UserDept.class);
+                    root, criteriaBuilder, criteriaQuery, UserDept.class, DeptClosure.class);
             predicates.add(dataScopePredicate);
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
@@ -144,36 +140,4 @@ public class UserRepositoryImpl implements UserRepository {
     public boolean existsByPhone(String phone) {
         return jpaUserRepository.existsByPhoneAndDeletedEquals(phone, 0);
     }
-
-    /**
-     * 获取部门的所有子孙部门ID
-     *
-     * @param deptId 部门ID
-     * @return 子孙部门ID集合（包含自身）
-     */
-    private Set<Long> getDescendantDeptIds(Long deptId) {
-        Set<Long> result = new HashSet<>();
-        result.add(deptId);
-
-        Department dept = departmentRepository.findById(deptId).orElse(null);
-        if (dept == null) {
-            return result;
-        }
-
-        // 构建祖级路径前缀
-        String ancestorsPrefix;
-        if (dept.getAncestors() == null || dept.getAncestors().isEmpty()) {
-            ancestorsPrefix = String.valueOf(deptId);
-        } else {
-            ancestorsPrefix = dept.getAncestors() + "," + deptId;
-        }
-
-        // 查询所有子孙部门
-        List<Department> descendants = departmentRepository.findByAncestorsStartingWith(ancestorsPrefix);
-        result.addAll(descendants.stream()
-                .map(Department::getId)
-                .collect(Collectors.toSet()));
-
-        return result;
-    }
 }
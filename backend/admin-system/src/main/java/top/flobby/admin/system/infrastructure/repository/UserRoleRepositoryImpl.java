@@ -49,8 +49,6 @@ public class UserRoleRepositoryImpl implements UserRoleRepository {
 
     @Override
     public List<Long> findUserIdsByRoleId(Long roleId) {
-        return jpaUserRoleRepository.findByRoleId(roleId).stream()
-                .map(UserRole::getUserId)
-                .collect(Collectors.toList());
+        return jpaUserRoleRepository.findUserIdsByRoleId(roleId);
     }
 }
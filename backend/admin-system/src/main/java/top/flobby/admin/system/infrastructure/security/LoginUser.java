@@ -0,0 +1,147 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 登录用户主体
+ * <p>
+ * 在 Spring Security 用户的基础上携带用户ID，下游无需再按用户名回查数据库
+ * <p>
+ * 携带权限快照时，主体只引用同一角色组合共享的 {@link PermissionSnapshot}，自身只保存角色授权；
+ * {@link #getAuthorities()} 返回角色授权与快照授权的只读视图，不为每个用户复制权限列表。
+ * 未携带快照时，权限位图在首次鉴权时由授权列表构建
+ */
+public class LoginUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 数据权限范围，仅无状态 Token 还原的主体携带，其余情况为 null
+     */
+    private final Integer dataScope;
+
+    /**
+     * 权限位图快照，构造时未提供则首次鉴权时构建
+     */
+    private transient volatile PermissionSnapshot permissionSnapshot;
+
+    /**
+     * 角色授权加共享快照授权的视图，未携带快照时为 null
+     */
+    private final transient Collection<GrantedAuthority> authorityView;
+
+    public LoginUser(Long userId, String username, String password,
+                     Collection<? extends GrantedAuthority> authorities) {
+        this(userId, username, password, authorities, null);
+    }
+
+    public LoginUser(Long userId, String username, String password,
+                     Collection<? extends GrantedAuthority> authorities, Integer dataScope) {
+        this(userId, username, password, authorities, dataScope, null);
+    }
+
+    /**
+     * @param authorities        主体自身的授权（如角色），不含快照中的权限
+     * @param permissionSnapshot 共享的权限快照，为 null 时由 authorities 构建
+     */
+    public LoginUser(Long userId, String username, String password,
+                     Collection<? extends GrantedAuthority> authorities, Integer dataScope,
+                     PermissionSnapshot permissionSnapshot) {
+        super(username, password, authorities);
+        this.userId = userId;
+        this.dataScope = dataScope;
+        this.permissionSnapshot = permissionSnapshot;
+        this.authorityView = permissionSnapshot != null
+                ? new AuthorityView(super.getAuthorities(), permissionSnapshot.getAuthorities())
+                : null;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorityView != null ? authorityView : super.getAuthorities();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getDataScope() {
+        return dataScope;
+    }
+
+    /**
+     * 获取权限位图快照
+     * <p>
+     * 并发首次调用可能重复构建，结果相同，不加锁
+     *
+     * @param registry 权限标识注册表
+     * @return 权限快照
+     */
+    public PermissionSnapshot getPermissionSnapshot(PermissionRegistry registry) {
+        PermissionSnapshot snapshot = permissionSnapshot;
+        if (snapshot == null) {
+            List<String> authorities = getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+            snapshot = PermissionSnapshot.of("", authorities, registry);
+            permissionSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * 两个授权集合的只读拼接视图
+     */
+    private static final class AuthorityView extends AbstractCollection<GrantedAuthority> {
+
+        private final Collection<GrantedAuthority> first;
+        private final Collection<GrantedAuthority> second;
+
+        AuthorityView(Collection<GrantedAuthority> first, Collection<GrantedAuthority> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Iterator<GrantedAuthority> iterator() {
+            return new Iterator<>() {
+
+                private final Iterator<GrantedAuthority> head = first.iterator();
+                private final Iterator<GrantedAuthority> tail = second.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return head.hasNext() || tail.hasNext();
+                }
+
+                @Override
+                public GrantedAuthority next() {
+                    if (head.hasNext()) {
+                        return head.next();
+                    }
+                    if (tail.hasNext()) {
+                        return tail.next();
+                    }
+                    throw new NoSuchElementException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 权限标识注册表
+ * <p>
+ * 为每个权限标识（{@code Menu.permission}）分配进程内唯一的连续整数ID，作为
+ * {@link PermissionSnapshot} 位图中的下标。ID 只在本进程内有效，不写入 Redis 或 Token；
+ * 权限标识数量与菜单数量同级，只增不删
+ */
+@Component
+public class PermissionRegistry {
+
+    /**
+     * 未注册的权限标识
+     */
+    public static final int UNKNOWN = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * 登记权限标识，已登记时返回原有ID
+     *
+     * @param permission 权限标识
+     * @return 权限ID
+     */
+    public int register(String permission) {
+        Integer id = ids.get(permission);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(permission, key -> nextId.getAndIncrement());
+    }
+
+    /**
+     * 查询权限标识的ID
+     *
+     * @param permission 权限标识
+     * @return 权限ID，未登记时返回 {@link #UNKNOWN}
+     */
+    public int idOf(String permission) {
+        if (permission == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(permission);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * 批量查询权限标识的ID
+     * <p>
+     * 用于预先编译注解中的权限标识，结果中可能包含 {@link #UNKNOWN}
+     *
+     * @param permissions 权限标识
+     * @return 权限ID数组，顺序与入参一致
+     */
+    public int[] idsOf(String... permissions) {
+        int[] result = new int[permissions.length];
+        for (int i = 0; i < permissions.length; i++) {
+            result[i] = idOf(permissions[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 已登记的权限标识数量
+     */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,127 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限集合存储
+ * <p>
+ * 无状态 Token 中只携带权限集合的指纹（排序后权限标识的 SHA-256 前 16 位十六进制），
+ * 完整集合以指纹为键存入 Redis。相同角色组合的用户共享同一集合，
+ * 指纹由内容决定、集合不可变，因此本地缓存无需失效，每个节点每个集合只回源一次。
+ * 本地缓存保存权限位图快照，同一指纹的主体共享同一快照
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionSetStore {
+
+    private final StringRedisTemplate redisTemplate;
+    private final PermissionRegistry permissionRegistry;
+
+    private static final String PERMISSION_SET_PREFIX = "admin:permission:set:";
+
+    /**
+     * 空权限集合的指纹，不写入 Redis
+     */
+    private static final String EMPTY_FINGERPRINT = "0";
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpiration;
+
+    @Value("${jwt.stateless.permission-set-cache-size:1000}")
+    private long cacheSize;
+
+    private Cache<String, PermissionSnapshot> localCache;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * 登记权限集合
+     * <p>
+     * 每次签发都会刷新 Redis 中集合的过期时间，保证其不早于 Token 失效
+     *
+     * @param authorities 权限标识集合
+     * @return 集合指纹
+     */
+    public String register(Collection<String> authorities) {
+        if (authorities.isEmpty()) {
+            return EMPTY_FINGERPRINT;
+        }
+        Set<String> sorted = new TreeSet<>(authorities);
+        String fingerprint = fingerprint(sorted);
+        String key = PERMISSION_SET_PREFIX + fingerprint;
+        redisTemplate.opsForSet().add(key, sorted.toArray(new String[0]));
+        redisTemplate.expire(key, refreshExpiration, TimeUnit.MILLISECONDS);
+        localCache.put(fingerprint, PermissionSnapshot.of(fingerprint, sorted, permissionRegistry));
+        return fingerprint;
+    }
+
+    /**
+     * 根据指纹解析权限集合
+     *
+     * @param fingerprint 集合指纹
+     * @return 权限标识集合；Redis 中已不存在时返回 null
+     */
+    public Set<String> resolve(String fingerprint) {
+        PermissionSnapshot snapshot = resolveSnapshot(fingerprint);
+        return snapshot != null ? snapshot.getPermissions() : null;
+    }
+
+    /**
+     * 根据指纹解析权限快照
+     *
+     * @param fingerprint 集合指纹
+     * @return 权限快照；Redis 中已不存在时返回 null
+     */
+    public PermissionSnapshot resolveSnapshot(String fingerprint) {
+        if (EMPTY_FINGERPRINT.equals(fingerprint)) {
+            return PermissionSnapshot.EMPTY;
+        }
+        PermissionSnapshot cached = localCache.getIfPresent(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> members = redisTemplate.opsForSet().members(PERMISSION_SET_PREFIX + fingerprint);
+        if (members == null || members.isEmpty()) {
+            log.debug("权限集合不存在: fingerprint={}", fingerprint);
+            return null;
+        }
+        PermissionSnapshot snapshot = PermissionSnapshot.of(fingerprint, members, permissionRegistry);
+        localCache.put(fingerprint, snapshot);
+        return snapshot;
+    }
+
+    private static String fingerprint(Set<String> sorted) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String authority : sorted) {
+                digest.update(authority.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
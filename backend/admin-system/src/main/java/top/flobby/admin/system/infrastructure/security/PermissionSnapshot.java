@@ -0,0 +1,136 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 权限快照
+ * <p>
+ * 一个角色组合的权限集合，以 {@link PermissionRegistry} 分配的ID为下标存为位图。
+ * 快照创建后不可变，拥有相同角色组合的用户共享同一实例；权限判断只做位运算，不分配对象
+ */
+public final class PermissionSnapshot {
+
+    /**
+     * 没有任何权限的快照
+     */
+    public static final PermissionSnapshot EMPTY = new PermissionSnapshot("", new long[0], Collections.emptySet());
+
+    private final String roleSetKey;
+    private final long[] words;
+    private final Set<String> permissions;
+
+    /**
+     * 权限标识对应的 {@link GrantedAuthority}，首次使用时构建，由共享快照的所有用户主体复用
+     */
+    private volatile List<GrantedAuthority> authorities;
+
+    private PermissionSnapshot(String roleSetKey, long[] words, Set<String> permissions) {
+        this.roleSetKey = roleSetKey;
+        this.words = words;
+        this.permissions = permissions;
+    }
+
+    /**
+     * 构建权限快照
+     *
+     * @param roleSetKey  角色组合键（排序后的启用角色ID，逗号分隔）
+     * @param permissions 权限标识集合
+     * @param registry    权限标识注册表，未登记的标识会被登记
+     * @return 权限快照
+     */
+    public static PermissionSnapshot of(String roleSetKey, Collection<String> permissions, PermissionRegistry registry) {
+        if (permissions.isEmpty()) {
+            return roleSetKey.isEmpty() ? EMPTY : new PermissionSnapshot(roleSetKey, new long[0], Collections.emptySet());
+        }
+        int[] ids = new int[permissions.size()];
+        int maxId = 0;
+        int i = 0;
+        for (String permission : permissions) {
+            ids[i] = registry.register(permission);
+            maxId = Math.max(maxId, ids[i]);
+            i++;
+        }
+        long[] words = new long[(maxId >>> 6) + 1];
+        for (int id : ids) {
+            words[id >>> 6] |= 1L << id;
+        }
+        return new PermissionSnapshot(roleSetKey, words, Set.copyOf(permissions));
+    }
+
+    /**
+     * 是否拥有指定权限
+     *
+     * @param id 权限ID
+     */
+    public boolean has(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = id >>> 6;
+        return index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /**
+     * 是否拥有任一权限
+     *
+     * @param ids 权限ID
+     */
+    public boolean hasAny(int... ids) {
+        for (int id : ids) {
+            if (has(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否拥有全部权限
+     *
+     * @param ids 权限ID
+     */
+    public boolean hasAll(int... ids) {
+        for (int id : ids) {
+            if (!has(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 角色组合键
+     */
+    public String getRoleSetKey() {
+        return roleSetKey;
+    }
+
+    /**
+     * 权限标识集合（不可修改）
+     */
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * 权限标识对应的授权列表（不可修改）
+     * <p>
+     * 并发首次调用可能重复构建，结果相同，不加锁
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        List<GrantedAuthority> list = authorities;
+        if (list == null) {
+            list = permissions.stream()
+                    .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                    .toList();
+            authorities = list;
+        }
+        return list;
+    }
+}
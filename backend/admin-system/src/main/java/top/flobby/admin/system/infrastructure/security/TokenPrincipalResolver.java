@@ -0,0 +1,109 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.common.utils.JwtUtils;
+import top.flobby.admin.common.utils.VerifiedToken;
+import top.flobby.admin.system.application.PermissionEpochService;
+import top.flobby.admin.system.application.TokenRevocationService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token 主体解析器
+ * <p>
+ * 开启无状态模式（{@code jwt.stateless.enabled=true}）后，签发的 Token 携带用户ID、数据权限范围、
+ * 权限集合指纹与权限纪元，认证时直接由 Token 还原主体，不访问数据库；
+ * Token 纪元落后于当前纪元，或签发于该用户最近一次权限变更之前时拒绝认证，由客户端重新获取 Token
+ * <p>
+ * 未开启时或 Token 不含纪元声明时，回退到 {@link UserDetailsCache}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenPrincipalResolver {
+
+    private final UserDetailsCache userDetailsCache;
+    private final PermissionSetStore permissionSetStore;
+    private final PermissionEpochService permissionEpochService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    /**
+     * 是否开启无状态模式
+     */
+    public boolean isStatelessEnabled() {
+        return statelessEnabled;
+    }
+
+    /**
+     * 构建无状态 Token 的附加声明
+     *
+     * @param loginUser 已认证的登录用户
+     * @param dataScope 数据权限范围
+     * @return 附加声明
+     */
+    public Map<String, Object> buildClaims(LoginUser loginUser, int dataScope) {
+        List<String> authorities = loginUser.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtils.CLAIM_USER_ID, loginUser.getUserId());
+        claims.put(JwtUtils.CLAIM_DATA_SCOPE, dataScope);
+        claims.put(JwtUtils.CLAIM_PERMISSION_FINGERPRINT, permissionSetStore.register(authorities));
+        claims.put(JwtUtils.CLAIM_PERMISSION_EPOCH, permissionEpochService.latestEpoch());
+        return claims;
+    }
+
+    /**
+     * 由已验签的 Token 解析认证主体
+     *
+     * @param token 已验签的 Token
+     * @return 用户详情；刷新 Token、Token 已吊销、纪元过期或权限集合已失效时返回 null
+     */
+    public UserDetails resolve(VerifiedToken token) {
+        // 刷新 Token 只能用于续期，不能作为访问 Token
+        if (token.isRefreshToken()) {
+            return null;
+        }
+
+        if (tokenRevocationService.isRevoked(token)) {
+            log.debug("Token 已吊销: username={}, jti={}", token.getUsername(), token.getJti());
+            return null;
+        }
+
+        Long epoch = token.getClaim(JwtUtils.CLAIM_PERMISSION_EPOCH, Long.class);
+        if (!statelessEnabled || epoch == null) {
+            return userDetailsCache.get(token.getUsername(), token.getExpiration());
+        }
+
+        if (epoch < permissionEpochService.currentEpoch()
+                || permissionEpochService.isUserStale(token.getUsername(), token.getIssuedAt())) {
+            log.debug("Token 权限纪元已过期: username={}, epoch={}", token.getUsername(), epoch);
+            return null;
+        }
+
+        PermissionSnapshot snapshot = permissionSetStore.resolveSnapshot(
+                token.getClaim(JwtUtils.CLAIM_PERMISSION_FINGERPRINT, String.class));
+        if (snapshot == null) {
+            return null;
+        }
+
+        return new LoginUser(
+                token.getClaim(JwtUtils.CLAIM_USER_ID, Long.class),
+                token.getUsername(),
+                "",
+                List.of(),
+                token.getClaim(JwtUtils.CLAIM_DATA_SCOPE, Integer.class),
+                snapshot
+        );
+    }
+}
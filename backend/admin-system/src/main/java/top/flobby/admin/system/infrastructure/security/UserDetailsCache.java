@@ -0,0 +1,141 @@
+package top.flobby.admin.system.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import top.flobby.admin.system.application.SecurityVersionService;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证主体本地缓存
+ * <p>
+ * 以 "用户名@版本戳" 为键缓存 {@link UserDetails}，仅在未命中时调用
+ * {@link UserDetailsService} 访问数据库。条目过期时间取配置 TTL 与 Token 过期时间的较小值，
+ * 版本号递增后旧条目不再可达，等待容量淘汰或过期
+ * <p>
+ * 同一键的并发未命中只加载一次：缓存中存放加载中的 Future，第一个未命中的请求在自己的线程中
+ * 查询数据库，其余请求等待同一个 Future。查询不在 Caffeine 的桶锁内执行，不阻塞同桶的其他键；
+ * 加载失败的 Future 由 Caffeine 自动移除，下次请求重新加载
+ * <p>
+ * 命中率指标: cache.gets{cache="auth.principal", result="hit|miss"}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCache {
+
+    private final UserDetailsService userDetailsService;
+    private final SecurityVersionService securityVersionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.principal-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private AsyncCache<String, CachedPrincipal> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PrincipalExpiry())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+        log.info("认证主体缓存已初始化: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取认证主体
+     *
+     * @param username        用户名
+     * @param tokenExpiration Token 过期时间，为空时仅按 TTL 过期
+     * @return 用户详情
+     */
+    public UserDetails get(String username, Date tokenExpiration) {
+        String key = username + "@" + securityVersionService.currentStamp(username);
+        // 桶锁内只放入未完成的 Future，不执行加载
+        CompletableFuture<CachedPrincipal> mine = new CompletableFuture<>();
+        CompletableFuture<CachedPrincipal> future = cache.get(key, (k, executor) -> mine);
+        if (future == mine) {
+            load(username, tokenExpiration, mine);
+        }
+        try {
+            return future.join().userDetails();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在调用线程中查询数据库并完成 Future，等待同一键的请求共享结果或异常
+     */
+    private void load(String username, Date tokenExpiration, CompletableFuture<CachedPrincipal> future) {
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+            if (tokenExpiration != null) {
+                expiresAt = Math.min(expiresAt, tokenExpiration.getTime());
+            }
+            future.complete(new CachedPrincipal(userDetails, expiresAt));
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * 缓存条目，记录绝对过期时间
+     */
+    private record CachedPrincipal(UserDetails userDetails, long expiresAt) {
+    }
+
+    /**
+     * 按条目自身的过期时间计算存活时长
+     */
+    private static final class PrincipalExpiry implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+            long remainingMillis = Math.max(0, value.expiresAt() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -7,18 +7,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import top.flobby.admin.system.domain.entity.Menu;
-import top.flobby.admin.system.domain.entity.Role;
+import top.flobby.admin.system.application.DepartmentIndexService;
+import top.flobby.admin.system.application.PermissionCacheService;
 import top.flobby.admin.system.domain.entity.UserDept;
-import top.flobby.admin.system.domain.repository.MenuRepository;
 import top.flobby.admin.system.domain.repository.RoleRepository;
 import top.flobby.admin.system.domain.repository.UserRepository;
 import top.flobby.admin.system.domain.entity.User;
-import top.flobby.admin.system.infrastructure.repository.JpaDepartmentRepository;
 import top.flobby.admin.system.infrastructure.repository.JpaUserDeptRepository;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,9 +27,9 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final MenuRepository menuRepository;
+    private final PermissionCacheService permissionCacheService;
     private final JpaUserDeptRepository jpaUserDeptRepository;
-    private final JpaDepartmentRepository jpaDepartmentRepository;
+    private final DepartmentIndexService departmentIndexService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -51,39 +47,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                     .map(UserDept::getDeptId)
                     .collect(Collectors.toList());
 
-            // 检查是否有禁用部门（任一部门禁用则拒绝登录）
-            long disabledCount = jpaDepartmentRepository.countByIdInAndStatusAndDeleted(deptIds, 0, 0);
-            if (disabledCount > 0) {
+            // 检查是否有禁用部门（任一部门禁用则拒绝登录），由部门层级索引的启用状态位图判断；
+            // 结果随认证主体缓存，先同步到 Redis 中的部门版本，避免读到禁用前的索引
+            if (departmentIndexService.latest().anyDisabled(deptIds)) {
                 throw new RuntimeException("所属部门已禁用");
             }
         }
 
-        // 加载用户角色
-        List<Role> roles = roleRepository.findByUserId(user.getId());
-        List<Long> roleIds = roles.stream().map(Role::getId).collect(Collectors.toList());
+        // 角色权限（ROLE_前缀）由主体自身保存
+        List<GrantedAuthority> roleAuthorities = roleRepository.findByUserId(user.getId()).stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role.getRoleCode().toUpperCase()))
+                .toList();
 
-        // 构建权限集合
-        List<GrantedAuthority> authorities = new ArrayList<>();
-
-        // 添加角色权限（ROLE_前缀）
-        roles.forEach(role ->
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getRoleCode().toUpperCase()))
-        );
-
-        // 加载菜单权限
-        if (!roleIds.isEmpty()) {
-            List<Menu> menus = menuRepository.findByRoleIds(roleIds);
-            menus.stream()
-                    .filter(menu -> StringUtils.hasText(menu.getPermission()))
-                    .forEach(menu ->
-                        authorities.add(new SimpleGrantedAuthority(menu.getPermission()))
-                    );
-        }
-
-        return new org.springframework.security.core.userdetails.User(
+        // 菜单权限引用同一角色组合共享的权限快照，不为每个用户复制权限列表
+        return new LoginUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
-                authorities
+                roleAuthorities,
+                null,
+                permissionCacheService.getUserPermissionSnapshot(user.getId())
         );
     }
 }
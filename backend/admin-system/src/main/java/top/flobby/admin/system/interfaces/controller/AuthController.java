@@ -1,18 +1,20 @@
 package top.flobby.admin.system.interfaces.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import top.flobby.admin.common.core.Result;
+import top.flobby.admin.common.utils.ConditionalRequestUtils;
 import top.flobby.admin.system.application.AuthService;
 import top.flobby.admin.system.interfaces.dto.LoginDTO;
+import top.flobby.admin.system.interfaces.dto.RefreshTokenDTO;
 import top.flobby.admin.system.interfaces.vo.LoginVO;
-import top.flobby.admin.system.interfaces.vo.RouterVO;
 import top.flobby.admin.system.interfaces.vo.UserInfoVO;
 
-import java.util.List;
 import java.util.Set;
 
 @Tag(name = "认证接口")
@@ -29,9 +31,16 @@ public class AuthController {
         return Result.success(authService.login(loginDTO));
     }
 
+    @Operation(summary = "刷新令牌")
+    @PostMapping("/refresh")
+    public Result<LoginVO> refresh(@RequestBody @Validated RefreshTokenDTO refreshTokenDTO) {
+        return Result.success(authService.refresh(refreshTokenDTO.getRefreshToken()));
+    }
+
     @Operation(summary = "登出")
     @PostMapping("/logout")
     public Result<Void> logout() {
+        authService.logout();
         return Result.success();
     }
 
@@ -41,15 +50,22 @@ public class AuthController {
         return Result.success(authService.getUserInfo());
     }
 
-    @Operation(summary = "获取用户路由")
+    @Operation(summary = "获取用户路由", description = "data 为 RouterVO 列表，返回缓存中已序列化的内容")
     @GetMapping("/routers")
-    public Result<List<RouterVO>> getRouters() {
-        return Result.success(authService.getUserRouters());
+    public Result<RawValue> getRouters(WebRequest request) {
+        if (ConditionalRequestUtils.checkNotModified(request, "routers", authService.getUserRoutersVersion())) {
+            return null;
+        }
+        return Result.success(authService.getUserRoutersJson());
     }
 
     @Operation(summary = "获取用户权限列表")
     @GetMapping("/permissions")
-    public Result<Set<String>> getPermissions() {
+    public Result<Set<String>> getPermissions(WebRequest request) {
+        if (ConditionalRequestUtils.checkNotModified(request, "permissions",
+                authService.getCurrentUserPermissionsVersion())) {
+            return null;
+        }
         return Result.success(authService.getCurrentUserPermissions());
     }
 
@@ -7,8 +7,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import top.flobby.admin.common.annotation.OperLog;
 import top.flobby.admin.common.core.Result;
+import top.flobby.admin.common.utils.ConditionalRequestUtils;
 import top.flobby.admin.system.application.DepartmentService;
 import top.flobby.admin.system.interfaces.dto.DepartmentDTO;
 import top.flobby.admin.system.interfaces.vo.DepartmentVO;
@@ -44,13 +46,18 @@ public class DepartmentController {
      * <p>
      * 查询所有部门并以树形结构返回,用于部门管理页面展示和用户选择部门
      * 此接口允许所有已认证用户访问,覆盖类级别的ADMIN权限限制
+     * 携带的 If-None-Match 与当前版本一致时返回 304
      *
+     * @param request 当前请求
      * @return 部门树列表
      */
     @Operation(summary = "获取部门树", description = "查询所有部门并以树形结构返回")
     @GetMapping("/tree")
     @PreAuthorize("isAuthenticated()")
-    public Result<List<DepartmentVO>> listDepartmentTree() {
+    public Result<List<DepartmentVO>> listDepartmentTree(WebRequest request) {
+        if (ConditionalRequestUtils.checkNotModified(request, "dept-tree", departmentService.getDepartmentTreeVersion())) {
+            return null;
+        }
         List<DepartmentVO> tree = departmentService.listDepartmentTree();
         return Result.success(tree);
     }
@@ -6,9 +6,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import top.flobby.admin.common.annotation.RequiresPermission;
 import top.flobby.admin.common.core.PageResult;
 import top.flobby.admin.common.core.Result;
+import top.flobby.admin.common.utils.ConditionalRequestUtils;
 import top.flobby.admin.system.application.DictService;
 import top.flobby.admin.system.interfaces.dto.DictDataDTO;
 import top.flobby.admin.system.interfaces.dto.DictTypeDTO;
@@ -93,7 +95,10 @@ public class DictController {
     @Operation(summary = "根据字典类型获取字典数据（公共接口）")
     @GetMapping("/data/type/{dictType}")
     public Result<List<DictDataVO>> listDataByType(
-            @Parameter(description = "字典类型") @PathVariable("dictType") String dictType) {
+            @Parameter(description = "字典类型") @PathVariable("dictType") String dictType, WebRequest request) {
+        if (ConditionalRequestUtils.checkNotModified(request, "dict", dictService.getDictVersion(dictType))) {
+            return null;
+        }
         List<DictDataVO> dictDataList = dictService.listDictDataByType(dictType);
         return Result.success(dictDataList);
     }
@@ -6,7 +6,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import top.flobby.admin.common.core.Result;
+import top.flobby.admin.common.utils.ConditionalRequestUtils;
 import top.flobby.admin.system.application.MenuService;
 import top.flobby.admin.system.domain.entity.Menu;
 import top.flobby.admin.system.interfaces.dto.MenuDTO;
@@ -42,12 +44,17 @@ public class MenuController {
      * 获取菜单树
      * <p>
      * 查询所有菜单并以树形结构返回，用于菜单管理页面展示
+     * 携带的 If-None-Match 与当前版本一致时返回 304
      *
+     * @param request 当前请求
      * @return 菜单树列表
      */
     @Operation(summary = "获取菜单树", description = "查询所有菜单并以树形结构返回")
     @GetMapping("/tree")
-    public Result<List<MenuTreeVO>> listMenuTree() {
+    public Result<List<MenuTreeVO>> listMenuTree(WebRequest request) {
+        if (ConditionalRequestUtils.checkNotModified(request, "menu-tree", menuService.getMenuTreeVersion())) {
+            return null;
+        }
         List<MenuTreeVO> tree = menuService.listMenuTree();
         return Result.success(tree);
     }
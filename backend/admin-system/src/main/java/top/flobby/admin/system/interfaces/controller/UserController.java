@@ -128,4 +128,16 @@ public class UserController {
         userService.changeStatus(id, status);
         return Result.success();
     }
+
+    /**
+     * 强制用户下线
+     */
+    @Operation(summary = "强制用户下线")
+    @PostMapping("/{id}/kickout")
+    @PreAuthorize("hasAuthority('system:user:edit')")
+    @OperLog(title = "用户管理", businessType = BusinessType.OTHER)
+    public Result<Void> kickout(@PathVariable Long id) {
+        userService.kickout(id);
+        return Result.success();
+    }
 }
@@ -0,0 +1,14 @@
+package top.flobby.admin.system.interfaces.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "刷新令牌参数")
+public class RefreshTokenDTO {
+
+    @Schema(description = "刷新令牌", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
@@ -18,6 +18,9 @@ public class LoginVO {
     @Schema(description = "访问令牌")
     private String token;
 
+    @Schema(description = "刷新令牌")
+    private String refreshToken;
+
     @Schema(description = "用户名称")
     private String name;
 
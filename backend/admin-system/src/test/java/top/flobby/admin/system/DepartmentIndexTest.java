@@ -0,0 +1,96 @@
+package top.flobby.admin.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.flobby.admin.system.application.DepartmentIndex;
+import top.flobby.admin.system.domain.entity.Department;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 部门层级索引测试
+ */
+@DisplayName("部门层级索引测试")
+class DepartmentIndexTest {
+
+    private DepartmentIndex index;
+
+    /**
+     * 部门树:
+     * 1 总公司
+     * ├── 2 研发部
+     * │   ├── 4 后端组
+     * │   └── 5 前端组（禁用）
+     * └── 3 市场部
+     * 7 孤儿部门（父部门 6 已删除）
+     * └── 8 孤儿子部门
+     */
+    @BeforeEach
+    void setUp() {
+        List<Department> departments = new ArrayList<>();
+        departments.add(createDept(1L, 0L, 1));
+        departments.add(createDept(2L, 1L, 1));
+        departments.add(createDept(3L, 1L, 1));
+        departments.add(createDept(4L, 2L, 1));
+        departments.add(createDept(5L, 2L, 0));
+        departments.add(createDept(7L, 6L, 1));
+        departments.add(createDept(8L, 7L, 1));
+        index = DepartmentIndex.of(1L, departments);
+    }
+
+    private Department createDept(Long id, Long parentId, Integer status) {
+        Department dept = new Department();
+        dept.setId(id);
+        dept.setParentId(parentId);
+        dept.setDeptName("部门" + id);
+        dept.setStatus(status);
+        return dept;
+    }
+
+    @Test
+    @DisplayName("子孙判断")
+    void testIsDescendant() {
+        assertTrue(index.isDescendant(1L, 4L));
+        assertTrue(index.isDescendant(2L, 5L));
+        assertTrue(index.isDescendant(7L, 8L));
+        assertFalse(index.isDescendant(2L, 3L));
+        assertFalse(index.isDescendant(4L, 2L));
+        assertFalse(index.isDescendant(2L, 2L), "部门不是自身的子孙");
+        assertFalse(index.isDescendant(1L, 99L));
+    }
+
+    @Test
+    @DisplayName("展开子树")
+    void testSubtree() {
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), index.subtree(1L));
+        assertEquals(Set.of(2L, 4L, 5L), index.subtree(2L));
+        assertEquals(Set.of(3L), index.subtree(3L));
+        assertEquals(Set.of(99L), index.subtree(99L), "不存在的部门只返回自身");
+        assertEquals(Set.of(2L, 4L, 5L, 7L, 8L), index.expand(List.of(4L, 2L, 7L)));
+    }
+
+    @Test
+    @DisplayName("禁用部门检查")
+    void testAnyDisabled() {
+        assertTrue(index.anyDisabled(List.of(4L, 5L)));
+        assertFalse(index.anyDisabled(List.of(1L, 4L, 8L)));
+        assertFalse(index.anyDisabled(List.of(99L)), "不存在的部门视为未禁用");
+    }
+
+    @Test
+    @DisplayName("环上的部门不会导致死循环")
+    void testCycle() {
+        DepartmentIndex cyclic = DepartmentIndex.of(1L, List.of(
+                createDept(1L, 2L, 1),
+                createDept(2L, 1L, 1),
+                createDept(3L, 2L, 1)));
+
+        assertEquals(3, cyclic.size());
+        assertTrue(cyclic.subtree(1L).contains(1L));
+    }
+}
@@ -0,0 +1,204 @@
+package top.flobby.admin.system;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import top.flobby.admin.common.context.DataScopeContext;
+import top.flobby.admin.common.context.DataScopeInfo;
+import top.flobby.admin.common.utils.DataScopeUtils;
+import top.flobby.admin.system.domain.entity.Department;
+import top.flobby.admin.system.domain.entity.DeptClosure;
+import top.flobby.admin.system.domain.entity.User;
+import top.flobby.admin.system.domain.entity.UserDept;
+import top.flobby.admin.system.infrastructure.repository.JpaDeptClosureRepository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 部门闭包表维护与闭包表数据权限条件测试
+ * <p>
+ * 部门树: A → B → C，D 为另一个顶级部门
+ */
+@DataJpaTest
+@DisplayName("部门闭包表测试")
+class DeptClosureRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JpaDeptClosureRepository closureRepository;
+
+    private Long a;
+    private Long b;
+    private Long c;
+    private Long d;
+
+    @BeforeEach
+    void setUp() {
+        a = createDepartment("A", 0L);
+        b = createDepartment("B", a);
+        c = createDepartment("C", b);
+        d = createDepartment("D", 0L);
+    }
+
+    @Test
+    @DisplayName("新增部门: 复制父部门的祖先关系并加入自身关系")
+    void testInsertNode() {
+        assertEquals(Map.of(a, 0), ancestorsOf(a));
+        assertEquals(Map.of(a, 1, b, 0), ancestorsOf(b));
+        assertEquals(Map.of(a, 2, b, 1, c, 0), ancestorsOf(c));
+        assertEquals(Map.of(d, 0), ancestorsOf(d));
+    }
+
+    @Test
+    @DisplayName("移动部门: 断开原祖先，连接新父部门的祖先，子树内部关系不变")
+    void testMoveSubtree() {
+        move(b, d);
+
+        assertEquals(Map.of(d, 1, b, 0), ancestorsOf(b));
+        assertEquals(Map.of(d, 2, b, 1, c, 0), ancestorsOf(c));
+        assertEquals(Set.of(a), descendantsOf(a));
+        assertEquals(Set.of(d, b, c), descendantsOf(d));
+        assertEquals(Set.of(b, c), descendantsOf(b));
+    }
+
+    @Test
+    @DisplayName("移动部门到顶级: 只保留子树内部关系")
+    void testMoveSubtreeToRoot() {
+        move(b, 0L);
+
+        assertEquals(Map.of(b, 0), ancestorsOf(b));
+        assertEquals(Map.of(b, 1, c, 0), ancestorsOf(c));
+        assertEquals(Set.of(a), descendantsOf(a));
+    }
+
+    @Test
+    @DisplayName("断开顶级部门: 没有祖先关系需要删除")
+    void testDetachRoot() {
+        assertEquals(0, closureRepository.detachSubtree(a));
+        entityManager.clear();
+
+        assertEquals(Set.of(a, b, c), descendantsOf(a));
+    }
+
+    @Test
+    @DisplayName("删除部门: 删除以其为子孙的关系，其余关系不变")
+    void testDeleteLeaf() {
+        closureRepository.deleteByDescendantId(c);
+        entityManager.clear();
+
+        assertTrue(ancestorsOf(c).isEmpty());
+        assertEquals(Set.of(a, b), descendantsOf(a));
+        assertEquals(Map.of(a, 1, b, 0), ancestorsOf(b));
+    }
+
+    @Test
+    @DisplayName("子孙判断: 按闭包表查询")
+    void testExistsByAncestorIdAndDescendantId() {
+        assertTrue(closureRepository.existsByAncestorIdAndDescendantId(a, c));
+        assertFalse(closureRepository.existsByAncestorIdAndDescendantId(c, a));
+        assertFalse(closureRepository.existsByAncestorIdAndDescendantId(d, c));
+
+        move(b, d);
+
+        assertTrue(closureRepository.existsByAncestorIdAndDescendantId(d, c));
+        assertFalse(closureRepository.existsByAncestorIdAndDescendantId(a, c));
+    }
+
+    @Test
+    @DisplayName("dataScope=2 (闭包表): 按所属部门关联全部子孙部门的用户，移动后随闭包表变化")
+    void testDataScopeClosurePredicate() {
+        Long userInC = createUser("userC", c);
+        Long userInD = createUser("userD", d);
+        Long userInA = createUser("userA", a);
+
+        assertEquals(Set.of(userInC), queryUsers(Set.of(b)));
+        assertEquals(Set.of(userInA, userInC), queryUsers(Set.of(a)));
+        assertEquals(Set.of(userInD), queryUsers(Set.of(d)));
+
+        move(b, d);
+
+        assertEquals(Set.of(userInA), queryUsers(Set.of(a)));
+        assertEquals(Set.of(userInC, userInD), queryUsers(Set.of(d)));
+    }
+
+    private Long createDepartment(String name, Long parentId) {
+        Department department = new Department();
+        department.setDeptName(name);
+        department.setParentId(parentId);
+        department.setAncestors("");
+        department.setStatus(1);
+        department.setDeleted(0);
+        entityManager.persist(department);
+        entityManager.flush();
+        closureRepository.insertNode(department.getId(), parentId);
+        entityManager.clear();
+        return department.getId();
+    }
+
+    private Long createUser(String username, Long deptId) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setRealName(username);
+        user.setStatus(1);
+        user.setDeleted(0);
+        entityManager.persist(user);
+        entityManager.flush();
+
+        UserDept userDept = new UserDept();
+        userDept.setUserId(user.getId());
+        userDept.setDeptId(deptId);
+        entityManager.persist(userDept);
+        entityManager.flush();
+        entityManager.clear();
+        return user.getId();
+    }
+
+    /**
+     * 与部门服务移动部门时的闭包表维护一致
+     */
+    private void move(Long deptId, Long parentId) {
+        closureRepository.detachSubtree(deptId);
+        closureRepository.attachSubtree(deptId, parentId);
+        entityManager.clear();
+    }
+
+    private Map<Long, Integer> ancestorsOf(Long deptId) {
+        return closureRepository.findAll().stream()
+                .filter(closure -> closure.getDescendantId().equals(deptId))
+                .collect(Collectors.toMap(DeptClosure::getAncestorId, DeptClosure::getDepth));
+    }
+
+    private Set<Long> descendantsOf(Long deptId) {
+        return Set.copyOf(closureRepository.findDescendantIds(deptId));
+    }
+
+    private Set<Long> queryUsers(Set<Long> rootDeptIds) {
+        // 允许访问的部门集合故意留空，确认走的是闭包表而不是 IN 列表
+        DataScopeContext.set(new DataScopeInfo(0L, 2, Set.of(), rootDeptIds));
+        try {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<User> query = cb.createQuery(User.class);
+            Root<User> root = query.from(User.class);
+            query.select(root).where(DataScopeUtils.buildUserDataScopePredicate(
+                    root, cb, query, UserDept.class, DeptClosure.class));
+            return entityManager.createQuery(query).getResultList().stream()
+                    .map(User::getId)
+                    .collect(Collectors.toSet());
+        } finally {
+            DataScopeContext.clear();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package top.flobby.admin.system;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import top.flobby.admin.system.domain.entity.DeptClosure;
+import top.flobby.admin.system.infrastructure.repository.JpaDeptClosureRepository;
+
+/**
+ * 仓储测试配置
+ * <p>
+ * 系统模块没有启动类，{@code @DataJpaTest} 从测试包向上查找到本配置，使用内存数据库 H2。
+ * 只注册测试用到的仓储，避免其他仓储中依赖 MySQL 语法的查询影响启动
+ */
+@SpringBootConfiguration
+@EntityScan(basePackageClasses = DeptClosure.class)
+@EnableJpaRepositories(basePackageClasses = JpaDeptClosureRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = JpaDeptClosureRepository.class))
+public class JpaTestConfiguration {
+}
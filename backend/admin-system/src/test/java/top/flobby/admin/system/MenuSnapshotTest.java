@@ -0,0 +1,71 @@
+package top.flobby.admin.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.flobby.admin.system.application.MenuSnapshot;
+import top.flobby.admin.system.domain.entity.Menu;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 菜单快照测试
+ */
+@DisplayName("菜单快照测试")
+class MenuSnapshotTest {
+
+    private Menu systemMenu;
+    private MenuSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        systemMenu = createMenu(1L, 0L, 1, null, 1);
+        Menu userMenu = createMenu(2L, 1L, 2, "system:user:list", 1);
+        Menu userAddBtn = createMenu(3L, 2L, 3, "system:user:add", 1);
+        Menu disabledBtn = createMenu(4L, 2L, 3, "system:user:delete", 0);
+        snapshot = MenuSnapshot.of(7L, List.of(systemMenu, userMenu, userAddBtn, disabledBtn));
+    }
+
+    private Menu createMenu(Long id, Long parentId, Integer type, String permission, Integer status) {
+        Menu menu = new Menu();
+        menu.setId(id);
+        menu.setParentId(parentId);
+        menu.setMenuName("菜单" + id);
+        menu.setMenuType(type);
+        menu.setPermission(permission);
+        menu.setStatus(status);
+        return menu;
+    }
+
+    @Test
+    @DisplayName("按ID、父ID、权限标识索引")
+    void testIndexes() {
+        assertEquals(7L, snapshot.getVersion());
+        assertEquals(4, snapshot.getMenus().size());
+        assertEquals("菜单2", snapshot.getById(2L).getMenuName());
+        assertNull(snapshot.getById(99L));
+        assertEquals(List.of(3L, 4L), snapshot.getChildren(2L).stream().map(Menu::getId).toList());
+        assertTrue(snapshot.getChildren(3L).isEmpty());
+        assertEquals(3L, snapshot.getByPermission("system:user:add").getId());
+    }
+
+    @Test
+    @DisplayName("权限展开排除禁用菜单与未配置权限标识的菜单")
+    void testPermissionsOf() {
+        Set<String> permissions = snapshot.permissionsOf(Set.of(1L, 2L, 3L, 4L, 99L));
+
+        assertEquals(Set.of("system:user:list", "system:user:add"), permissions);
+    }
+
+    @Test
+    @DisplayName("快照与源实体相互隔离")
+    void testDetachedFromSource() {
+        systemMenu.setMenuName("已修改");
+
+        assertEquals("菜单1", snapshot.getById(1L).getMenuName());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getMenus().add(new Menu()));
+    }
+}
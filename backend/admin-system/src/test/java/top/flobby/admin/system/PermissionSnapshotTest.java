@@ -0,0 +1,117 @@
+package top.flobby.admin.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import top.flobby.admin.system.infrastructure.security.LoginUser;
+import top.flobby.admin.system.infrastructure.security.PermissionRegistry;
+import top.flobby.admin.system.infrastructure.security.PermissionSnapshot;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限快照位图测试
+ */
+@DisplayName("权限快照位图测试")
+class PermissionSnapshotTest {
+
+    private PermissionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PermissionRegistry();
+    }
+
+    @Test
+    @DisplayName("相同权限标识分配相同ID")
+    void testRegistryAssignsStableIds() {
+        int first = registry.register("system:user:list");
+        int second = registry.register("system:user:add");
+
+        assertEquals(first, registry.register("system:user:list"));
+        assertNotEquals(first, second);
+        assertEquals(PermissionRegistry.UNKNOWN, registry.idOf("system:user:delete"));
+        assertEquals(PermissionRegistry.UNKNOWN, registry.idOf(null));
+    }
+
+    @Test
+    @DisplayName("位运算判断权限")
+    void testPermissionChecks() {
+        PermissionSnapshot snapshot = PermissionSnapshot.of("1,2",
+                List.of("system:user:list", "system:user:add"), registry);
+        registry.register("system:role:list");
+
+        int list = registry.idOf("system:user:list");
+        int add = registry.idOf("system:user:add");
+        int roleList = registry.idOf("system:role:list");
+
+        assertTrue(snapshot.has(list));
+        assertFalse(snapshot.has(roleList));
+        assertFalse(snapshot.has(PermissionRegistry.UNKNOWN));
+        assertTrue(snapshot.hasAny(roleList, add));
+        assertFalse(snapshot.hasAny(roleList, PermissionRegistry.UNKNOWN));
+        assertTrue(snapshot.hasAll(list, add));
+        assertFalse(snapshot.hasAll(list, roleList));
+        assertEquals(Set.of("system:user:list", "system:user:add"), snapshot.getPermissions());
+    }
+
+    @Test
+    @DisplayName("跨多个位图字的权限")
+    void testManyPermissions() {
+        List<String> permissions = IntStream.range(0, 200)
+                .mapToObj(i -> "perm:" + i)
+                .collect(Collectors.toList());
+        PermissionSnapshot snapshot = PermissionSnapshot.of("1", permissions.subList(0, 150), registry);
+        permissions.forEach(registry::register);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i < 150, snapshot.has(registry.idOf("perm:" + i)), "perm:" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("空权限快照")
+    void testEmptySnapshot() {
+        PermissionSnapshot empty = PermissionSnapshot.of("", List.of(), registry);
+
+        assertSame(PermissionSnapshot.EMPTY, empty);
+        assertFalse(empty.has(0));
+        assertFalse(empty.hasAny(0, 1));
+        assertTrue(empty.hasAll());
+        assertTrue(empty.getPermissions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("快照权限集合不可修改")
+    void testPermissionsAreImmutable() {
+        PermissionSnapshot snapshot = PermissionSnapshot.of("1", List.of("system:user:list"), registry);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.getPermissions().add("system:user:add"));
+    }
+
+    @Test
+    @DisplayName("登录用户引用共享快照: 不复制权限列表，授权视图包含角色与快照权限")
+    void testLoginUsersShareSnapshot() {
+        PermissionSnapshot snapshot = PermissionSnapshot.of("1",
+                List.of("system:user:list", "system:user:add"), registry);
+        LoginUser alice = new LoginUser(1L, "alice", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")),
+                null, snapshot);
+        LoginUser bob = new LoginUser(2L, "bob", "", List.of(), null, snapshot);
+
+        assertSame(snapshot, alice.getPermissionSnapshot(registry));
+        assertSame(snapshot, bob.getPermissionSnapshot(registry));
+        assertSame(snapshot.getAuthorities(), snapshot.getAuthorities());
+        assertEquals(Set.of("ROLE_ADMIN", "system:user:list", "system:user:add"), alice.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+        assertEquals(2, bob.getAuthorities().size());
+    }
+}
@@ -0,0 +1,90 @@
+package top.flobby.admin.system;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.flobby.admin.system.application.MenuService;
+import top.flobby.admin.system.application.MenuSnapshot;
+import top.flobby.admin.system.application.MenuSnapshotService;
+import top.flobby.admin.system.application.PermissionCacheService;
+import top.flobby.admin.system.application.RouterCacheService;
+import top.flobby.admin.system.infrastructure.security.PermissionRegistry;
+import top.flobby.admin.system.infrastructure.security.PermissionSnapshot;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 路由缓存测试
+ */
+@DisplayName("路由缓存测试")
+class RouterCacheTest {
+
+    private final PermissionCacheService permissionCacheService = mock(PermissionCacheService.class);
+    private final MenuSnapshotService menuSnapshotService = mock(MenuSnapshotService.class);
+    private final MenuService menuService = mock(MenuService.class);
+    private final PermissionRegistry registry = new PermissionRegistry();
+
+    private RouterCacheService routerCache;
+
+    @BeforeEach
+    void setUp() {
+        when(menuSnapshotService.current()).thenReturn(MenuSnapshot.of(1L, List.of()));
+        when(menuService.buildRoutersByRoleSetKey(eq("1,2"), any())).thenReturn(List.of());
+        routerCache = new RouterCacheService(permissionCacheService, menuSnapshotService, menuService,
+                new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(routerCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(routerCache, "ttlSeconds", 3600L);
+        routerCache.init();
+    }
+
+    @Test
+    @DisplayName("权限快照重新加载: 角色组合与版本不变时不重建路由")
+    void testReloadedSnapshotKeepsEntry() {
+        when(permissionCacheService.getUserPermissionSnapshot(1L)).thenReturn(snapshot(), snapshot());
+
+        routerCache.getUserRoutersJson(1L);
+        routerCache.getUserRoutersJson(1L);
+
+        verify(menuService, times(1)).buildRoutersByRoleSetKey(eq("1,2"), any());
+    }
+
+    @Test
+    @DisplayName("角色权限版本前进: 路由重建")
+    void testRoleVersionChangeRebuilds() {
+        when(permissionCacheService.getUserPermissionSnapshot(1L)).thenReturn(snapshot());
+        when(permissionCacheService.getRoleVersion()).thenReturn(0L, 1L);
+
+        routerCache.getUserRoutersJson(1L);
+        routerCache.getUserRoutersJson(1L);
+
+        verify(menuService, times(2)).buildRoutersByRoleSetKey(eq("1,2"), any());
+    }
+
+    @Test
+    @DisplayName("菜单快照版本前进: 路由重建")
+    void testMenuVersionChangeRebuilds() {
+        when(permissionCacheService.getUserPermissionSnapshot(1L)).thenReturn(snapshot());
+        when(menuSnapshotService.current()).thenReturn(MenuSnapshot.of(1L, List.of()), MenuSnapshot.of(2L, List.of()));
+
+        routerCache.getUserRoutersJson(1L);
+        routerCache.getUserRoutersJson(1L);
+
+        verify(menuService, times(2)).buildRoutersByRoleSetKey(eq("1,2"), any());
+        assertEquals("[]", routerCache.getUserRoutersJson(1L).rawValue());
+    }
+
+    /**
+     * 每次调用返回新实例，模拟 L1 过期后重新加载
+     */
+    private PermissionSnapshot snapshot() {
+        return PermissionSnapshot.of("1,2", List.of("system:user:list"), registry);
+    }
+}
@@ -0,0 +1,108 @@
+package top.flobby.admin.system;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.flobby.admin.system.application.SecurityVersionService;
+import top.flobby.admin.system.infrastructure.security.UserDetailsCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 认证主体本地缓存测试
+ */
+@DisplayName("认证主体缓存测试")
+class UserDetailsCacheTest {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final SecurityVersionService securityVersionService = mock(SecurityVersionService.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private UserDetailsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(securityVersionService.currentStamp("admin")).thenReturn("1");
+        cache = new UserDetailsCache(userDetailsService, securityVersionService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("并发未命中: 同一键只查询一次数据库，其余请求共享结果")
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        when(userDetailsService.loadUserByUsername("admin")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            Thread.sleep(200);
+            return user();
+        });
+
+        List<Future<UserDetails>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.get("admin", null);
+            }));
+        }
+        start.countDown();
+
+        UserDetails first = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<UserDetails> future : futures) {
+            assertSame(first, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("版本戳变化: 按新键重新加载")
+    void testStampChangeReloads() {
+        when(userDetailsService.loadUserByUsername("admin")).thenAnswer(invocation -> user());
+
+        UserDetails before = cache.get("admin", null);
+        assertSame(before, cache.get("admin", null));
+
+        when(securityVersionService.currentStamp("admin")).thenReturn("2");
+        assertNotSame(before, cache.get("admin", null));
+        verify(userDetailsService, times(2)).loadUserByUsername("admin");
+    }
+
+    @Test
+    @DisplayName("加载失败: 异常原样抛出，不缓存失败结果")
+    void testFailureNotCached() {
+        when(userDetailsService.loadUserByUsername("admin"))
+                .thenThrow(new UsernameNotFoundException("用户不存在"))
+                .thenAnswer(invocation -> user());
+
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("admin", null));
+        assertEquals("admin", cache.get("admin", null).getUsername());
+    }
+
+    private static UserDetails user() {
+        return User.withUsername("admin").password("password").authorities(List.of()).build();
+    }
+}